@@ -0,0 +1,86 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.service.BalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the single-date and whole-history reads of BalanceService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BalanceReadBenchmark {
+
+    private static final int SAMPLE_DATES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"true", "false"})
+    public boolean indexEnabled;
+
+    private BenchmarkContext context;
+    private BalanceService service;
+    private LocalDate[] sampleDates;
+    private YearMonth[] sampleMonths;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, indexEnabled);
+        service = context.balanceService();
+
+        // Spread the lookups over the whole history instead of hitting one hot row
+        Random random = new Random(7);
+        sampleDates = new LocalDate[SAMPLE_DATES];
+        sampleMonths = new YearMonth[SAMPLE_DATES];
+        for (int i = 0; i < SAMPLE_DATES; i++) {
+            sampleDates[i] = BenchmarkContext.FIRST_DATE.plusDays(random.nextInt(entries));
+            sampleMonths[i] = YearMonth.from(sampleDates[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BalanceEntryDTO> getAllEntries() {
+        return service.getAllEntries(BenchmarkContext.ACCOUNT_ID);
+    }
+
+    @Benchmark
+    public ExpenseSummaryDTO getMonthlySummary() {
+        YearMonth month = sampleMonths[nextSample()];
+        return service.getMonthlySummary(BenchmarkContext.ACCOUNT_ID, month.getYear(), month.getMonthValue());
+    }
+
+    @Benchmark
+    public Long calculateDailyExpense() {
+        return service.calculateDailyExpense(BenchmarkContext.ACCOUNT_ID, sampleDates[nextSample()]);
+    }
+
+    // Helper methods
+    private int nextSample() {
+        next = (next + 1) & (SAMPLE_DATES - 1);
+        return next;
+    }
+}
@@ -0,0 +1,147 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.model.BalanceEntry;
+import com.expensetracker.money.Money;
+import com.expensetracker.service.BalanceService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the application against a private H2 in-memory database and seeds it
+ * with a generated balance history for the benchmarks
+ *
+ * Entries are one per day starting at FIRST_DATE, with a random walk balance
+ * that mixes spending days and income days. The read-through cache is disabled
+ * so every call measures the service and repository layers.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+    static final String ACCOUNT_ID = BalanceEntry.DEFAULT_ACCOUNT_ID;
+
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final String INSERT_SQL =
+            "INSERT INTO balance_entries (account_id, date, balance, description, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ConfigurableApplicationContext context;
+    private final int entries;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, int entries) {
+        this.context = context;
+        this.entries = entries;
+    }
+
+    /**
+     * Start a context seeded with the given number of daily entries; extra
+     * arguments are Spring properties such as --expense-tracker.summary.parallel.enabled=false
+     */
+    static BenchmarkContext start(int entries, boolean indexEnabled, String... args) {
+        String[] contextArgs = Arrays.copyOf(args, args.length + 1);
+        contextArgs[args.length] = "--expense-tracker.index.enabled=" + indexEnabled;
+        return start(entries, WebApplicationType.NONE, contextArgs);
+    }
+
+    /**
+     * Start a seeded context serving HTTP on a random port; extra arguments
+     * are Spring properties such as --spring.threads.virtual.enabled=false
+     */
+    static BenchmarkContext startServer(int entries, String... args) {
+        String[] serverArgs = Arrays.copyOf(args, args.length + 1);
+        serverArgs[args.length] = "--server.port=0";
+        return start(entries, WebApplicationType.SERVLET, serverArgs);
+    }
+
+    private static BenchmarkContext start(int entries, WebApplicationType webApplicationType, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark_" + System.nanoTime()
+                        + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.com.expensetracker=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--expense-tracker.cache.enabled=false",
+                // Runs on the still empty database; JMH does its own warm-up
+                "--expense-tracker.warmup.enabled=false"));
+        arguments.addAll(List.of(args));
+        // DevTools would relaunch the calling main method in a restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .profiles("h2")
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                // Command-line arguments so these win over application-h2.properties
+                .run(arguments.toArray(String[]::new));
+
+        BenchmarkContext benchmarkContext = new BenchmarkContext(context, entries);
+        benchmarkContext.seed();
+        return benchmarkContext;
+    }
+
+    BalanceService balanceService() {
+        return context.getBean(BalanceService.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    LocalDate lastDate() {
+        return FIRST_DATE.plusDays(entries - 1L);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    // Helper methods
+    private void seed() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        long balanceCents = 1_000_000L;
+
+        for (int i = 0; i < entries; i++) {
+            // Roughly one income day in five, spending on the others
+            long deltaCents = random.nextInt(5) == 0
+                    ? random.nextInt(50_000)
+                    : -random.nextInt(10_000);
+            balanceCents += deltaCents;
+            batch.add(new Object[] {ACCOUNT_ID, Date.valueOf(FIRST_DATE.plusDays(i)), Money.toDecimal(balanceCents),
+                    "Seeded entry " + i, now, now});
+            if (batch.size() == SEED_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+
+        // Rows were written behind the service, so bring the derived state up to date
+        balanceService().rebuildMonthlyRollups(ACCOUNT_ID);
+        context.getBean(BalanceTimelineIndex.class).load(ACCOUNT_ID);
+    }
+}
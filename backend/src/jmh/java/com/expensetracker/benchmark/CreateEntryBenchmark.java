@@ -0,0 +1,59 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.service.BalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for appending a new day to the history, including the rollup
+ * refresh and index update that follow each write
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreateEntryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"true", "false"})
+    public boolean indexEnabled;
+
+    private BenchmarkContext context;
+    private BalanceService service;
+    private LocalDate nextDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, indexEnabled);
+        service = context.balanceService();
+        nextDate = context.lastDate().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BalanceEntryDTO createEntry() {
+        BalanceEntryDTO dto = new BalanceEntryDTO();
+        dto.setDate(nextDate);
+        dto.setBalance(1_000_000L);
+        dto.setDescription("Benchmark entry");
+        nextDate = nextDate.plusDays(1);
+        return service.createEntry(BenchmarkContext.ACCOUNT_ID, dto);
+    }
+}
@@ -0,0 +1,64 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.service.BalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reads without the index with expenses computed in the
+ * application or by the database's window-function queries
+ *
+ * summary is a summary-only request over the whole range, entries loads the
+ * range with each entry's expense.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExpenseModeBenchmark {
+
+    @Param({"100000"})
+    public int entries;
+
+    @Param({"application", "database"})
+    public String mode;
+
+    private BenchmarkContext context;
+    private BalanceService service;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, false, "--expense-tracker.expenses.mode=" + mode);
+        service = context.balanceService();
+        endDate = context.lastDate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseSummaryDTO summary() {
+        return service.getExpenseSummary(BenchmarkContext.ACCOUNT_ID, BenchmarkContext.FIRST_DATE, endDate, false);
+    }
+
+    @Benchmark
+    public List<BalanceEntryDTO> entries() {
+        return service.getEntriesByDateRange(BenchmarkContext.ACCOUNT_ID, BenchmarkContext.FIRST_DATE, endDate);
+    }
+}
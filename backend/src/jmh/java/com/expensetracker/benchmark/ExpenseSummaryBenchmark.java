@@ -0,0 +1,63 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.service.BalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for expense summaries over ranges ending at the latest entry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpenseSummaryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"true", "false"})
+    public boolean indexEnabled;
+
+    @Param({"30", "365", "3650"})
+    public int rangeDays;
+
+    private BenchmarkContext context;
+    private BalanceService service;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, indexEnabled);
+        service = context.balanceService();
+        endDate = context.lastDate();
+        startDate = endDate.minusDays(rangeDays - 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseSummaryDTO getExpenseSummary() {
+        return service.getExpenseSummary(BenchmarkContext.ACCOUNT_ID, startDate, endDate, false);
+    }
+
+    @Benchmark
+    public ExpenseSummaryDTO getExpenseSummaryWithBreakdown() {
+        return service.getExpenseSummary(BenchmarkContext.ACCOUNT_ID, startDate, endDate, true);
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.BalancePoint;
+import com.expensetracker.service.BalanceService;
+import com.expensetracker.service.ParallelSummaryAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for multi-year summaries without the index, comparing the
+ * parallel month-chunk aggregation with the sequential loop
+ *
+ * summarize measures the aggregation alone over entries loaded in setup;
+ * getExpenseSummary includes loading the range from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelSummaryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    @Param({"3650", "36500"})
+    public int rangeDays;
+
+    @Param({"true", "false"})
+    public boolean parallel;
+
+    private BenchmarkContext context;
+    private BalanceService service;
+    private ParallelSummaryAggregator aggregator;
+    private List<BalancePoint> rangeEntries;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, false,
+                "--expense-tracker.summary.parallel.enabled=" + parallel,
+                "--expense-tracker.summary.parallel.min-days=0");
+        service = context.balanceService();
+        aggregator = context.bean(ParallelSummaryAggregator.class);
+        endDate = context.lastDate();
+        startDate = endDate.minusDays(rangeDays - 1L);
+        rangeEntries = context.bean(BalanceEntryRepository.class)
+                .findPointsBetween(BenchmarkContext.ACCOUNT_ID, startDate, endDate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RangeSummary summarize() {
+        return aggregator.summarize(startDate, endDate, null, rangeEntries);
+    }
+
+    @Benchmark
+    public ExpenseSummaryDTO getExpenseSummary() {
+        return service.getExpenseSummary(BenchmarkContext.ACCOUNT_ID, startDate, endDate, false);
+    }
+}
@@ -0,0 +1,103 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.BalanceEntry;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.BalancePoint;
+import com.expensetracker.repository.EntryRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a large date range as managed entities versus read-only projections
+ *
+ * entities is how reads used to run: BalanceEntry entities in a read-write
+ * transaction, snapshotted and dirty-checked at commit. readOnlyEntities
+ * isolates the effect of the read-only transaction, rows and points are the
+ * projections the read path uses now. The entity query is kept here since no
+ * read path loads ranges of entities any more. Run with -prof gc to see the
+ * allocation per operation next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionReadBenchmark {
+
+    private static final String ENTITY_RANGE_JPQL = "SELECT b FROM BalanceEntry b WHERE b.accountId = :accountId "
+            + "AND b.date BETWEEN :startDate AND :endDate ORDER BY b.date ASC";
+
+    @Param({"100000"})
+    public int entries;
+
+    private BenchmarkContext context;
+    private BalanceEntryRepository repository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(entries, false);
+        repository = context.bean(BalanceEntryRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.bean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = context.bean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        endDate = context.lastDate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BalanceEntry> entities() {
+        return readWrite.execute(status -> findEntities());
+    }
+
+    @Benchmark
+    public List<BalanceEntry> readOnlyEntities() {
+        return readOnly.execute(status -> findEntities());
+    }
+
+    @Benchmark
+    public List<EntryRow> rows() {
+        return readOnly.execute(status -> repository.findRowsBetween(BenchmarkContext.ACCOUNT_ID,
+                BenchmarkContext.FIRST_DATE, endDate));
+    }
+
+    @Benchmark
+    public List<BalancePoint> points() {
+        return readOnly.execute(status -> repository.findPointsBetween(BenchmarkContext.ACCOUNT_ID,
+                BenchmarkContext.FIRST_DATE, endDate));
+    }
+
+    // Helper methods
+    private List<BalanceEntry> findEntities() {
+        return entityManager.createQuery(ENTITY_RANGE_JPQL, BalanceEntry.class)
+                .setParameter("accountId", BenchmarkContext.ACCOUNT_ID)
+                .setParameter("startDate", BenchmarkContext.FIRST_DATE)
+                .setParameter("endDate", endDate)
+                .getResultList();
+    }
+}
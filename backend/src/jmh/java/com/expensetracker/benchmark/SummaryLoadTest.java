@@ -0,0 +1,228 @@
+package com.expensetracker.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load test for concurrent mixed traffic against the HTTP API, run once per
+ * thread mode so the throughput and latencies can be compared
+ *
+ * Each client repeatedly sends either a heavy request (a yearly summary with
+ * the daily breakdown) or a light one (an entry or expense lookup by date).
+ * The index and cache are disabled by default so summaries are database-bound.
+ *
+ * Options are key=value arguments:
+ * modes=platform,virtual entries=100000 clients=200 heavy=0.2
+ * warmup=5 duration=20 tomcatThreads=50 index=false
+ */
+public final class SummaryLoadTest {
+
+    private static final int HEAVY = 0;
+    private static final int LIGHT = 1;
+
+    private SummaryLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int entries = Integer.parseInt(options.getOrDefault("entries", "100000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        double heavyShare = Double.parseDouble(options.getOrDefault("heavy", "0.2"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+        String tomcatThreads = options.getOrDefault("tomcatThreads", "50");
+        String indexEnabled = options.getOrDefault("index", "false");
+
+        List<String> results = new ArrayList<>();
+        for (String mode : options.getOrDefault("modes", "platform,virtual").split(",")) {
+            boolean virtual = switch (mode) {
+                case "platform" -> false;
+                case "virtual" -> true;
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            };
+            System.out.printf("Running %s mode: %d entries, %d clients, %.0f%% heavy%n",
+                    mode, entries, clients, heavyShare * 100);
+
+            try (BenchmarkContext context = BenchmarkContext.startServer(entries,
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--server.tomcat.threads.max=" + tomcatThreads,
+                    "--expense-tracker.index.enabled=" + indexEnabled)) {
+                LoadRun run = new LoadRun(context, clients, heavyShare);
+                run.execute(Duration.ofSeconds(warmupSeconds));
+                run.reset();
+                run.execute(Duration.ofSeconds(durationSeconds));
+                results.add(run.report(mode, durationSeconds));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-9s %12s %11s %11s %11s %11s %7s%n",
+                "mode", "requests/s", "heavy p50", "heavy p99", "light p50", "light p99", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * One measured period of traffic from a fixed number of clients
+     */
+    private static final class LoadRun {
+
+        private final HttpClient httpClient;
+        private final String baseUrl;
+        private final LocalDate firstDate;
+        private final LocalDate lastDate;
+        private final int clients;
+        private final double heavyShare;
+
+        private final List<LatencyRecorder> recorders = new ArrayList<>();
+
+        LoadRun(BenchmarkContext context, int clients, double heavyShare) {
+            this.httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            this.baseUrl = "http://localhost:" + context.port() + "/api/balances";
+            this.firstDate = BenchmarkContext.FIRST_DATE;
+            this.lastDate = context.lastDate();
+            this.clients = clients;
+            this.heavyShare = heavyShare;
+            for (int i = 0; i < clients; i++) {
+                recorders.add(new LatencyRecorder());
+            }
+        }
+
+        void execute(Duration duration) throws InterruptedException {
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Thread> threads = new ArrayList<>(clients);
+            for (LatencyRecorder recorder : recorders) {
+                threads.add(Thread.ofVirtual().start(() -> {
+                    while (running.get()) {
+                        sendOne(recorder);
+                    }
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        void reset() {
+            recorders.forEach(LatencyRecorder::reset);
+        }
+
+        String report(String mode, int durationSeconds) {
+            LatencyRecorder total = new LatencyRecorder();
+            recorders.forEach(total::addAll);
+            long requests = total.count(HEAVY) + total.count(LIGHT);
+            return String.format("%-9s %12.1f %9.1fms %9.1fms %9.1fms %9.1fms %7d", mode,
+                    (double) requests / durationSeconds,
+                    total.percentileMillis(HEAVY, 0.50), total.percentileMillis(HEAVY, 0.99),
+                    total.percentileMillis(LIGHT, 0.50), total.percentileMillis(LIGHT, 0.99),
+                    total.errors);
+        }
+
+        private void sendOne(LatencyRecorder recorder) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean heavy = random.nextDouble() < heavyShare;
+            String path;
+            if (heavy) {
+                // A yearly report ending anywhere in the history
+                LocalDate end = lastDate.minusDays(random.nextInt(Math.max(1, (int) (lastDate.toEpochDay()
+                        - firstDate.toEpochDay()) - 364)));
+                path = "/summary?startDate=" + end.minusDays(364) + "&endDate=" + end;
+            } else {
+                LocalDate date = firstDate.plusDays(random.nextLong(lastDate.toEpochDay() - firstDate.toEpochDay()
+                        + 1));
+                path = random.nextBoolean() ? "/date/" + date : "/expense/" + date;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    recorder.record(heavy ? HEAVY : LIGHT, System.nanoTime() - start);
+                } else {
+                    recorder.errors++;
+                }
+            } catch (IOException e) {
+                recorder.errors++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Latencies of one client, or of all clients once merged
+     */
+    private static final class LatencyRecorder {
+
+        private long[][] latencies = new long[2][1024];
+        private final int[] counts = new int[2];
+        private long errors;
+
+        void record(int kind, long nanos) {
+            if (counts[kind] == latencies[kind].length) {
+                latencies[kind] = Arrays.copyOf(latencies[kind], counts[kind] * 2);
+            }
+            latencies[kind][counts[kind]++] = nanos;
+        }
+
+        void addAll(LatencyRecorder other) {
+            for (int kind = 0; kind < counts.length; kind++) {
+                for (int i = 0; i < other.counts[kind]; i++) {
+                    record(kind, other.latencies[kind][i]);
+                }
+            }
+            errors += other.errors;
+        }
+
+        void reset() {
+            latencies = new long[2][1024];
+            Arrays.fill(counts, 0);
+            errors = 0;
+        }
+
+        long count(int kind) {
+            return counts[kind];
+        }
+
+        double percentileMillis(int kind, double percentile) {
+            if (counts[kind] == 0) {
+                return Double.NaN;
+            }
+            long[] sorted = Arrays.copyOf(latencies[kind], counts[kind]);
+            Arrays.sort(sorted);
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.service.BalanceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency stress test for writing entries by date over the HTTP API
+ *
+ * Many clients write to either a single date (same) or a pool of dates
+ * (many) at once, in one of three ways:
+ * upsert    - PUT /date/{date} without a version, last writer wins
+ * increment - read the entry, then PUT /date/{date} with its version and the
+ *             balance plus one cent, retrying on 409 Conflict
+ * legacy    - read the entry, then POST it if missing or PUT /{id} otherwise
+ *
+ * Once a run ends, every date is checked against the database: an upsert
+ * date must be at one version per acknowledged write and hold the balance of
+ * the write acknowledged last, an increment date must hold exactly one cent
+ * per acknowledged increment, and the index and the monthly rollups must
+ * match the rows. legacy shows the errors of the check-then-write approach,
+ * which has no version to check.
+ *
+ * Options are key=value arguments:
+ * scenarios=upsert,increment,legacy targets=same,many dates=200 clients=64
+ * warmup=3 duration=10 entries=1000 index=true virtual=true
+ */
+public final class UpsertStressTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private UpsertStressTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int entries = Integer.parseInt(options.getOrDefault("entries", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        int poolSize = Integer.parseInt(options.getOrDefault("dates", "200"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "10"));
+        String indexEnabled = options.getOrDefault("index", "true");
+        String virtualThreads = options.getOrDefault("virtual", "true");
+
+        List<String> results = new ArrayList<>();
+        for (String scenario : options.getOrDefault("scenarios", "upsert,increment,legacy").split(",")) {
+            for (String target : options.getOrDefault("targets", "same,many").split(",")) {
+                int dates = switch (target) {
+                    case "same" -> 1;
+                    case "many" -> poolSize;
+                    default -> throw new IllegalArgumentException("Unknown target: " + target);
+                };
+                System.out.printf("Running %s on %s: %d clients, %d dates%n", scenario, target, clients, dates);
+
+                try (BenchmarkContext context = BenchmarkContext.startServer(entries,
+                        "--expense-tracker.index.enabled=" + indexEnabled,
+                        "--spring.threads.virtual.enabled=" + virtualThreads)) {
+                    StressRun run = new StressRun(context, scenario, clients, dates);
+                    run.prepare();
+                    run.execute(Duration.ofSeconds(warmupSeconds));
+                    run.resetTimings();
+                    run.execute(Duration.ofSeconds(durationSeconds));
+                    results.add(run.report(target, durationSeconds, run.verify()));
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-10s %-5s %12s %9s %9s %9s %9s %7s  %s%n",
+                "scenario", "dates", "requests/s", "p50", "p99", "ok", "conflicts", "errors", "check");
+        results.forEach(System.out::println);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Writes from a fixed number of clients to a pool of dates after the seeded history
+     */
+    private static final class StressRun {
+
+        private final BenchmarkContext context;
+        private final HttpClient httpClient;
+        private final String baseUrl;
+        private final String scenario;
+        private final int clients;
+        private final List<LocalDate> dates = new ArrayList<>();
+
+        // Kept across warm-up and measurement, since the final rows reflect both
+        private final Map<LocalDate, AtomicLong> acknowledged = new ConcurrentHashMap<>();
+        private final Map<LocalDate, Set<Long>> versionsSeen = new ConcurrentHashMap<>();
+        private final Map<LocalDate, long[]> latestWrite = new ConcurrentHashMap<>();
+        private final AtomicLong duplicateVersions = new AtomicLong();
+
+        private final List<Recorder> recorders = new ArrayList<>();
+
+        StressRun(BenchmarkContext context, String scenario, int clients, int dateCount) {
+            this.context = context;
+            this.httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            this.baseUrl = "http://localhost:" + context.port() + "/api/balances";
+            this.scenario = scenario;
+            this.clients = clients;
+            LocalDate first = context.lastDate().plusDays(1);
+            for (int i = 0; i < dateCount; i++) {
+                LocalDate date = first.plusDays(i);
+                dates.add(date);
+                acknowledged.put(date, new AtomicLong());
+                versionsSeen.put(date, ConcurrentHashMap.newKeySet());
+            }
+            for (int i = 0; i < clients; i++) {
+                recorders.add(new Recorder());
+            }
+        }
+
+        void prepare() throws IOException, InterruptedException {
+            if (!scenario.equals("increment")) {
+                return;
+            }
+            // Increments need an entry to read; each starts at 0.00 and version 0
+            for (LocalDate date : dates) {
+                HttpResponse<String> response = send(put("/date/" + date, 0L, null));
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("Creating " + date + " failed: " + response.body());
+                }
+            }
+        }
+
+        void execute(Duration duration) throws InterruptedException {
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Thread> threads = new ArrayList<>(clients);
+            for (Recorder recorder : recorders) {
+                threads.add(Thread.ofVirtual().start(() -> {
+                    while (running.get()) {
+                        writeOne(recorder);
+                    }
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        void resetTimings() {
+            recorders.forEach(Recorder::reset);
+        }
+
+        /**
+         * Compare the database with the acknowledged writes, returning the problems found
+         */
+        List<String> verify() throws IOException {
+            ObjectMapper objectMapper = context.bean(ObjectMapper.class);
+            BalanceEntryRepository repository = context.bean(BalanceEntryRepository.class);
+            BalanceService service = context.balanceService();
+            String account = BenchmarkContext.ACCOUNT_ID;
+            List<String> problems = new ArrayList<>();
+            if (duplicateVersions.get() > 0) {
+                problems.add(duplicateVersions.get() + " writes acknowledged with a version seen before");
+            }
+
+            for (LocalDate date : dates) {
+                EntryRow row = repository.findRowByAccountIdAndDate(account, date).orElse(null);
+                long writes = acknowledged.get(date).get();
+                if (row == null) {
+                    if (writes > 0) {
+                        problems.add(date + ": missing after " + writes + " writes");
+                    }
+                    continue;
+                }
+                if (scenario.equals("upsert")) {
+                    long[] latest = latestWrite.get(date);
+                    if (row.version() != writes - 1) {
+                        problems.add(date + ": version " + row.version() + " after " + writes + " writes");
+                    }
+                    if (latest != null && row.balanceCents() != latest[1]) {
+                        problems.add(date + ": balance " + row.balanceCents() + " but last write was " + latest[1]);
+                    }
+                } else if (scenario.equals("increment")) {
+                    if (row.balanceCents() != writes || row.version() != writes) {
+                        problems.add(date + ": " + row.balanceCents() + " cents at version " + row.version()
+                                + " after " + writes + " increments");
+                    }
+                }
+                Long served = service.getEntryByDate(account, date).map(entry -> entry.getBalance()).orElse(null);
+                if (!Objects.equals(served, row.balanceCents())) {
+                    problems.add(date + ": served balance " + served + " but row holds " + row.balanceCents());
+                }
+            }
+
+            // Stored rollups against a rebuild from the rows
+            YearMonth firstMonth = YearMonth.from(dates.get(0));
+            YearMonth lastMonth = YearMonth.from(dates.get(dates.size() - 1));
+            String stored = objectMapper.writeValueAsString(service.getMonthlyTrend(account, firstMonth, lastMonth));
+            service.rebuildMonthlyRollups(account);
+            String rebuilt = objectMapper.writeValueAsString(service.getMonthlyTrend(account, firstMonth, lastMonth));
+            if (!stored.equals(rebuilt)) {
+                problems.add("stored monthly rollups differ from a rebuild");
+            }
+            return problems;
+        }
+
+        String report(String target, int durationSeconds, List<String> problems) {
+            Recorder total = new Recorder();
+            recorders.forEach(total::addAll);
+            problems.stream().limit(5).forEach(problem -> System.out.println("  " + problem));
+            String check = problems.isEmpty() ? "PASS" : "FAIL (" + problems.size() + ")";
+            return String.format("%-10s %-5s %12.1f %7.1fms %7.1fms %9d %9d %7d  %s", scenario, target,
+                    (double) total.count / durationSeconds, total.percentileMillis(0.50),
+                    total.percentileMillis(0.99), total.ok, total.conflicts, total.errors, check);
+        }
+
+        private void writeOne(Recorder recorder) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate date = dates.get(random.nextInt(dates.size()));
+            long start = System.nanoTime();
+            try {
+                int status = switch (scenario) {
+                    case "upsert" -> upsert(date, random.nextLong(1, 100_000_000L));
+                    case "increment" -> increment(date);
+                    case "legacy" -> legacyWrite(date, random.nextLong(1, 100_000_000L));
+                    default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+                };
+                recorder.record(status, System.nanoTime() - start);
+            } catch (IOException e) {
+                recorder.errors++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private int upsert(LocalDate date, long balanceCents) throws IOException, InterruptedException {
+            HttpResponse<String> response = send(put("/date/" + date, balanceCents, null));
+            if (response.statusCode() / 100 == 2) {
+                JsonNode entry = JSON.readTree(response.body());
+                acknowledge(date, entry.get("version").asLong(), balanceCents);
+            }
+            return response.statusCode();
+        }
+
+        private int increment(LocalDate date) throws IOException, InterruptedException {
+            HttpResponse<String> read = send(HttpRequest.newBuilder(URI.create(baseUrl + "/date/" + date)).GET());
+            if (read.statusCode() != 200) {
+                return read.statusCode();
+            }
+            JsonNode entry = JSON.readTree(read.body());
+            long balanceCents = cents(entry.get("balance")) + 1;
+            HttpResponse<String> response = send(put("/date/" + date, balanceCents, entry.get("version").asLong()));
+            if (response.statusCode() == 200) {
+                acknowledge(date, JSON.readTree(response.body()).get("version").asLong(), balanceCents);
+            }
+            return response.statusCode();
+        }
+
+        private int legacyWrite(LocalDate date, long balanceCents) throws IOException, InterruptedException {
+            HttpResponse<String> read = send(HttpRequest.newBuilder(URI.create(baseUrl + "/date/" + date)).GET());
+            String body = "{\"date\":\"" + date + "\",\"balance\":" + BigDecimal.valueOf(balanceCents, 2) + "}";
+            HttpRequest.Builder write = read.statusCode() == 404
+                    ? HttpRequest.newBuilder(URI.create(baseUrl)).POST(HttpRequest.BodyPublishers.ofString(body))
+                    : HttpRequest.newBuilder(URI.create(baseUrl + "/" + JSON.readTree(read.body()).get("id").asLong()))
+                            .PUT(HttpRequest.BodyPublishers.ofString(body));
+            HttpResponse<String> response = send(write.header("Content-Type", "application/json"));
+            if (response.statusCode() / 100 == 2) {
+                acknowledged.get(date).incrementAndGet();
+            }
+            return response.statusCode();
+        }
+
+        private void acknowledge(LocalDate date, long version, long balanceCents) {
+            acknowledged.get(date).incrementAndGet();
+            if (!versionsSeen.get(date).add(version)) {
+                duplicateVersions.incrementAndGet();
+            }
+            latestWrite.merge(date, new long[] {version, balanceCents},
+                    (current, next) -> next[0] > current[0] ? next : current);
+        }
+
+        private HttpRequest.Builder put(String path, long balanceCents, Long version) {
+            String body = "{\"balance\":" + BigDecimal.valueOf(balanceCents, 2)
+                    + (version != null ? ",\"version\":" + version : "") + "}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return httpClient.send(request.timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+
+        private static long cents(JsonNode amount) {
+            return amount.decimalValue().movePointRight(2).longValueExact();
+        }
+    }
+
+    /**
+     * Latencies and outcomes of one client, or of all clients once merged
+     */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long ok;
+        private long conflicts;
+        private long errors;
+
+        void record(int status, long nanos) {
+            addLatency(nanos);
+            if (status / 100 == 2) {
+                ok++;
+            } else if (status == 409) {
+                conflicts++;
+            } else {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                addLatency(other.latencies[i]);
+            }
+            ok += other.ok;
+            conflicts += other.conflicts;
+            errors += other.errors;
+        }
+
+        void reset() {
+            latencies = new long[1024];
+            count = 0;
+            ok = 0;
+            conflicts = 0;
+            errors = 0;
+        }
+
+        private void addLatency(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.wire.ColumnarFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization time of an entry list as the current Jackson JSON versus the columnar binary format
+ *
+ * Runs without an application context. Bytes per entry of each encoding are
+ * printed once per trial, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final String[] CATEGORIES = {
+            "Groceries", "Rent", "Salary", "Fuel", "Dining out", "Utilities", "Pharmacy", "Transfer"
+    };
+
+    @Param({"1000", "100000"})
+    public int entries;
+
+    // none: no descriptions; repeated: a few categories on some days; unique: a different text every day
+    @Param({"none", "repeated", "unique"})
+    public String descriptions;
+
+    private ObjectMapper objectMapper;
+    private List<BalanceEntryDTO> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        // Configured like Spring Boot's ObjectMapper: ISO dates, @Cents amounts as decimals
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Random random = new Random(42);
+        dtos = new ArrayList<>(entries);
+        long balanceCents = 1_000_000L;
+        for (int i = 0; i < entries; i++) {
+            long deltaCents = random.nextInt(5) == 0 ? random.nextInt(50_000) : -random.nextInt(10_000);
+            BalanceEntryDTO dto = new BalanceEntryDTO((long) i + 1, BenchmarkContext.FIRST_DATE.plusDays(i),
+                    balanceCents + deltaCents, description(random, i));
+            dto.setDailyExpense(i == 0 ? null : Math.max(0L, -deltaCents));
+            balanceCents += deltaCents;
+            dtos.add(dto);
+        }
+
+        int jsonBytes = objectMapper.writeValueAsBytes(dtos).length;
+        int columnarBytes = ColumnarFormat.encodeEntries(dtos, true).length;
+        System.out.printf("%nBytes per entry (%d entries, %s descriptions): json %.1f, columnar %.1f%n",
+                entries, descriptions, (double) jsonBytes / entries, (double) columnarBytes / entries);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] columnar() {
+        return ColumnarFormat.encodeEntries(dtos, true);
+    }
+
+    // Helper methods
+    private String description(Random random, int day) {
+        return switch (descriptions) {
+            case "repeated" -> random.nextInt(3) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+            case "unique" -> "Entry for day " + day;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.expensetracker.cache;
+
+import java.time.LocalDate;
+
+/**
+ * Key of a cached value: whose, what was computed, over which days (inclusive), and any variant flags
+ */
+public record CacheKey(String accountId, String kind, int fromDay, int toDay, String variant) {
+
+    public static CacheKey of(String accountId, String kind, LocalDate from, LocalDate to, String variant) {
+        return new CacheKey(accountId, kind, (int) from.toEpochDay(), (int) to.toEpochDay(), variant);
+    }
+
+    public static CacheKey of(String accountId, String kind, LocalDate date) {
+        return of(accountId, kind, date, date, "");
+    }
+}
@@ -0,0 +1,217 @@
+package com.expensetracker.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for values derived from a range of dates.
+ *
+ * Every value is keyed by the date range it was computed from. A write to day
+ * D changes the expense of D and of the next entry after it, so writers pass
+ * both dates (see MonthlyRollupService.refresh) and invalidate evicts exactly
+ * the values whose range contains one of them, leaving everything else cached.
+ * Entries are evicted least recently used first once maxEntries is reached,
+ * and expire after the configured TTL.
+ *
+ * Keys are also grouped by account, so invalidating after a write only looks
+ * at the keys of the account that was written.
+ */
+@Component
+public class DateRangeCache {
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<CacheKey, CachedValue> values;
+    private final Map<String, Set<CacheKey>> keysByAccount = new HashMap<>();
+
+    // Bumped by every invalidation so a load that raced with a write is not stored;
+    // per account, plus a global one bumped by clear()
+    private final Map<String, Long> accountGenerations = new HashMap<>();
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public DateRangeCache(@Value("${expense-tracker.cache.enabled:true}") boolean enabled,
+                          @Value("${expense-tracker.cache.max-entries:10000}") int maxEntries,
+                          @Value("${expense-tracker.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.values = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedValue> eldest) {
+                if (size() > DateRangeCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    untrack(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value for a key, loading and caching it on a miss.
+     * Null results are cached too.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(CacheKey key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            CachedValue cached = values.get(key);
+            if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return cached.value == NULL_VALUE ? null : (T) cached.value;
+            }
+            if (cached != null) {
+                values.remove(key);
+                untrack(key);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation + accountGenerations.getOrDefault(key.accountId(), 0L);
+        }
+
+        T value = loader.get();
+        synchronized (this) {
+            if (generation + accountGenerations.getOrDefault(key.accountId(), 0L) == loadGeneration) {
+                keysByAccount.computeIfAbsent(key.accountId(), accountId -> new HashSet<>()).add(key);
+                values.put(key, new CachedValue(value != null ? value : NULL_VALUE, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Evict every value of the account whose range contains one of the affected dates
+     */
+    public synchronized void invalidate(String accountId, Collection<LocalDate> affectedDates) {
+        accountGenerations.merge(accountId, 1L, Long::sum);
+        Set<CacheKey> accountKeys = keysByAccount.get(accountId);
+        if (accountKeys == null || affectedDates.isEmpty()) {
+            return;
+        }
+
+        int[] days = affectedDates.stream().mapToInt(date -> (int) date.toEpochDay()).sorted().toArray();
+        Iterator<CacheKey> keys = accountKeys.iterator();
+        while (keys.hasNext()) {
+            CacheKey key = keys.next();
+            // Look for any affected day in [fromDay, toDay]
+            int pos = Arrays.binarySearch(days, key.fromDay());
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            if (pos < days.length && days[pos] <= key.toDay()) {
+                keys.remove();
+                values.remove(key);
+                invalidations.incrementAndGet();
+            }
+        }
+        removeIfEmpty(accountId, accountKeys);
+    }
+
+    /**
+     * Evict an account's values of one kind, for writes that are not tied to specific dates
+     */
+    public synchronized void invalidateKind(String accountId, String kind) {
+        accountGenerations.merge(accountId, 1L, Long::sum);
+        Set<CacheKey> accountKeys = keysByAccount.get(accountId);
+        if (accountKeys == null) {
+            return;
+        }
+        Iterator<CacheKey> keys = accountKeys.iterator();
+        while (keys.hasNext()) {
+            CacheKey key = keys.next();
+            if (key.kind().equals(kind)) {
+                keys.remove();
+                values.remove(key);
+                invalidations.incrementAndGet();
+            }
+        }
+        removeIfEmpty(accountId, accountKeys);
+    }
+
+    /**
+     * Evict every value of an account
+     */
+    public synchronized void clear(String accountId) {
+        accountGenerations.merge(accountId, 1L, Long::sum);
+        Set<CacheKey> accountKeys = keysByAccount.remove(accountId);
+        if (accountKeys != null) {
+            accountKeys.forEach(values::remove);
+            invalidations.addAndGet(accountKeys.size());
+        }
+    }
+
+    /**
+     * Evict everything
+     */
+    public synchronized void clear() {
+        generation++;
+        invalidations.addAndGet(values.size());
+        values.clear();
+        keysByAccount.clear();
+    }
+
+    /**
+     * Hit, miss and eviction counters plus current size
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", values.size());
+        stats.put("accounts", keysByAccount.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        long lookups = hits.get() + misses.get();
+        stats.put("hitRate", lookups > 0 ? (double) hits.get() / lookups : 0.0);
+        return stats;
+    }
+
+    // Helper methods, callers hold the lock
+    private void untrack(CacheKey key) {
+        Set<CacheKey> accountKeys = keysByAccount.get(key.accountId());
+        if (accountKeys != null) {
+            accountKeys.remove(key);
+            removeIfEmpty(key.accountId(), accountKeys);
+        }
+    }
+
+    private void removeIfEmpty(String accountId, Set<CacheKey> accountKeys) {
+        if (accountKeys.isEmpty()) {
+            keysByAccount.remove(accountId);
+        }
+    }
+
+    private record CachedValue(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.expensetracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async service methods
+ *
+ * They run on Spring Boot's application task executor, which uses virtual
+ * threads when spring.threads.virtual.enabled is set and a bounded platform
+ * thread pool (spring.task.execution.pool.*) otherwise. Controllers returning
+ * the resulting CompletableFuture release their request thread while it runs.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
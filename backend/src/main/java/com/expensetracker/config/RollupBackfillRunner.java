@@ -0,0 +1,42 @@
+package com.expensetracker.config;
+
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.service.MonthlyRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the monthly_rollups table at startup
+ *
+ * Runs when the application is started with --rebuild-rollups, or when
+ * balance entries exist but no rollups have been stored yet (for example
+ * right after upgrading an existing database). Ordered before StartupWarmup,
+ * which reads the rollups.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RollupBackfillRunner implements ApplicationRunner {
+
+    private static final String REBUILD_OPTION = "rebuild-rollups";
+
+    private final MonthlyRollupService rollupService;
+    private final BalanceEntryRepository entryRepository;
+
+    @Autowired
+    public RollupBackfillRunner(MonthlyRollupService rollupService, BalanceEntryRepository entryRepository) {
+        this.rollupService = rollupService;
+        this.entryRepository = entryRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)
+                || (rollupService.isEmpty() && entryRepository.count() > 0)) {
+            rollupService.rebuildAll();
+        }
+    }
+}
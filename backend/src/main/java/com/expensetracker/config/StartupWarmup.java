@@ -0,0 +1,229 @@
+package com.expensetracker.config;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.model.BalanceEntry;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.repository.MonthlyRollupRepository;
+import com.expensetracker.repository.WindowedExpenseRepository;
+import com.expensetracker.service.BalanceService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Warms the application up before it reports readiness
+ *
+ * Application runners complete before Spring Boot publishes
+ * ReadinessState.ACCEPTING_TRAFFIC, so /api/health/readiness only turns ready
+ * once this has run. The warm-up opens the pool's idle connections, runs every
+ * BalanceEntryRepository query once so Hibernate has translated and cached
+ * them, reads the timelines TimelineIndexLoader loaded for existing accounts
+ * (loading them if it did not), and then calls the BalanceService read paths
+ * over varied dates until they have been compiled. Entries it cached along
+ * the way are dropped afterwards. A failure is logged and never stops the
+ * application from starting.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // Not a valid account id for the API, so it can never match real rows
+    private static final String WARMUP_ACCOUNT_ID = "~warmup";
+    private static final LocalDate WARMUP_DATE = LocalDate.of(2000, 1, 1);
+
+    private final DataSource dataSource;
+    private final BalanceEntryRepository entryRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final WindowedExpenseRepository windowedRepository;
+    private final BalanceService balanceService;
+    private final BalanceTimelineIndex index;
+    private final DateRangeCache cache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int iterations;
+    private final int maxAccounts;
+    private final long maxMillis;
+
+    @Autowired
+    public StartupWarmup(DataSource dataSource, BalanceEntryRepository entryRepository,
+                         MonthlyRollupRepository rollupRepository, WindowedExpenseRepository windowedRepository,
+                         BalanceService balanceService,
+                         BalanceTimelineIndex index, DateRangeCache cache, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${expense-tracker.warmup.enabled:true}") boolean enabled,
+                         @Value("${expense-tracker.warmup.iterations:200}") int iterations,
+                         @Value("${expense-tracker.warmup.max-accounts:20}") int maxAccounts,
+                         @Value("${expense-tracker.warmup.max-millis:15000}") long maxMillis) {
+        this.dataSource = dataSource;
+        this.entryRepository = entryRepository;
+        this.rollupRepository = rollupRepository;
+        this.windowedRepository = windowedRepository;
+        this.balanceService = balanceService;
+        this.index = index;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxAccounts = maxAccounts;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int connections = primeConnections();
+            readOnlyTransaction.executeWithoutResult(status -> primeQueries());
+            List<String> accounts = loadIndexes();
+            int calls = exerciseReadPaths(accounts, start);
+            log.info("Warm-up finished in {} ms: {} connections, {} accounts indexed, {} service calls",
+                    elapsedMillis(start), connections, accounts.size(), calls);
+        } catch (RuntimeException | SQLException | JsonProcessingException e) {
+            log.warn("Warm-up stopped after {} ms: {}", elapsedMillis(start), e.getMessage());
+        } finally {
+            index.clear(WARMUP_ACCOUNT_ID);
+            cache.clear();
+        }
+    }
+
+    // Helper methods
+    private int primeConnections() throws SQLException {
+        // Unwrapped, since the DataSource bean may be wrapped to count statements
+        int count = dataSource.isWrapperFor(HikariDataSource.class)
+                ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle()) : 1;
+        // Held together so the pool has to open every one of them instead of handing the same one out again
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return count;
+    }
+
+    private void primeQueries() {
+        String account = WARMUP_ACCOUNT_ID;
+        LocalDate date = WARMUP_DATE;
+        LocalDate end = date.plusMonths(1);
+
+        entryRepository.findByIdAndAccountId(-1L, account);
+        entryRepository.findByAccountIdAndDate(account, date);
+        entryRepository.existsByAccountIdAndDate(account, date);
+        entryRepository.findVersion(account, date, end);
+        entryRepository.findVersion(account);
+        entryRepository.findDatesBetween(account, date, end);
+        entryRepository.findRowsBetween(account, date, end);
+        entryRepository.findPointsBetween(account, date, end);
+        entryRepository.findRowsByAccountIdOrderByDateAsc(account);
+        entryRepository.findRowsByAccountIdOrderByDateAsc(account, Limit.of(1));
+        entryRepository.findRowsByAccountIdOrderByDateDesc(account, Limit.of(1));
+        entryRepository.findRowsByAccountIdAndDateGreaterThanOrderByDateAsc(account, date, Limit.of(1));
+        entryRepository.findRowsByAccountIdAndDateLessThanOrderByDateDesc(account, date, Limit.of(1));
+        entryRepository.findRowByIdAndAccountId(-1L, account);
+        entryRepository.findRowByAccountIdAndDate(account, date);
+        entryRepository.findRowsByAccountIdAndDateInOrderByDateAsc(account, List.of(date));
+        entryRepository.findRowsByAccountIdAndIdInOrderByDateAsc(account, List.of(-1L));
+        entryRepository.findFirstPointByAccountIdAndDateLessThanOrderByDateDesc(account, date);
+        entryRepository.findFirstPointByAccountIdAndDateGreaterThanOrderByDateAsc(account, date);
+        entryRepository.findFirst2PointsByAccountIdAndDateLessThanEqualOrderByDateDesc(account, date);
+        entryRepository.findPointsByAccountIdOrderByDateAsc(account);
+        try (Stream<EntryRow> entries = entryRepository.streamRowsByAccountId(account)) {
+            entries.count();
+        }
+        try (Stream<EntryRow> entries = entryRepository.streamRowsBetween(account, date, end)) {
+            entries.count();
+        }
+        entryRepository.findTopByAccountIdOrderByDateDesc(account);
+        entryRepository.findTopByAccountIdOrderByDateAsc(account);
+        entryRepository.countByDateBetween(account, date, end);
+        rollupRepository.findByAccountIdAndPeriod(account, MonthlyRollup.toPeriod(date.getYear(), date.getMonthValue()));
+        rollupRepository.findByAccountIdAndPeriodBetweenOrderByPeriodAsc(account, 0, Integer.MAX_VALUE);
+        windowedRepository.findAll(account);
+        windowedRepository.findRange(account, date, end);
+        windowedRepository.summarize(account, date, end);
+    }
+
+    private List<String> loadIndexes() {
+        List<String> accounts = entryRepository.findAccountIds();
+        if (accounts.size() > maxAccounts) {
+            accounts = accounts.subList(0, maxAccounts);
+        }
+        for (String accountId : accounts) {
+            index.timeline(accountId);
+        }
+        return accounts;
+    }
+
+    private int exerciseReadPaths(List<String> accounts, long start) throws JsonProcessingException {
+        List<AccountSpan> spans = new ArrayList<>();
+        for (String accountId : accounts.isEmpty() ? List.of(WARMUP_ACCOUNT_ID) : accounts) {
+            LocalDate first = entryRepository.findTopByAccountIdOrderByDateAsc(accountId)
+                    .map(BalanceEntry::getDate).orElse(WARMUP_DATE);
+            LocalDate last = entryRepository.findTopByAccountIdOrderByDateDesc(accountId)
+                    .map(BalanceEntry::getDate).orElse(WARMUP_DATE.plusYears(1));
+            spans.add(new AccountSpan(accountId, first, Math.max(1, ChronoUnit.DAYS.between(first, last))));
+        }
+
+        Random random = new Random(42);
+        int calls = 0;
+        for (int i = 0; i < iterations && elapsedMillis(start) < maxMillis; i++) {
+            AccountSpan span = spans.get(i % spans.size());
+            String accountId = span.accountId();
+            LocalDate from = span.first().plusDays(random.nextLong(span.days()));
+            LocalDate to = from.plusDays(7 + random.nextInt(90));
+
+            objectMapper.writeValueAsBytes(balanceService.getEntriesByDateRange(accountId, from, to));
+            ExpenseSummaryDTO summary = balanceService.getExpenseSummary(accountId, from, to, true);
+            objectMapper.writeValueAsBytes(summary);
+            balanceService.getExpenseSummary(accountId, span.first(), to, false);
+            balanceService.getMonthlySummary(accountId, from.getYear(), from.getMonthValue(), false);
+            balanceService.calculateDailyExpense(accountId, from);
+            calls += 5;
+        }
+        return calls;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private record AccountSpan(String accountId, LocalDate first, long days) {
+    }
+}
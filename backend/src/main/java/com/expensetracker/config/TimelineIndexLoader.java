@@ -0,0 +1,52 @@
+package com.expensetracker.config;
+
+import com.expensetracker.index.BalanceTimelineIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the timeline index for existing accounts at startup
+ *
+ * Without it, the first read of each account would scan its entries before
+ * the index could answer. Runs whether or not StartupWarmup is enabled, and
+ * before it, so the warm-up exercises the indexed read paths. A failure is
+ * logged and leaves the remaining accounts to load on their first read.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TimelineIndexLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineIndexLoader.class);
+
+    private final BalanceTimelineIndex index;
+    private final boolean enabled;
+
+    @Autowired
+    public TimelineIndexLoader(BalanceTimelineIndex index,
+                               @Value("${expense-tracker.index.load-on-startup:true}") boolean enabled) {
+        this.index = index;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !index.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int accounts = index.loadAll();
+            log.info("Loaded the timeline index for {} accounts in {} ms", accounts,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Loading the timeline index stopped: {}", e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package com.expensetracker.config;
 
+import com.expensetracker.controller.WriteBehindInterceptor;
+import com.expensetracker.wire.ColumnarHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
- * Web Configuration for CORS settings
+ * Web Configuration for CORS settings, interceptors and message converters
  * Allows frontend applications to communicate with the API
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final WriteBehindInterceptor writeBehindInterceptor;
+
+    @Autowired
+    public WebConfig(WriteBehindInterceptor writeBehindInterceptor) {
+        this.writeBehindInterceptor = writeBehindInterceptor;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -20,4 +34,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .exposedHeaders("*")
                 .maxAge(3600);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(writeBehindInterceptor)
+                .addPathPatterns("/api/balances/**", "/api/accounts/*/balances/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Last, so JSON stays the default unless the columnar format is asked for by name
+        converters.add(new ColumnarHttpMessageConverter());
+    }
 }
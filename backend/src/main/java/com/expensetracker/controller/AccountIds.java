@@ -0,0 +1,27 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.model.BalanceEntry;
+
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the account of a request from the optional {accountId} path segment
+ * Routes under /api/balances have no segment and use the default account
+ */
+final class AccountIds {
+
+    private static final Pattern VALID_ACCOUNT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private AccountIds() {
+    }
+
+    static String resolve(String accountId) {
+        if (accountId == null) {
+            return BalanceEntry.DEFAULT_ACCOUNT_ID;
+        }
+        if (!VALID_ACCOUNT_ID.matcher(accountId).matches()) {
+            throw new IllegalArgumentException("accountId must be 1-64 letters, digits, '-' or '_'.");
+        }
+        return accountId;
+    }
+}
@@ -1,29 +1,48 @@
 package com.expensetracker.controller;
 
 import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BalancePageDTO;
 import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.dto.MonthlyRollupDTO;
+import com.expensetracker.dto.PeriodSummaryDTO;
+import com.expensetracker.money.Money;
+import com.expensetracker.repository.EntryVersion;
 import com.expensetracker.service.BalanceService;
+import com.expensetracker.wire.ColumnarFormat;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for Balance Entry operations
  * Provides CRUD endpoints and expense calculation APIs
+ *
+ * Every route is served per account under /api/accounts/{accountId}/balances;
+ * the same routes under /api/balances use the default account.
  */
 @RestController
-@RequestMapping("/api/balances")
+@RequestMapping({"/api/balances", "/api/accounts/{accountId}/balances"})
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class BalanceController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final BalanceService balanceService;
 
     @Autowired
@@ -33,19 +52,44 @@ public class BalanceController {
 
     /**
      * GET /api/balances - Get all balance entries
+     * With limit, after or before, returns one keyset-paginated page instead,
+     * e.g. ?limit=30&direction=desc for the latest 30 entries
      */
     @GetMapping
-    public ResponseEntity<List<BalanceEntryDTO>> getAllEntries() {
-        List<BalanceEntryDTO> entries = balanceService.getAllEntries();
-        return ResponseEntity.ok(entries);
+    @TimelineRead
+    public ResponseEntity<?> getAllEntries(
+            @PathVariable(required = false) String accountId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "asc") String direction,
+            ServletWebRequest webRequest) {
+        String account = AccountIds.resolve(accountId);
+        if (notModified(webRequest, balanceService.getVersion(account))) {
+            return null;
+        }
+        if (limit == null && after == null && before == null) {
+            List<BalanceEntryDTO> entries = balanceService.getAllEntries(account);
+            return ResponseEntity.ok(entries);
+        }
+
+        if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+            return ResponseEntity.badRequest().body(createErrorResponse("direction must be asc or desc"));
+        }
+        BalancePageDTO page = balanceService.getEntriesPage(account, after, before,
+                limit != null ? limit : DEFAULT_PAGE_SIZE, direction.equalsIgnoreCase("asc"));
+        return ResponseEntity.ok(page);
     }
 
     /**
      * GET /api/balances/{id} - Get entry by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BalanceEntryDTO> getEntryById(@PathVariable Long id) {
-        return balanceService.getEntryById(id)
+    public ResponseEntity<BalanceEntryDTO> getEntryById(
+            @PathVariable(required = false) String accountId,
+            @PathVariable Long id) {
+        String account = AccountIds.resolve(accountId);
+        return balanceService.getEntryById(account, id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -54,9 +98,12 @@ public class BalanceController {
      * GET /api/balances/date/{date} - Get entry by date
      */
     @GetMapping("/date/{date}")
+    @TimelineRead
     public ResponseEntity<BalanceEntryDTO> getEntryByDate(
+            @PathVariable(required = false) String accountId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return balanceService.getEntryByDate(date)
+        String account = AccountIds.resolve(accountId);
+        return balanceService.getEntryByDate(account, date)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -65,9 +112,12 @@ public class BalanceController {
      * POST /api/balances - Create a new balance entry
      */
     @PostMapping
-    public ResponseEntity<?> createEntry(@Valid @RequestBody BalanceEntryDTO dto) {
+    public ResponseEntity<?> createEntry(
+            @PathVariable(required = false) String accountId,
+            @Valid @RequestBody BalanceEntryDTO dto) {
+        String account = AccountIds.resolve(accountId);
         try {
-            BalanceEntryDTO created = balanceService.createEntry(dto);
+            BalanceEntryDTO created = balanceService.createEntry(account, dto);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
@@ -78,22 +128,50 @@ public class BalanceController {
      * PUT /api/balances/{id} - Update an existing entry
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateEntry(@PathVariable Long id, @Valid @RequestBody BalanceEntryDTO dto) {
+    public ResponseEntity<?> updateEntry(
+            @PathVariable(required = false) String accountId,
+            @PathVariable Long id,
+            @Valid @RequestBody BalanceEntryDTO dto) {
+        String account = AccountIds.resolve(accountId);
         try {
-            BalanceEntryDTO updated = balanceService.updateEntry(id, dto);
+            BalanceEntryDTO updated = balanceService.updateEntry(account, id, dto);
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * PUT /api/balances/date/{date} - Create or overwrite the entry for a date
+     * Pass the entry's version to only overwrite it if nobody changed it since;
+     * a stale version is answered with 409 Conflict
+     */
+    @PutMapping("/date/{date}")
+    public ResponseEntity<?> upsertEntry(
+            @PathVariable(required = false) String accountId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody BalanceEntryDTO dto) {
+        String account = AccountIds.resolve(accountId);
+        try {
+            BalanceEntryDTO stored = balanceService.upsertEntry(account, date, dto);
+            // New entries start at version 0
+            HttpStatus status = stored.getVersion() == 0 ? HttpStatus.CREATED : HttpStatus.OK;
+            return ResponseEntity.status(status).body(stored);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     /**
      * DELETE /api/balances/{id} - Delete an entry
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteEntry(@PathVariable Long id) {
+    public ResponseEntity<?> deleteEntry(
+            @PathVariable(required = false) String accountId,
+            @PathVariable Long id) {
+        String account = AccountIds.resolve(accountId);
         try {
-            balanceService.deleteEntry(id);
+            balanceService.deleteEntry(account, id);
             return ResponseEntity.ok(createSuccessResponse("Entry deleted successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
@@ -104,19 +182,44 @@ public class BalanceController {
      * DELETE /api/balances/clear - Delete all entries
      */
     @DeleteMapping("/clear")
-    public ResponseEntity<?> deleteAllEntries() {
-        balanceService.deleteAllEntries();
+    public ResponseEntity<?> deleteAllEntries(@PathVariable(required = false) String accountId) {
+        String account = AccountIds.resolve(accountId);
+        balanceService.deleteAllEntries(account);
         return ResponseEntity.ok(createSuccessResponse("All entries deleted successfully"));
     }
 
+    /**
+     * DELETE /api/balances/range - Delete the entries in a date range (inclusive)
+     */
+    @DeleteMapping("/range")
+    public ResponseEntity<?> deleteEntriesByDateRange(
+            @PathVariable(required = false) String accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        String account = AccountIds.resolve(accountId);
+        try {
+            int deleted = balanceService.deleteEntriesBetween(account, startDate, endDate);
+            return ResponseEntity.ok(createSuccessResponse(deleted + " entries deleted successfully"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/balances/range - Get entries by date range
      */
     @GetMapping("/range")
+    @TimelineRead
     public ResponseEntity<List<BalanceEntryDTO>> getEntriesByDateRange(
+            @PathVariable(required = false) String accountId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<BalanceEntryDTO> entries = balanceService.getEntriesByDateRange(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ServletWebRequest webRequest) {
+        String account = AccountIds.resolve(accountId);
+        if (notModified(webRequest, balanceService.getVersion(account, startDate, endDate))) {
+            return null;
+        }
+        List<BalanceEntryDTO> entries = balanceService.getEntriesByDateRange(account, startDate, endDate);
         return ResponseEntity.ok(entries);
     }
 
@@ -124,50 +227,176 @@ public class BalanceController {
      * GET /api/balances/month - Get entries for a specific month
      */
     @GetMapping("/month")
+    @TimelineRead
     public ResponseEntity<List<BalanceEntryDTO>> getEntriesByMonth(
+            @PathVariable(required = false) String accountId,
             @RequestParam int year,
-            @RequestParam int month) {
-        List<BalanceEntryDTO> entries = balanceService.getEntriesByMonth(year, month);
+            @RequestParam int month,
+            ServletWebRequest webRequest) {
+        String account = AccountIds.resolve(accountId);
+        YearMonth yearMonth = YearMonth.of(year, month);
+        if (notModified(webRequest, balanceService.getVersion(account, yearMonth.atDay(1), yearMonth.atEndOfMonth()))) {
+            return null;
+        }
+        List<BalanceEntryDTO> entries = balanceService.getEntriesByMonth(account, year, month);
+        return ResponseEntity.ok(entries);
+    }
+
+    /**
+     * GET /api/balances/quarter - Get entries for a specific quarter
+     */
+    @GetMapping("/quarter")
+    @TimelineRead
+    public ResponseEntity<List<BalanceEntryDTO>> getEntriesByQuarter(
+            @PathVariable(required = false) String accountId,
+            @RequestParam int year,
+            @RequestParam int quarter) {
+        String account = AccountIds.resolve(accountId);
+        List<BalanceEntryDTO> entries = balanceService.getEntriesByQuarter(account, year, quarter);
+        return ResponseEntity.ok(entries);
+    }
+
+    /**
+     * GET /api/balances/year - Get entries for a specific year
+     */
+    @GetMapping("/year")
+    @TimelineRead
+    public ResponseEntity<List<BalanceEntryDTO>> getEntriesByYear(
+            @PathVariable(required = false) String accountId,
+            @RequestParam int year) {
+        String account = AccountIds.resolve(accountId);
+        List<BalanceEntryDTO> entries = balanceService.getEntriesByYear(account, year);
         return ResponseEntity.ok(entries);
     }
 
     /**
      * GET /api/balances/summary - Get expense summary for date range
+     * Pass includeBreakdown=false to omit dailyBreakdown
+     * Computed asynchronously so long ranges do not hold a request thread
      */
     @GetMapping("/summary")
-    public ResponseEntity<ExpenseSummaryDTO> getExpenseSummary(
+    @TimelineRead
+    public CompletableFuture<ResponseEntity<ExpenseSummaryDTO>> getExpenseSummary(
+            @PathVariable(required = false) String accountId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        ExpenseSummaryDTO summary = balanceService.getExpenseSummary(startDate, endDate);
-        return ResponseEntity.ok(summary);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "true") boolean includeBreakdown,
+            ServletWebRequest webRequest) {
+        String account = AccountIds.resolve(accountId);
+        if (notModified(webRequest, balanceService.getVersion(account, startDate, endDate))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return balanceService.getExpenseSummaryAsync(account, startDate, endDate, includeBreakdown)
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
      * GET /api/balances/monthly-summary - Get monthly expense summary
+     * Pass includeBreakdown=false to read the stored monthly rollup only
      */
     @GetMapping("/monthly-summary")
-    public ResponseEntity<ExpenseSummaryDTO> getMonthlySummary(
+    public CompletableFuture<ResponseEntity<ExpenseSummaryDTO>> getMonthlySummary(
+            @PathVariable(required = false) String accountId,
             @RequestParam int year,
-            @RequestParam int month) {
-        ExpenseSummaryDTO summary = balanceService.getMonthlySummary(year, month);
-        return ResponseEntity.ok(summary);
+            @RequestParam int month,
+            @RequestParam(defaultValue = "true") boolean includeBreakdown,
+            ServletWebRequest webRequest) {
+        String account = AccountIds.resolve(accountId);
+        YearMonth yearMonth = YearMonth.of(year, month);
+        if (notModified(webRequest, balanceService.getVersion(account, yearMonth.atDay(1), yearMonth.atEndOfMonth()))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return balanceService.getMonthlySummaryAsync(account, year, month, includeBreakdown)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * GET /api/balances/monthly-trend - Get month-by-month totals, e.g. ?startMonth=2025-01&endMonth=2025-12
+     */
+    @GetMapping("/monthly-trend")
+    public ResponseEntity<List<MonthlyRollupDTO>> getMonthlyTrend(
+            @PathVariable(required = false) String accountId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth startMonth,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth endMonth) {
+        String account = AccountIds.resolve(accountId);
+        List<MonthlyRollupDTO> trend = balanceService.getMonthlyTrend(account, startMonth, endMonth);
+        return ResponseEntity.ok(trend);
+    }
+
+    /**
+     * GET /api/balances/yearly-summary - Get per-year totals, e.g. ?startYear=2020&endYear=2025
+     */
+    @GetMapping("/yearly-summary")
+    public ResponseEntity<List<PeriodSummaryDTO>> getYearlySummaries(
+            @PathVariable(required = false) String accountId,
+            @RequestParam int startYear,
+            @RequestParam int endYear) {
+        String account = AccountIds.resolve(accountId);
+        List<PeriodSummaryDTO> summaries = balanceService.getYearlySummaries(account, startYear, endYear);
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * GET /api/balances/quarterly-summary - Get per-quarter totals of a year
+     */
+    @GetMapping("/quarterly-summary")
+    public ResponseEntity<List<PeriodSummaryDTO>> getQuarterlySummaries(
+            @PathVariable(required = false) String accountId,
+            @RequestParam int year) {
+        String account = AccountIds.resolve(accountId);
+        List<PeriodSummaryDTO> summaries = balanceService.getQuarterlySummaries(account, year);
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * POST /api/balances/rollups/rebuild - Rebuild all monthly rollups
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildMonthlyRollups(@PathVariable(required = false) String accountId) {
+        String account = AccountIds.resolve(accountId);
+        int months = balanceService.rebuildMonthlyRollups(account);
+        return ResponseEntity.ok(createSuccessResponse("Rebuilt rollups for " + months + " months"));
     }
 
     /**
      * GET /api/balances/expense/{date} - Calculate expense for a specific date
      */
     @GetMapping("/expense/{date}")
+    @TimelineRead
     public ResponseEntity<?> getDailyExpense(
+            @PathVariable(required = false) String accountId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        Double expense = balanceService.calculateDailyExpense(date);
+        String account = AccountIds.resolve(accountId);
+        Long expense = balanceService.calculateDailyExpense(account, date);
         Map<String, Object> response = new HashMap<>();
         response.put("date", date.toString());
-        response.put("expense", expense);
+        response.put("expense", expense != null ? Money.toDecimal(expense) : null);
         response.put("calculated", expense != null);
         return ResponseEntity.ok(response);
     }
 
     // Helper methods
+    /**
+     * Set ETag and Last-Modified from the version and check them against the request's conditional
+     * headers; when true the response is already a 304 and the handler should return null
+     */
+    private boolean notModified(ServletWebRequest webRequest, EntryVersion version) {
+        // Revalidate on every use instead of letting browsers reuse a response heuristically
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        webRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // Strong validators must differ between the JSON and columnar representations
+        String[] accept = webRequest.getHeaderValues(HttpHeaders.ACCEPT);
+        String representation;
+        try {
+            representation = accept != null
+                    ? ColumnarFormat.eTagSuffix(MediaType.parseMediaTypes(Arrays.asList(accept))) : "";
+        } catch (InvalidMediaTypeException e) {
+            // Content negotiation rejects the request later; the ETag does not matter
+            representation = "";
+        }
+        return webRequest.checkNotModified(version.eTag(representation), version.lastModifiedMillis());
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> response = new HashMap<>();
         response.put("status", "error");
@@ -0,0 +1,68 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.service.BalanceExportService;
+import com.expensetracker.service.ExportFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * REST Controller for streaming balance history exports
+ * Writes rows to the response as they are read instead of building a list first
+ */
+@RestController
+@RequestMapping({"/api/balances", "/api/accounts/{accountId}/balances"})
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class BalanceExportController {
+
+    private final BalanceExportService exportService;
+
+    @Autowired
+    public BalanceExportController(BalanceExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * GET /api/balances/export?format=ndjson|csv - Stream all entries, or a date range
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable(required = false) String accountId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        String account = AccountIds.resolve(accountId);
+        ExportFormat exportFormat = parseFormat(format);
+        if ((startDate == null) != (endDate == null)) {
+            throw new IllegalArgumentException("Provide both startDate and endDate, or neither.");
+        }
+
+        StreamingResponseBody body = out -> exportService.export(account, startDate, endDate, exportFormat, out);
+        String filename = "balances." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    // Helper methods
+    private ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be ndjson or csv.");
+        }
+    }
+}
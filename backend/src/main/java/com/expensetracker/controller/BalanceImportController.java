@@ -0,0 +1,136 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BatchImportResultDTO;
+import com.expensetracker.service.BalanceImportParser;
+import com.expensetracker.service.BatchImportService;
+import com.expensetracker.service.ConflictPolicy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * REST Controller for bulk loading balance history
+ * Accepts JSON batches and CSV/NDJSON uploads
+ */
+@RestController
+@RequestMapping({"/api/balances", "/api/accounts/{accountId}/balances"})
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class BalanceImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BatchImportService importService;
+    private final BalanceImportParser parser;
+
+    @Autowired
+    public BalanceImportController(BatchImportService importService, BalanceImportParser parser) {
+        this.importService = importService;
+        this.parser = parser;
+    }
+
+    /**
+     * POST /api/balances/batch?onConflict=reject|skip|upsert - Import a JSON array of entries
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importBatch(
+            @PathVariable(required = false) String accountId,
+            @RequestBody List<BalanceEntryDTO> entries,
+            @RequestParam(defaultValue = "reject") String onConflict) {
+        String account = AccountIds.resolve(accountId);
+        try {
+            return ResponseEntity.ok(importService.importEntries(account, entries, parsePolicy(onConflict)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/balances/import - Import a CSV request body
+     */
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(
+            @PathVariable(required = false) String accountId,
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "reject") String onConflict) throws IOException {
+        String account = AccountIds.resolve(accountId);
+        try {
+            return ResponseEntity.ok(importService.importEntries(account, parser.parseCsv(request.getReader()),
+                    parsePolicy(onConflict)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/balances/import - Import an NDJSON request body
+     */
+    @PostMapping(path = "/import", consumes = NDJSON)
+    public ResponseEntity<?> importNdjson(
+            @PathVariable(required = false) String accountId,
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "reject") String onConflict) throws IOException {
+        String account = AccountIds.resolve(accountId);
+        try {
+            return ResponseEntity.ok(importService.importEntries(account, parser.parseNdjson(request.getReader()),
+                    parsePolicy(onConflict)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/balances/import - Import an uploaded .csv or .ndjson file
+     */
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importFile(
+            @PathVariable(required = false) String accountId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "reject") String onConflict) throws IOException {
+        String account = AccountIds.resolve(accountId);
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            String name = file.getOriginalFilename() != null
+                    ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+            List<BalanceEntryDTO> entries;
+            if (name.endsWith(".csv")) {
+                entries = parser.parseCsv(reader);
+            } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                entries = parser.parseNdjson(reader);
+            } else {
+                throw new IllegalArgumentException("Unsupported file type; upload a .csv or .ndjson file.");
+            }
+            BatchImportResultDTO result = importService.importEntries(account, entries, parsePolicy(onConflict));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Helper methods
+    private ConflictPolicy parsePolicy(String onConflict) {
+        try {
+            return ConflictPolicy.valueOf(onConflict.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("onConflict must be one of reject, skip or upsert.");
+        }
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.cache.DateRangeCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Cache Statistics Controller
+ * Exposes hit, miss and eviction counts of the summary cache
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class CacheController {
+
+    private final DateRangeCache cache;
+
+    @Autowired
+    public CacheController(DateRangeCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * GET /api/cache/stats - Cache hit/miss/eviction counters
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(cache.getStats());
+    }
+}
@@ -1,6 +1,10 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.service.WriteBehindBuffer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,6 +28,12 @@ public class HealthController {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private WriteBehindBuffer writeBuffer;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
     /**
      * GET /api/health - Health check endpoint
      */
@@ -42,10 +52,26 @@ public class HealthController {
             response.put("database", "Disconnected");
             response.put("databaseError", e.getMessage());
         }
+        if (writeBuffer.isEnabled()) {
+            response.put("pendingWrites", writeBuffer.pendingCount());
+        }
+        response.put("readiness", availability.getReadinessState());
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/health/readiness - 200 once startup and warm-up have finished, 503 before
+     */
+    @GetMapping("/health/readiness")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        ReadinessState state = availability.getReadinessState();
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", state);
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(response);
+    }
+
     /**
      * GET /api/info - API information
      */
@@ -58,18 +84,34 @@ public class HealthController {
         
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("GET /api/health", "Health check");
+        endpoints.put("GET /api/health/readiness", "503 until startup warm-up has finished");
+        endpoints.put("GET /api/cache/stats", "Cache hit/miss/eviction counters");
+        endpoints.put("GET /api/metrics", "Prometheus metrics");
         endpoints.put("GET /api/balances", "Get all balance entries");
         endpoints.put("GET /api/balances/{id}", "Get entry by ID");
         endpoints.put("GET /api/balances/date/{date}", "Get entry by date");
         endpoints.put("POST /api/balances", "Create new entry");
+        endpoints.put("POST /api/balances/batch", "Import a JSON batch of entries");
+        endpoints.put("POST /api/balances/import", "Import a CSV or NDJSON history");
         endpoints.put("PUT /api/balances/{id}", "Update entry");
+        endpoints.put("PUT /api/balances/date/{date}", "Create or overwrite the entry for a date");
         endpoints.put("DELETE /api/balances/{id}", "Delete entry");
         endpoints.put("DELETE /api/balances/clear", "Delete all entries");
+        endpoints.put("DELETE /api/balances/range", "Delete entries in a date range");
         endpoints.put("GET /api/balances/range", "Get entries by date range");
         endpoints.put("GET /api/balances/month", "Get entries by month");
+        endpoints.put("GET /api/balances/quarter", "Get entries by quarter");
+        endpoints.put("GET /api/balances/year", "Get entries by year");
         endpoints.put("GET /api/balances/summary", "Get expense summary");
         endpoints.put("GET /api/balances/monthly-summary", "Get monthly summary");
+        endpoints.put("GET /api/balances/monthly-trend", "Get month-by-month totals");
+        endpoints.put("GET /api/balances/quarterly-summary", "Get per-quarter totals of a year");
+        endpoints.put("GET /api/balances/yearly-summary", "Get per-year totals");
+        endpoints.put("POST /api/balances/rollups/rebuild", "Rebuild monthly rollups");
         endpoints.put("GET /api/balances/expense/{date}", "Calculate daily expense");
+        endpoints.put("GET /api/balances/export", "Stream entries as NDJSON or CSV");
+        endpoints.put("/api/accounts/{accountId}/balances/**",
+                "All /api/balances routes for one account; /api/balances uses the default account");
         
         info.put("endpoints", endpoints);
         return ResponseEntity.ok(info);
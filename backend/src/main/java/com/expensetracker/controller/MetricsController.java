@@ -0,0 +1,80 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.metrics.MetricsRegistry;
+import com.expensetracker.metrics.PrometheusFormat;
+import com.expensetracker.service.WriteBehindBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Metrics Controller
+ * Exposes service, repository, SQL, request, cache and index metrics in the Prometheus text format
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class MetricsController {
+
+    private final MetricsRegistry registry;
+    private final DateRangeCache cache;
+    private final BalanceTimelineIndex index;
+    private final WriteBehindBuffer writeBuffer;
+
+    @Autowired
+    public MetricsController(MetricsRegistry registry, DateRangeCache cache, BalanceTimelineIndex index,
+                             WriteBehindBuffer writeBuffer) {
+        this.registry = registry;
+        this.cache = cache;
+        this.index = index;
+        this.writeBuffer = writeBuffer;
+    }
+
+    /**
+     * GET /api/metrics - Prometheus scrape endpoint, 404 when metrics are disabled
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<String> getMetrics() {
+        if (!registry.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        StringBuilder out = new StringBuilder(16384);
+        registry.render(out);
+
+        Map<String, Object> cacheStats = cache.getStats();
+        counter(out, "expense_tracker_cache_hits_total", "Summary cache hits", cacheStats.get("hits"));
+        counter(out, "expense_tracker_cache_misses_total", "Summary cache misses", cacheStats.get("misses"));
+        counter(out, "expense_tracker_cache_evictions_total", "Summary cache evictions",
+                cacheStats.get("evictions"));
+        PrometheusFormat.sample(out, "expense_tracker_cache_entries", "gauge", "Summary cache entries",
+                ((Number) cacheStats.get("size")).doubleValue());
+
+        PrometheusFormat.sample(out, "expense_tracker_index_hits_total", "counter",
+                "Reads answered from the in-memory timeline index", index.hitCount());
+        PrometheusFormat.sample(out, "expense_tracker_index_misses_total", "counter",
+                "Reads that fell back to the database because a timeline could not be loaded", index.missCount());
+        PrometheusFormat.sample(out, "expense_tracker_index_accounts", "gauge",
+                "Accounts with a timeline in memory", index.accountCount());
+
+        if (writeBuffer.isEnabled()) {
+            PrometheusFormat.sample(out, "expense_tracker_write_behind_pending", "gauge",
+                    "Buffered writes waiting to be flushed", writeBuffer.pendingCount());
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, PrometheusFormat.CONTENT_TYPE)
+                .body(out.toString());
+    }
+
+    // Helper methods
+    private static void counter(StringBuilder out, String name, String help, Object value) {
+        PrometheusFormat.sample(out, name, "counter", help, ((Number) value).doubleValue());
+    }
+}
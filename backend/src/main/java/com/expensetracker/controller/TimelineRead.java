@@ -0,0 +1,15 @@
+package com.expensetracker.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read handler that BalanceService answers from the account's timeline once it is loaded,
+ * so WriteBehindInterceptor does not flush buffered writes ahead of it
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimelineRead {
+}
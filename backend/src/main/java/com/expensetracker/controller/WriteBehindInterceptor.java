@@ -0,0 +1,56 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.service.WriteBehindBuffer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Flushes an account's buffered writes before a read of that account that goes to the database
+ *
+ * Buffered writes are already in the timeline index, so reads marked with
+ * TimelineRead pass straight through while the account's timeline is loaded
+ * (loading it if needed). Other reads, such as those of the stored rollups,
+ * and every read while the index is disabled, flush first. The interceptor runs
+ * ahead of the controller, so the flush commits before the read opens its own
+ * transaction and every write the client was acknowledged is visible to it.
+ */
+@Component
+public class WriteBehindInterceptor implements HandlerInterceptor {
+
+    private final WriteBehindBuffer writeBuffer;
+    private final BalanceTimelineIndex index;
+
+    @Autowired
+    public WriteBehindInterceptor(WriteBehindBuffer writeBuffer, BalanceTimelineIndex index) {
+        this.writeBuffer = writeBuffer;
+        this.index = index;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!writeBuffer.isEnabled()
+                || !(HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method))) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>)
+                request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String accountId = AccountIds.resolve(variables != null ? variables.get("accountId") : null);
+        boolean timelineRead = handler instanceof HandlerMethod handlerMethod
+                && handlerMethod.hasMethodAnnotation(TimelineRead.class);
+        if (!timelineRead || !index.serves(accountId)) {
+            writeBuffer.flush(accountId);
+        }
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.expensetracker.dto;
 
+import com.expensetracker.money.Cents;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import java.time.LocalDate;
@@ -7,6 +8,7 @@ import java.time.LocalDate;
 /**
  * Data Transfer Object for Balance Entry
  * Used for API request/response to separate entity from external representation
+ * Amounts are held in cents and read/written in JSON as decimals, e.g. 1250.50
  */
 public class BalanceEntryDTO {
 
@@ -17,18 +19,23 @@ public class BalanceEntryDTO {
 
     @NotNull(message = "Balance is required")
     @PositiveOrZero(message = "Balance must be zero or positive")
-    private Double balance;
+    @Cents
+    private Long balance;
 
     private String description;
 
+    // Bumped by every update; sent back on a write, a stale value is rejected with 409 Conflict
+    private Long version;
+
     // Calculated field - expense compared to previous day
-    private Double dailyExpense;
+    @Cents
+    private Long dailyExpense;
 
     // Constructors
     public BalanceEntryDTO() {
     }
 
-    public BalanceEntryDTO(Long id, LocalDate date, Double balance, String description) {
+    public BalanceEntryDTO(Long id, LocalDate date, Long balance, String description) {
         this.id = id;
         this.date = date;
         this.balance = balance;
@@ -52,11 +59,11 @@ public class BalanceEntryDTO {
         this.date = date;
     }
 
-    public Double getBalance() {
+    public Long getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(Long balance) {
         this.balance = balance;
     }
 
@@ -68,11 +75,19 @@ public class BalanceEntryDTO {
         this.description = description;
     }
 
-    public Double getDailyExpense() {
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getDailyExpense() {
         return dailyExpense;
     }
 
-    public void setDailyExpense(Double dailyExpense) {
+    public void setDailyExpense(Long dailyExpense) {
         this.dailyExpense = dailyExpense;
     }
 }
@@ -0,0 +1,61 @@
+package com.expensetracker.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one keyset-paginated page of balance entries
+ * Cursors are opaque tokens; pass nextCursor as "after" and prevCursor as "before"
+ */
+public class BalancePageDTO {
+
+    private List<BalanceEntryDTO> entries;
+    private String nextCursor;
+    private String prevCursor;
+    private Integer limit;
+    private String direction;
+
+    // Constructors
+    public BalancePageDTO() {
+    }
+
+    // Getters and Setters
+    public List<BalanceEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<BalanceEntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+}
@@ -0,0 +1,56 @@
+package com.expensetracker.dto;
+
+/**
+ * DTO describing the outcome of a batch import
+ */
+public class BatchImportResultDTO {
+
+    private Integer received;
+    private Integer inserted;
+    private Integer updated;
+    private Integer skipped;
+
+    // Constructors
+    public BatchImportResultDTO() {
+    }
+
+    public BatchImportResultDTO(Integer received, Integer inserted, Integer updated, Integer skipped) {
+        this.received = received;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.skipped = skipped;
+    }
+
+    // Getters and Setters
+    public Integer getReceived() {
+        return received;
+    }
+
+    public void setReceived(Integer received) {
+        this.received = received;
+    }
+
+    public Integer getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(Integer inserted) {
+        this.inserted = inserted;
+    }
+
+    public Integer getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Integer updated) {
+        this.updated = updated;
+    }
+
+    public Integer getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(Integer skipped) {
+        this.skipped = skipped;
+    }
+}
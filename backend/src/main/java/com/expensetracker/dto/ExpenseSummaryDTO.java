@@ -1,35 +1,52 @@
 package com.expensetracker.dto;
 
+import com.expensetracker.money.Cents;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.util.List;
 
 /**
  * DTO for expense summary reports
  * Contains aggregated expense data for a date range
+ * Amounts are held in cents and written to JSON as decimals
  */
 public class ExpenseSummaryDTO {
 
     private LocalDate startDate;
     private LocalDate endDate;
-    private Double openingBalance;
-    private Double closingBalance;
-    private Double totalExpenses;
-    private Double averageDailyExpense;
+    @Cents
+    private Long openingBalance;
+    @Cents
+    private Long closingBalance;
+    @Cents
+    private Long totalExpenses;
+    @Cents
+    private Long averageDailyExpense;
     private Integer totalDays;
     private Integer daysWithExpenses;
+    @Cents
+    private Long minDailyExpense;
+    @Cents
+    private Long maxDailyExpense;
+
+    // Omitted from the response for summary-only requests
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<DailyExpenseDTO> dailyBreakdown;
 
     // Inner class for daily breakdown
     public static class DailyExpenseDTO {
         private LocalDate date;
-        private Double balance;
-        private Double expense;
+        @Cents
+        private Long balance;
+        @Cents
+        private Long expense;
         private String description;
 
         public DailyExpenseDTO() {
         }
 
-        public DailyExpenseDTO(LocalDate date, Double balance, Double expense, String description) {
+        public DailyExpenseDTO(LocalDate date, Long balance, Long expense, String description) {
             this.date = date;
             this.balance = balance;
             this.expense = expense;
@@ -45,19 +62,19 @@ public class ExpenseSummaryDTO {
             this.date = date;
         }
 
-        public Double getBalance() {
+        public Long getBalance() {
             return balance;
         }
 
-        public void setBalance(Double balance) {
+        public void setBalance(Long balance) {
             this.balance = balance;
         }
 
-        public Double getExpense() {
+        public Long getExpense() {
             return expense;
         }
 
-        public void setExpense(Double expense) {
+        public void setExpense(Long expense) {
             this.expense = expense;
         }
 
@@ -91,35 +108,35 @@ public class ExpenseSummaryDTO {
         this.endDate = endDate;
     }
 
-    public Double getOpeningBalance() {
+    public Long getOpeningBalance() {
         return openingBalance;
     }
 
-    public void setOpeningBalance(Double openingBalance) {
+    public void setOpeningBalance(Long openingBalance) {
         this.openingBalance = openingBalance;
     }
 
-    public Double getClosingBalance() {
+    public Long getClosingBalance() {
         return closingBalance;
     }
 
-    public void setClosingBalance(Double closingBalance) {
+    public void setClosingBalance(Long closingBalance) {
         this.closingBalance = closingBalance;
     }
 
-    public Double getTotalExpenses() {
+    public Long getTotalExpenses() {
         return totalExpenses;
     }
 
-    public void setTotalExpenses(Double totalExpenses) {
+    public void setTotalExpenses(Long totalExpenses) {
         this.totalExpenses = totalExpenses;
     }
 
-    public Double getAverageDailyExpense() {
+    public Long getAverageDailyExpense() {
         return averageDailyExpense;
     }
 
-    public void setAverageDailyExpense(Double averageDailyExpense) {
+    public void setAverageDailyExpense(Long averageDailyExpense) {
         this.averageDailyExpense = averageDailyExpense;
     }
 
@@ -139,6 +156,22 @@ public class ExpenseSummaryDTO {
         this.daysWithExpenses = daysWithExpenses;
     }
 
+    public Long getMinDailyExpense() {
+        return minDailyExpense;
+    }
+
+    public void setMinDailyExpense(Long minDailyExpense) {
+        this.minDailyExpense = minDailyExpense;
+    }
+
+    public Long getMaxDailyExpense() {
+        return maxDailyExpense;
+    }
+
+    public void setMaxDailyExpense(Long maxDailyExpense) {
+        this.maxDailyExpense = maxDailyExpense;
+    }
+
     public List<DailyExpenseDTO> getDailyBreakdown() {
         return dailyBreakdown;
     }
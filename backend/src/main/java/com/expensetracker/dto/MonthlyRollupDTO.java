@@ -0,0 +1,92 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.money.Cents;
+
+/**
+ * DTO for one month of a monthly trend report
+ * Amounts are held in cents and written to JSON as decimals
+ */
+public class MonthlyRollupDTO {
+
+    private Integer year;
+    private Integer month;
+    @Cents
+    private Long openingBalance;
+    @Cents
+    private Long closingBalance;
+    @Cents
+    private Long totalExpenses;
+    @Cents
+    private Long averageDailyExpense;
+    private Integer daysWithExpenses;
+    private Integer totalDays;
+
+    // Constructors
+    public MonthlyRollupDTO() {
+    }
+
+    // Getters and Setters
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getMonth() {
+        return month;
+    }
+
+    public void setMonth(Integer month) {
+        this.month = month;
+    }
+
+    public Long getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(Long openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public Long getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(Long closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+
+    public Long getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public void setTotalExpenses(Long totalExpenses) {
+        this.totalExpenses = totalExpenses;
+    }
+
+    public Long getAverageDailyExpense() {
+        return averageDailyExpense;
+    }
+
+    public void setAverageDailyExpense(Long averageDailyExpense) {
+        this.averageDailyExpense = averageDailyExpense;
+    }
+
+    public Integer getDaysWithExpenses() {
+        return daysWithExpenses;
+    }
+
+    public void setDaysWithExpenses(Integer daysWithExpenses) {
+        this.daysWithExpenses = daysWithExpenses;
+    }
+
+    public Integer getTotalDays() {
+        return totalDays;
+    }
+
+    public void setTotalDays(Integer totalDays) {
+        this.totalDays = totalDays;
+    }
+}
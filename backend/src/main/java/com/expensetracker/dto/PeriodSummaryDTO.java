@@ -0,0 +1,137 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.money.Cents;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for one year or quarter of a yearly or quarterly summary report
+ * Amounts are held in cents and written to JSON as decimals
+ */
+public class PeriodSummaryDTO {
+
+    private Integer year;
+
+    // Omitted from yearly rows
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer quarter;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    @Cents
+    private Long openingBalance;
+    @Cents
+    private Long closingBalance;
+    @Cents
+    private Long totalExpenses;
+    @Cents
+    private Long averageDailyExpense;
+    private Integer totalDays;
+    private Integer daysWithExpenses;
+    @Cents
+    private Long minDailyExpense;
+    @Cents
+    private Long maxDailyExpense;
+
+    // Constructors
+    public PeriodSummaryDTO() {
+    }
+
+    // Getters and Setters
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getQuarter() {
+        return quarter;
+    }
+
+    public void setQuarter(Integer quarter) {
+        this.quarter = quarter;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Long getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(Long openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public Long getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(Long closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+
+    public Long getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public void setTotalExpenses(Long totalExpenses) {
+        this.totalExpenses = totalExpenses;
+    }
+
+    public Long getAverageDailyExpense() {
+        return averageDailyExpense;
+    }
+
+    public void setAverageDailyExpense(Long averageDailyExpense) {
+        this.averageDailyExpense = averageDailyExpense;
+    }
+
+    public Integer getTotalDays() {
+        return totalDays;
+    }
+
+    public void setTotalDays(Integer totalDays) {
+        this.totalDays = totalDays;
+    }
+
+    public Integer getDaysWithExpenses() {
+        return daysWithExpenses;
+    }
+
+    public void setDaysWithExpenses(Integer daysWithExpenses) {
+        this.daysWithExpenses = daysWithExpenses;
+    }
+
+    public Long getMinDailyExpense() {
+        return minDailyExpense;
+    }
+
+    public void setMinDailyExpense(Long minDailyExpense) {
+        this.minDailyExpense = minDailyExpense;
+    }
+
+    public Long getMaxDailyExpense() {
+        return maxDailyExpense;
+    }
+
+    public void setMaxDailyExpense(Long maxDailyExpense) {
+        this.maxDailyExpense = maxDailyExpense;
+    }
+}
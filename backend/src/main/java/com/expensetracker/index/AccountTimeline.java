@@ -0,0 +1,597 @@
+package com.expensetracker.index;
+
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.repository.EntryVersion;
+import com.expensetracker.service.ExpenseCalculator;
+import com.expensetracker.service.GapPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Sorted in-memory timeline of one account's balance entries.
+ *
+ * Entries are kept in parallel primitive arrays keyed by epoch day, so point
+ * lookups and range boundaries are resolved by binary search without touching
+ * the database. Each entry's expense is taken against the entry before it as
+ * the GapPolicy says, and mirrored into an ExpenseTree so range totals need no
+ * walk over the entries. Timelines are created and loaded by
+ * BalanceTimelineIndex, which forwards every committed write to them.
+ *
+ * Every entry also carries a revision: the time in epoch microseconds it was
+ * loaded or last written, kept strictly increasing. The highest revision of a
+ * range is its Last-Modified, and with the count and first date it tags the
+ * range's version, so conditional requests are answered without a query.
+ */
+public class AccountTimeline {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountTimeline.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final String accountId;
+    private final GapPolicy gapPolicy;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes loads; a lock rather than a monitor so virtual threads waiting on the query are not pinned
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Bumped on every write notification, loaded or not, so a concurrent load can detect it missed one
+    private final AtomicLong modCount = new AtomicLong();
+
+    // Allocated on load; writes before that only bump modCount
+    private int[] days = new int[0];
+    private long[] balances = new long[0];
+    private long[] ids = new long[0];
+    private long[] versions = new long[0];
+    private long[] revisions = new long[0];
+    private String[] descriptions = new String[0];
+    private int size;
+    private long lastRevision;
+    private volatile boolean loaded;
+
+    // Null when the entries span more days than ExpenseTree.MAX_SPAN_DAYS
+    private ExpenseTree tree;
+
+    AccountTimeline(String accountId, GapPolicy gapPolicy) {
+        this.accountId = accountId;
+        this.gapPolicy = gapPolicy;
+    }
+
+    /**
+     * Load the account's entries, sorted by date ascending, from the given query.
+     * Retried when a write is reported while the query runs.
+     */
+    void load(Supplier<List<EntryRow>> query) {
+        loadLock.lock();
+        try {
+            loadEntries(query);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Load the entries unless the timeline is already loaded; concurrent callers wait for a single load
+     */
+    void loadIfAbsent(Supplier<List<EntryRow>> query) {
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                loadEntries(query);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Whether reads can be answered from this timeline
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Insert or replace the entry for a date. A write older than the version already
+     * held for the same entry is ignored, since concurrent commits can report out of order.
+     */
+    void put(long id, LocalDate date, long balanceCents, String description, long version) {
+        modCount.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int day = (int) date.toEpochDay();
+            int pos = Arrays.binarySearch(days, 0, size, day);
+            if (pos >= 0 && ids[pos] == id && versions[pos] > version) {
+                return;
+            }
+            if (pos < 0) {
+                pos = -pos - 1;
+                ensureCapacity(size + 1);
+                int tail = size - pos;
+                System.arraycopy(days, pos, days, pos + 1, tail);
+                System.arraycopy(balances, pos, balances, pos + 1, tail);
+                System.arraycopy(ids, pos, ids, pos + 1, tail);
+                System.arraycopy(versions, pos, versions, pos + 1, tail);
+                System.arraycopy(revisions, pos, revisions, pos + 1, tail);
+                System.arraycopy(descriptions, pos, descriptions, pos + 1, tail);
+                size++;
+            }
+            days[pos] = day;
+            balances[pos] = balanceCents;
+            ids[pos] = id;
+            versions[pos] = version;
+            revisions[pos] = nextRevision();
+            descriptions[pos] = description;
+
+            if (tree == null || !tree.covers(day)) {
+                rebuildTree();
+            } else {
+                refreshTree(pos);
+                refreshTree(pos + 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert or replace many entries at once, merging them in a single pass
+     */
+    void putAll(List<EntryRow> entries) {
+        modCount.incrementAndGet();
+        List<EntryRow> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(EntryRow::date));
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int capacity = Math.max(INITIAL_CAPACITY, size + sorted.size());
+            int[] mergedDays = new int[capacity];
+            long[] mergedBalances = new long[capacity];
+            long[] mergedIds = new long[capacity];
+            long[] mergedVersions = new long[capacity];
+            long[] mergedRevisions = new long[capacity];
+            String[] mergedDescriptions = new String[capacity];
+            long revision = nextRevision();
+
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < sorted.size()) {
+                int incomingDay = j < sorted.size() ? (int) sorted.get(j).date().toEpochDay() : Integer.MAX_VALUE;
+                // Held entries are kept when they come first, or already hold a newer version of the incoming one
+                boolean newerHeld = i < size && days[i] == incomingDay && ids[i] == sorted.get(j).id()
+                        && versions[i] > sorted.get(j).version();
+                if (i < size && days[i] < incomingDay || newerHeld) {
+                    mergedDays[n] = days[i];
+                    mergedBalances[n] = balances[i];
+                    mergedIds[n] = ids[i];
+                    mergedVersions[n] = versions[i];
+                    mergedRevisions[n] = revisions[i];
+                    mergedDescriptions[n] = descriptions[i];
+                    i++;
+                    if (newerHeld) {
+                        j++;
+                    }
+                } else {
+                    EntryRow entry = sorted.get(j);
+                    if (i < size && days[i] == incomingDay) {
+                        i++;
+                    }
+                    mergedDays[n] = incomingDay;
+                    mergedBalances[n] = entry.balanceCents();
+                    mergedIds[n] = entry.id();
+                    mergedVersions[n] = entry.version();
+                    mergedRevisions[n] = revision;
+                    mergedDescriptions[n] = entry.description();
+                    j++;
+                }
+                n++;
+            }
+
+            days = mergedDays;
+            balances = mergedBalances;
+            ids = mergedIds;
+            versions = mergedVersions;
+            revisions = mergedRevisions;
+            descriptions = mergedDescriptions;
+            size = n;
+            rebuildTree();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entry for a date, if present
+     */
+    void remove(LocalDate date) {
+        modCount.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int pos = Arrays.binarySearch(days, 0, size, (int) date.toEpochDay());
+            if (pos < 0) {
+                return;
+            }
+            int tail = size - pos - 1;
+            System.arraycopy(days, pos + 1, days, pos, tail);
+            System.arraycopy(balances, pos + 1, balances, pos, tail);
+            System.arraycopy(ids, pos + 1, ids, pos, tail);
+            System.arraycopy(versions, pos + 1, versions, pos, tail);
+            System.arraycopy(revisions, pos + 1, revisions, pos, tail);
+            System.arraycopy(descriptions, pos + 1, descriptions, pos, tail);
+            size--;
+            descriptions[size] = null;
+
+            if (tree != null) {
+                tree.set((int) date.toEpochDay(), null);
+                refreshTree(pos);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entries between two dates (inclusive)
+     */
+    void removeRange(LocalDate startDate, LocalDate endDate) {
+        modCount.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int from = lowerBound((int) startDate.toEpochDay());
+            int to = lowerBound((int) endDate.toEpochDay() + 1);
+            if (from >= to) {
+                return;
+            }
+            if (tree != null) {
+                for (int i = from; i < to; i++) {
+                    tree.set(days[i], null);
+                }
+            }
+            int tail = size - to;
+            System.arraycopy(days, to, days, from, tail);
+            System.arraycopy(balances, to, balances, from, tail);
+            System.arraycopy(ids, to, ids, from, tail);
+            System.arraycopy(versions, to, versions, from, tail);
+            System.arraycopy(revisions, to, revisions, from, tail);
+            System.arraycopy(descriptions, to, descriptions, from, tail);
+            Arrays.fill(descriptions, size - (to - from), size, null);
+            size -= to - from;
+            if (tree != null) {
+                refreshTree(from);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every entry
+     */
+    void clear() {
+        modCount.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            replaceAll(List.of());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the entry for a date
+     */
+    public Optional<IndexedEntry> get(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            int pos = Arrays.binarySearch(days, 0, size, (int) date.toEpochDay());
+            return pos < 0 ? Optional.empty() : Optional.of(entryAt(pos));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nearest entry before a date
+     */
+    public Optional<IndexedEntry> before(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            int pos = lowerBound((int) date.toEpochDay()) - 1;
+            return pos < 0 ? Optional.empty() : Optional.of(entryAt(pos));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expense in cents for a date, or null if the date has no entry or the policy gives it none
+     */
+    public Long expenseOn(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            int pos = Arrays.binarySearch(days, 0, size, (int) date.toEpochDay());
+            return pos < 0 ? null : expenseAt(pos);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All entries between two dates (inclusive), sorted by date ascending
+     */
+    public List<IndexedEntry> range(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            int from = lowerBound((int) startDate.toEpochDay());
+            int to = lowerBound((int) endDate.toEpochDay() + 1);
+            List<IndexedEntry> result = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                result.add(entryAt(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Summarize a date range (inclusive) without walking its entries.
+     * Empty when the entries span too many days to keep an expense tree.
+     */
+    public Optional<RangeSummary> summarize(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            if (tree == null) {
+                return Optional.empty();
+            }
+            int fromDay = (int) startDate.toEpochDay();
+            int toDay = (int) endDate.toEpochDay();
+            int from = lowerBound(fromDay);
+            int to = lowerBound(toDay + 1);
+            if (from >= to) {
+                return Optional.of(new RangeSummary(0, null, null, new ExpenseAggregate(0, 0, null, null)));
+            }
+            return Optional.of(new RangeSummary(to - from, balances[from], balances[to - 1],
+                    tree.query(fromDay, toDay)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit entries strictly after (ascending) or before (descending) a date,
+     * in scan order; a null date starts from the first or last entry
+     */
+    public List<IndexedEntry> scan(LocalDate from, boolean ascending, int limit) {
+        lock.readLock().lock();
+        try {
+            List<IndexedEntry> result = new ArrayList<>(Math.min(limit, size));
+            if (ascending) {
+                int pos = from == null ? 0 : lowerBound((int) from.toEpochDay() + 1);
+                for (int i = pos; i < size && result.size() < limit; i++) {
+                    result.add(entryAt(i));
+                }
+            } else {
+                int pos = from == null ? size - 1 : lowerBound((int) from.toEpochDay()) - 1;
+                for (int i = pos; i >= 0 && result.size() < limit; i--) {
+                    result.add(entryAt(i));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All entries sorted by date ascending
+     */
+    public List<IndexedEntry> all() {
+        lock.readLock().lock();
+        try {
+            List<IndexedEntry> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(entryAt(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Version of the entries between two dates (inclusive) and of the nearest entry before them,
+     * which the first entry's expense is taken against
+     */
+    public EntryVersion version(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            int from = Math.max(0, lowerBound((int) startDate.toEpochDay()) - 1);
+            int to = lowerBound((int) endDate.toEpochDay() + 1);
+            return versionOf(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Version of all entries
+     */
+    public EntryVersion version() {
+        lock.readLock().lock();
+        try {
+            return versionOf(0, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold loadLock; takes the write lock only to swap in the loaded arrays
+    private void loadEntries(Supplier<List<EntryRow>> query) {
+        for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+            long expectedModCount = modCount.get();
+            List<EntryRow> entries = query.get();
+
+            lock.writeLock().lock();
+            try {
+                if (modCount.get() != expectedModCount) {
+                    continue;
+                }
+                replaceAll(entries);
+                loaded = true;
+                log.debug("Timeline of account {} loaded with {} entries", accountId, size);
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.warn("Timeline of account {} not loaded: entries kept changing during load", accountId);
+    }
+
+    // Helper methods, callers hold the lock
+
+    private IndexedEntry entryAt(int pos) {
+        return new IndexedEntry(ids[pos], LocalDate.ofEpochDay(days[pos]), balances[pos],
+                descriptions[pos], versions[pos], expenseAt(pos));
+    }
+
+    private EntryVersion versionOf(int from, int to) {
+        int count = Math.max(0, to - from);
+        long maxRevision = 0;
+        for (int i = from; i < to; i++) {
+            maxRevision = Math.max(maxRevision, revisions[i]);
+        }
+        LocalDateTime lastUpdated = count > 0
+                ? LocalDateTime.ofInstant(Instant.EPOCH.plus(maxRevision, ChronoUnit.MICROS), ZoneId.systemDefault())
+                : null;
+        // Inserts and updates take a revision above every earlier one, and deletes lower the
+        // count or move the first date, so no two states of a range share a tag
+        String tag = "i" + count + "-" + Long.toString(maxRevision, 36)
+                + "-" + Long.toString(count > 0 ? days[from] : 0, 36);
+        return new EntryVersion(tag, lastUpdated, null);
+    }
+
+    // Epoch microseconds, strictly increasing across the timeline's writes
+    private long nextRevision() {
+        lastRevision = Math.max(ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()), lastRevision + 1);
+        return lastRevision;
+    }
+
+    private Long expenseAt(int pos) {
+        if (pos == 0) {
+            return null;
+        }
+        return ExpenseCalculator.toNullable(ExpenseCalculator.expenseCents(gapPolicy, days[pos - 1],
+                balances[pos - 1], days[pos], balances[pos]));
+    }
+
+    private void refreshTree(int pos) {
+        if (pos < size) {
+            tree.set(days[pos], pos == 0 ? null : ExpenseCalculator.contribution(gapPolicy, days[pos - 1],
+                    balances[pos - 1], days[pos], balances[pos]));
+        }
+    }
+
+    private void rebuildTree() {
+        tree = null;
+        if (size == 0) {
+            tree = new ExpenseTree(0, 0);
+            return;
+        }
+        // Leave room on both sides so new entries next to the ends rarely force a rebuild
+        int fromDay = days[0] - 31;
+        int toDay = days[size - 1] + 366;
+        if (toDay - fromDay + 1 > ExpenseTree.MAX_SPAN_DAYS) {
+            return;
+        }
+        tree = new ExpenseTree(fromDay, toDay);
+        for (int i = 0; i < size; i++) {
+            refreshTree(i);
+        }
+    }
+
+    private int lowerBound(int day) {
+        int pos = Arrays.binarySearch(days, 0, size, day);
+        return pos < 0 ? -pos - 1 : pos;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= days.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, days.length * 2);
+        days = Arrays.copyOf(days, newCapacity);
+        balances = Arrays.copyOf(balances, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        revisions = Arrays.copyOf(revisions, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+    }
+
+    private void replaceAll(List<EntryRow> entries) {
+        int capacity = Math.max(INITIAL_CAPACITY, entries.size());
+        days = new int[capacity];
+        balances = new long[capacity];
+        ids = new long[capacity];
+        versions = new long[capacity];
+        revisions = new long[capacity];
+        descriptions = new String[capacity];
+        size = entries.size();
+        long revision = nextRevision();
+        for (int i = 0; i < size; i++) {
+            EntryRow entry = entries.get(i);
+            days[i] = (int) entry.date().toEpochDay();
+            balances[i] = entry.balanceCents();
+            ids[i] = entry.id();
+            versions[i] = entry.version();
+            revisions[i] = revision;
+            descriptions[i] = entry.description();
+        }
+        rebuildTree();
+    }
+}
@@ -0,0 +1,254 @@
+package com.expensetracker.index;
+
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.service.GapPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of balance entries, partitioned into one AccountTimeline per account.
+ *
+ * The timelines of existing accounts are loaded at startup by
+ * TimelineIndexLoader; an account without one, or whose timeline was dropped,
+ * is loaded from the database the first time it is read. Timelines are then
+ * maintained by the services after each committed write. At most maxAccounts
+ * timelines are kept; the least recently used one is dropped and reloaded on
+ * its next read. The index assumes this application is the only
+ * writer to the balance_entries table.
+ *
+ * Writes accepted by WriteBehindBuffer are put into a loaded timeline as soon
+ * as they are accepted, and laid over the rows of a timeline loaded while they
+ * are still pending, so the index holds them before they reach the database.
+ */
+@Component
+public class BalanceTimelineIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceTimelineIndex.class);
+
+    private final BalanceEntryRepository repository;
+    private final boolean enabled;
+    private final int maxAccounts;
+    private final GapPolicy gapPolicy;
+    private final LinkedHashMap<String, AccountTimeline> timelines;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Function<String, List<EntryRow>> pendingWrites = accountId -> List.of();
+
+    @Autowired
+    public BalanceTimelineIndex(BalanceEntryRepository repository,
+                                @Value("${expense-tracker.index.enabled:true}") boolean enabled,
+                                @Value("${expense-tracker.index.max-accounts:1000}") int maxAccounts,
+                                @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.maxAccounts = maxAccounts;
+        this.gapPolicy = gapPolicy;
+
+        this.timelines = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccountTimeline> eldest) {
+                return size() > BalanceTimelineIndex.this.maxAccounts;
+            }
+        };
+        if (!enabled) {
+            log.info("Balance timeline index is disabled");
+        }
+    }
+
+    /**
+     * The account's loaded timeline, loading it on first use.
+     * Empty when the index is disabled or the timeline could not be loaded.
+     * Must not be called after writing in the same transaction, or the load
+     * would see uncommitted rows; use loadedTimeline there.
+     */
+    public Optional<AccountTimeline> timeline(String accountId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        AccountTimeline timeline = loadedOrNull(accountId);
+        if (timeline == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(timeline);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the account's reads are answered from its timeline, loading it on first use.
+     * Unlike timeline, not counted as a read.
+     */
+    public boolean serves(String accountId) {
+        return enabled && loadedOrNull(accountId) != null;
+    }
+
+    /**
+     * The account's timeline if it is already loaded, without loading it
+     */
+    public Optional<AccountTimeline> loadedTimeline(String accountId) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        return timeline != null && timeline.isLoaded() ? Optional.of(timeline) : Optional.empty();
+    }
+
+    /**
+     * Reload an account's timeline from the database
+     */
+    public void load(String accountId) {
+        if (enabled) {
+            timelineFor(accountId).load(() -> loadRows(accountId));
+        }
+    }
+
+    /**
+     * Load the timelines of existing accounts, up to maxAccounts of them.
+     * Returns the number of accounts loaded.
+     */
+    public int loadAll() {
+        if (!enabled) {
+            return 0;
+        }
+        List<String> accounts = repository.findAccountIds();
+        if (accounts.size() > maxAccounts) {
+            log.warn("Loading {} of {} accounts into the timeline index; raise max-accounts to hold them all",
+                    maxAccounts, accounts.size());
+            accounts = accounts.subList(0, maxAccounts);
+        }
+        accounts.forEach(this::load);
+        return accounts.size();
+    }
+
+    /**
+     * Set where the pending writes of an account, not yet in the database, are looked up on load.
+     * Each is the entry's row as it will be written, at the version the database row must still have.
+     */
+    public void setPendingWrites(Function<String, List<EntryRow>> pendingWrites) {
+        this.pendingWrites = pendingWrites;
+    }
+
+    /**
+     * Insert or replace the entry for a date
+     */
+    public void put(String accountId, long id, LocalDate date, long balanceCents, String description,
+                    long version) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        if (timeline != null) {
+            timeline.put(id, date, balanceCents, description, version);
+        }
+    }
+
+    /**
+     * Insert or replace many entries of one account at once
+     */
+    public void putAll(String accountId, List<EntryRow> entries) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        if (timeline != null) {
+            timeline.putAll(entries);
+        }
+    }
+
+    /**
+     * Remove the entry for a date, if present
+     */
+    public void remove(String accountId, LocalDate date) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        if (timeline != null) {
+            timeline.remove(date);
+        }
+    }
+
+    /**
+     * Remove an account's entries between two dates (inclusive)
+     */
+    public void removeRange(String accountId, LocalDate startDate, LocalDate endDate) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        if (timeline != null) {
+            timeline.removeRange(startDate, endDate);
+        }
+    }
+
+    /**
+     * Remove every entry of an account
+     */
+    public void clear(String accountId) {
+        AccountTimeline timeline = loadedOrLoading(accountId);
+        if (timeline != null) {
+            timeline.clear();
+        }
+    }
+
+    /**
+     * Number of accounts with a timeline in memory
+     */
+    public synchronized int accountCount() {
+        return timelines.size();
+    }
+
+    /**
+     * Reads answered from a loaded timeline
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Reads that fell back to the database because the timeline could not be loaded
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    // Helper methods
+    private AccountTimeline loadedOrNull(String accountId) {
+        AccountTimeline timeline = timelineFor(accountId);
+        if (!timeline.isLoaded()) {
+            timeline.loadIfAbsent(() -> loadRows(accountId));
+        }
+        return timeline.isLoaded() ? timeline : null;
+    }
+
+    private List<EntryRow> loadRows(String accountId) {
+        List<EntryRow> rows = repository.findRowsByAccountIdOrderByDateAsc(accountId);
+        // Read after the rows: a write accepted or flushed in between is reported to the
+        // timeline, and the load retries
+        Map<Long, EntryRow> pending = pendingWrites.apply(accountId).stream()
+                .collect(Collectors.toMap(EntryRow::id, Function.identity()));
+        if (pending.isEmpty()) {
+            return rows;
+        }
+        // A pending write whose row has moved on is skipped by the flush, so it is skipped here too
+        return rows.stream()
+                .map(row -> {
+                    EntryRow write = pending.get(row.id());
+                    return write != null && write.version() == row.version() && write.date().equals(row.date())
+                            ? write : row;
+                })
+                .toList();
+    }
+
+    private synchronized AccountTimeline timelineFor(String accountId) {
+        return timelines.computeIfAbsent(accountId, id -> new AccountTimeline(id, gapPolicy));
+    }
+
+    private synchronized AccountTimeline loadedOrLoading(String accountId) {
+        // A timeline is registered before it starts loading, so a write to an
+        // account without one cannot race with a load and can be skipped
+        return timelines.get(accountId);
+    }
+}
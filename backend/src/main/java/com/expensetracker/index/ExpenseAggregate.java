@@ -0,0 +1,8 @@
+package com.expensetracker.index;
+
+/**
+ * Expense totals for a date range, in cents.
+ * Min and max are null when no day in the range has an expense.
+ */
+public record ExpenseAggregate(long totalCents, int daysWithExpenses, Long minCents, Long maxCents) {
+}
@@ -0,0 +1,117 @@
+package com.expensetracker.index;
+
+import java.util.Arrays;
+
+/**
+ * Segment tree of daily expenses keyed by epoch day.
+ *
+ * Each leaf holds what the entry on one day adds to a summary: its expense in
+ * cents, and the days with an expense and min/max daily share it stands for
+ * (more than one day when GapPolicy.SPREAD spreads it over a gap). Internal
+ * nodes keep the same for their span, so any date range is aggregated in
+ * O(log n). Only positive expenses contribute, matching how summaries count
+ * daysWithExpenses.
+ */
+class ExpenseTree {
+
+    // Widest day span the tree will cover before BalanceTimelineIndex stops using it (~358 years)
+    static final int MAX_SPAN_DAYS = 1 << 17;
+
+    private static final long NO_MIN = Long.MAX_VALUE;
+    private static final long NO_MAX = Long.MIN_VALUE;
+
+    private final int baseDay;
+    private final int capacity;
+    private final long[] sum;
+    private final int[] count;
+    private final long[] min;
+    private final long[] max;
+
+    /**
+     * Create an empty tree covering at least the given days (inclusive)
+     */
+    ExpenseTree(int fromDay, int toDay) {
+        int span = toDay - fromDay + 1;
+        int cap = 1;
+        while (cap < span) {
+            cap <<= 1;
+        }
+        this.baseDay = fromDay;
+        this.capacity = cap;
+        this.sum = new long[2 * cap];
+        this.count = new int[2 * cap];
+        this.min = new long[2 * cap];
+        this.max = new long[2 * cap];
+        Arrays.fill(min, NO_MIN);
+        Arrays.fill(max, NO_MAX);
+    }
+
+    /**
+     * Whether the tree has a leaf for the day
+     */
+    boolean covers(int day) {
+        return day >= baseDay && day < baseDay + capacity;
+    }
+
+    /**
+     * Set what the entry on a day adds to a summary, null meaning nothing
+     */
+    void set(int day, ExpenseAggregate expense) {
+        int node = day - baseDay + capacity;
+        if (expense != null && expense.totalCents() > 0) {
+            sum[node] = expense.totalCents();
+            count[node] = expense.daysWithExpenses();
+            min[node] = expense.minCents();
+            max[node] = expense.maxCents();
+        } else {
+            sum[node] = 0;
+            count[node] = 0;
+            min[node] = NO_MIN;
+            max[node] = NO_MAX;
+        }
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Aggregate expenses between two days (inclusive)
+     */
+    ExpenseAggregate query(int fromDay, int toDay) {
+        int lo = Math.max(fromDay, baseDay) - baseDay;
+        int hi = Math.min(toDay, baseDay + capacity - 1) - baseDay;
+
+        long total = 0;
+        int days = 0;
+        long lowest = NO_MIN;
+        long highest = NO_MAX;
+        for (int l = lo + capacity, r = hi + capacity + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                total += sum[l];
+                days += count[l];
+                lowest = Math.min(lowest, min[l]);
+                highest = Math.max(highest, max[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                total += sum[r];
+                days += count[r];
+                lowest = Math.min(lowest, min[r]);
+                highest = Math.max(highest, max[r]);
+            }
+        }
+        return new ExpenseAggregate(total, days,
+                lowest != NO_MIN ? lowest : null,
+                highest != NO_MAX ? highest : null);
+    }
+
+    private void pull(int node) {
+        int left = node << 1;
+        int right = left | 1;
+        sum[node] = sum[left] + sum[right];
+        count[node] = count[left] + count[right];
+        min[node] = Math.min(min[left], min[right]);
+        max[node] = Math.max(max[left], max[right]);
+    }
+}
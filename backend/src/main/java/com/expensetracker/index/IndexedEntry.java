@@ -0,0 +1,14 @@
+package com.expensetracker.index;
+
+import com.expensetracker.repository.DailyBalance;
+
+import java.time.LocalDate;
+
+/**
+ * A balance entry read from the in-memory timeline index.
+ * Amounts are held in cents; expenseCents is null when the entry has no expense under the GapPolicy.
+ */
+public record IndexedEntry(long id, LocalDate date, long balanceCents, String description, long version,
+                           Long expenseCents)
+        implements DailyBalance {
+}
@@ -0,0 +1,8 @@
+package com.expensetracker.index;
+
+/**
+ * Summary of a date range answered by the timeline index without walking its entries.
+ * Opening and closing balances are null when the range has no entries.
+ */
+public record RangeSummary(int entryCount, Long openingCents, Long closingCents, ExpenseAggregate expenses) {
+}
@@ -0,0 +1,81 @@
+package com.expensetracker.metrics;
+
+import com.expensetracker.model.BalanceEntry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every call through an instrumented bean and, for repositories, counts the entities returned
+ *
+ * Calls returning a CompletableFuture (@Async methods) are timed until the
+ * future completes. Series are resolved once per method and then reused.
+ */
+final class MethodMetricsInterceptor implements MethodInterceptor {
+
+    private final MetricsRegistry registry;
+    private final String component;
+    private final boolean countRows;
+    private final Map<Method, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<Method, LongAdder> rows = new ConcurrentHashMap<>();
+
+    MethodMetricsInterceptor(MetricsRegistry registry, String component, boolean countRows) {
+        this.registry = registry;
+        this.component = component;
+        this.countRows = countRows;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        Histogram latency = latencies.computeIfAbsent(method, key -> registry.callLatency(component, key.getName()));
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            latency.observe(secondsSince(start));
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) -> latency.observe(secondsSince(start)));
+        } else {
+            latency.observe(secondsSince(start));
+        }
+
+        if (countRows) {
+            int loaded = countEntities(result);
+            if (loaded > 0) {
+                rows.computeIfAbsent(method, key -> registry.rowsLoaded(key.getName())).add(loaded);
+            }
+        }
+        return result;
+    }
+
+    // Helper methods
+    private static double secondsSince(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static int countEntities(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        // Counts, flags and streams (rows not known until consumed) are not counted
+        return result instanceof BalanceEntry ? 1 : 0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.metrics;
+
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.service.BalanceService;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds MethodMetricsInterceptor to the BalanceService and BalanceEntryRepository beans
+ *
+ * Both are already proxies (transactions, @Async, Spring Data), so the
+ * interceptor is put first in their advice chain and times the whole call
+ * including the commit. Runs after the ordered post-processors that create
+ * those proxies. Nothing is added when metrics are disabled.
+ */
+@Component
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+
+    // Resolved on first use, so the registry is not created while post-processors are still being registered
+    private final ObjectProvider<MetricsRegistry> registry;
+
+    @Autowired
+    public MethodMetricsPostProcessor(ObjectProvider<MetricsRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        boolean service = bean instanceof BalanceService;
+        if (!service && !(bean instanceof BalanceEntryRepository)) {
+            return bean;
+        }
+        MetricsRegistry metrics = registry.getObject();
+        if (!metrics.isEnabled()) {
+            return bean;
+        }
+        MethodMetricsInterceptor interceptor = service
+                ? new MethodMetricsInterceptor(metrics, "service", false)
+                : new MethodMetricsInterceptor(metrics, "repository", true);
+
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(service);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+}
@@ -0,0 +1,132 @@
+package com.expensetracker.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics for service calls, repository queries, SQL statements and requests
+ *
+ * Everything is kept in LongAdder-based counters and histograms and rendered
+ * on demand in the Prometheus text format, so no metrics library or collector
+ * is needed at runtime. When disabled nothing is instrumented and recording
+ * is never reached. This bean has no dependencies so the instrumentation
+ * post-processor can use it without initializing other beans early.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private static final double[] LATENCY_BOUNDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final double[] STATEMENT_BOUNDS = {0, 1, 2, 3, 5, 10, 20, 50, 100};
+
+    private final boolean enabled;
+    private final int statementLimit;
+
+    // Keyed by the rendered label set
+    private final Map<String, Histogram> callLatencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rowsLoaded = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> requestLatencies = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> requestStatements = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requestsOverLimit = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+
+    @Autowired
+    public MetricsRegistry(@Value("${expense-tracker.metrics.enabled:true}") boolean enabled,
+                           @Value("${expense-tracker.metrics.statement-limit:20}") int statementLimit) {
+        this.enabled = enabled;
+        this.statementLimit = statementLimit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Latency histogram of an instrumented service or repository method
+     */
+    Histogram callLatency(String component, String method) {
+        String labels = PrometheusFormat.label("component", component) + ","
+                + PrometheusFormat.label("method", method);
+        return callLatencies.computeIfAbsent(labels, key -> new Histogram(LATENCY_BOUNDS));
+    }
+
+    /**
+     * Counter of the entities a repository query method returned
+     */
+    LongAdder rowsLoaded(String method) {
+        return rowsLoaded.computeIfAbsent(PrometheusFormat.label("method", method), key -> new LongAdder());
+    }
+
+    /**
+     * SQL statements sent to the database since startup
+     */
+    public long statementCount() {
+        return statements.sum();
+    }
+
+    /**
+     * Record a SQL statement, against the current request if there is one
+     */
+    void recordStatement() {
+        statements.increment();
+        RequestStats request = RequestStats.current();
+        if (request != null) {
+            request.countStatement();
+        }
+    }
+
+    /**
+     * Record a completed request by its route pattern, flagging it when it issued
+     * more than statement-limit SQL statements
+     */
+    void recordRequest(String httpMethod, String route, String uri, long nanos, int statementCount) {
+        String labels = PrometheusFormat.label("method", httpMethod) + "," + PrometheusFormat.label("route", route);
+        requestLatencies.computeIfAbsent(labels, key -> new Histogram(LATENCY_BOUNDS)).observe(nanos / 1e9);
+        requestStatements.computeIfAbsent(labels, key -> new Histogram(STATEMENT_BOUNDS)).observe(statementCount);
+        if (statementCount > statementLimit) {
+            requestsOverLimit.computeIfAbsent(labels, key -> new LongAdder()).increment();
+            log.warn("{} {} issued {} SQL statements (limit {})", httpMethod, uri, statementCount, statementLimit);
+        }
+    }
+
+    /**
+     * Append every metric in the Prometheus text format
+     */
+    public void render(StringBuilder out) {
+        renderHistograms(out, "expense_tracker_call_duration_seconds",
+                "Latency of BalanceService methods and BalanceEntryRepository queries", callLatencies);
+        renderCounters(out, "expense_tracker_repository_rows_loaded_total",
+                "Entities returned by BalanceEntryRepository queries", rowsLoaded);
+        PrometheusFormat.sample(out, "expense_tracker_sql_statements_total", "counter",
+                "SQL statements sent to the database", statements.sum());
+        renderHistograms(out, "expense_tracker_http_request_duration_seconds",
+                "Latency of API requests by route", requestLatencies);
+        renderHistograms(out, "expense_tracker_http_request_sql_statements",
+                "SQL statements issued per API request by route", requestStatements);
+        renderCounters(out, "expense_tracker_http_requests_over_statement_limit_total",
+                "API requests that issued more than " + statementLimit + " SQL statements", requestsOverLimit);
+    }
+
+    // Helper methods
+    private static void renderHistograms(StringBuilder out, String name, String help, Map<String, Histogram> series) {
+        PrometheusFormat.header(out, name, "histogram", help);
+        new TreeMap<>(series).forEach((labels, histogram) -> histogram.render(out, name, labels));
+    }
+
+    private static void renderCounters(StringBuilder out, String name, String help, Map<String, LongAdder> series) {
+        PrometheusFormat.header(out, name, "counter", help);
+        new TreeMap<>(series).forEach((labels, counter) ->
+                out.append(name).append('{').append(labels).append("} ").append(counter.sum()).append('\n'));
+    }
+}
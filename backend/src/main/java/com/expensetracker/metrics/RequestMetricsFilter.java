@@ -0,0 +1,82 @@
+package com.expensetracker.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times each API request and counts the SQL statements issued while serving it
+ *
+ * Requests handled asynchronously are recorded when the async processing
+ * completes. The route label is the matched handler pattern, so it stays
+ * bounded however many accounts or ids are requested.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final MetricsRegistry registry;
+
+    @Autowired
+    public RequestMetricsFilter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !registry.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStats stats = new RequestStats();
+        RequestStats previous = RequestStats.bind(stats);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStats.restore(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, start, stats);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, start, stats);
+            }
+        }
+    }
+
+    // Helper methods
+    private void record(HttpServletRequest request, long start, RequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+        registry.recordRequest(request.getMethod(), route, request.getRequestURI(), System.nanoTime() - start,
+                stats.statements());
+    }
+}
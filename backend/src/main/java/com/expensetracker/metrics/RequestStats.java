@@ -0,0 +1,49 @@
+package com.expensetracker.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQL statements issued on behalf of one HTTP request
+ *
+ * Bound to the request thread by RequestMetricsFilter and carried onto @Async
+ * executor threads by RequestStatsTaskDecorator, so statements of asynchronous
+ * summaries still count towards the request that asked for them.
+ */
+final class RequestStats {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    /**
+     * Stats of the request being served by this thread, or null outside a request
+     */
+    static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind stats to this thread, returning the previously bound ones for restore
+     */
+    static RequestStats bind(RequestStats stats) {
+        RequestStats previous = CURRENT.get();
+        CURRENT.set(stats);
+        return previous;
+    }
+
+    static void restore(RequestStats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    void countStatement() {
+        statements.incrementAndGet();
+    }
+
+    int statements() {
+        return statements.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.expensetracker.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the submitting request's RequestStats onto the application task executor
+ *
+ * Spring Boot applies the single TaskDecorator bean to the executor behind
+ * @Async methods, for both the virtual and the platform thread variant.
+ */
+@Component
+public class RequestStatsTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestStats stats = RequestStats.current();
+        if (stats == null) {
+            return runnable;
+        }
+        return () -> {
+            RequestStats previous = RequestStats.bind(stats);
+            try {
+                runnable.run();
+            } finally {
+                RequestStats.restore(previous);
+            }
+        };
+    }
+}
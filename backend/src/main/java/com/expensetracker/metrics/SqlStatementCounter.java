@@ -0,0 +1,106 @@
+package com.expensetracker.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every SQL statement sent to the database, towards the total and the current request
+ *
+ * Wraps the DataSource bean when metrics are enabled, so statements from
+ * Hibernate and from JdbcTemplate (database-side expenses, upserts, batch
+ * imports, write-behind flushes) are all counted. A prepared statement counts
+ * once however many rows it is batched for; a plain Statement counts once per
+ * execute call. unwrap and isWrapperFor still reach the pool.
+ */
+@Component
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    // Resolved on first use, so the registry is not created while post-processors are still being registered
+    private final ObjectProvider<MetricsRegistry> registry;
+
+    @Autowired
+    public SqlStatementCounter(ObjectProvider<MetricsRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof CountingDataSource) {
+            return bean;
+        }
+        MetricsRegistry metrics = registry.getObject();
+        return metrics.isEnabled() ? new CountingDataSource(dataSource, metrics) : bean;
+    }
+
+    /**
+     * DataSource handing out connections whose statements are counted
+     */
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        private final MetricsRegistry metrics;
+
+        CountingDataSource(DataSource target, MetricsRegistry metrics) {
+            super(target);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new CountingHandler(connection, metrics));
+        }
+    }
+
+    /**
+     * Counts prepareStatement and prepareCall on a connection, and execute calls on its plain statements
+     */
+    private record CountingHandler(Object target, MetricsRegistry metrics) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.startsWith("prepare") || target instanceof Statement && name.startsWith("execute")) {
+                metrics.recordStatement();
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (name.equals("createStatement")) {
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {Statement.class},
+                        new CountingHandler(result, metrics));
+            }
+            return result;
+        }
+    }
+}
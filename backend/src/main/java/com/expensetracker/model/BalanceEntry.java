@@ -1,5 +1,6 @@
 package com.expensetracker.model;
 
+import com.expensetracker.money.CentsConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -12,25 +13,43 @@ import java.time.LocalDateTime;
  * This model stores the user's balance for a specific date,
  * which is used to calculate daily expenses by comparing
  * consecutive day balances.
+ *
+ * Entries belong to an account, and each account has at most one entry per
+ * date. Every query is scoped to one account, so the composite
+ * (account_id, date) key keeps lookups and ranges within that account's rows.
+ *
+ * The balance is held as whole cents and stored in a DECIMAL(15,2) column.
+ * version starts at 0 and is bumped by every update, by Hibernate for entity
+ * writes and by the JDBC statements that write rows directly.
  */
 @Entity
 @Table(name = "balance_entries", 
-       indexes = @Index(name = "idx_date", columnList = "date"),
-       uniqueConstraints = @UniqueConstraint(columnNames = "date"))
+       uniqueConstraints = @UniqueConstraint(name = "uk_account_date", columnNames = {"account_id", "date"}))
 public class BalanceEntry {
 
+    /**
+     * Account used by the /api/balances routes and for rows created before accounts existed
+     */
+    public static final String DEFAULT_ACCOUNT_ID = "default";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // The default lets ddl-auto=update add the column to an existing single-account table
+    @Column(name = "account_id", nullable = false, length = 64,
+            columnDefinition = "varchar(64) default '" + DEFAULT_ACCOUNT_ID + "'")
+    private String accountId = DEFAULT_ACCOUNT_ID;
+
     @NotNull(message = "Date is required")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private LocalDate date;
 
     @NotNull(message = "Balance is required")
     @PositiveOrZero(message = "Balance must be zero or positive")
-    @Column(nullable = false)
-    private Double balance;
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long balanceCents;
 
     @Column(length = 500)
     private String description;
@@ -41,16 +60,26 @@ public class BalanceEntry {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // The default lets ddl-auto=update add the column to a table that already has rows
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // Constructors
     public BalanceEntry() {
     }
 
-    public BalanceEntry(LocalDate date, Double balance, String description) {
+    public BalanceEntry(LocalDate date, Long balanceCents, String description) {
         this.date = date;
-        this.balance = balance;
+        this.balanceCents = balanceCents;
         this.description = description;
     }
 
+    public BalanceEntry(String accountId, LocalDate date, Long balanceCents, String description) {
+        this(date, balanceCents, description);
+        this.accountId = accountId;
+    }
+
     // Lifecycle callbacks
     @PrePersist
     protected void onCreate() {
@@ -72,6 +101,14 @@ public class BalanceEntry {
         this.id = id;
     }
 
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
     public LocalDate getDate() {
         return date;
     }
@@ -80,12 +117,12 @@ public class BalanceEntry {
         this.date = date;
     }
 
-    public Double getBalance() {
-        return balance;
+    public Long getBalanceCents() {
+        return balanceCents;
     }
 
-    public void setBalance(Double balance) {
-        this.balance = balance;
+    public void setBalanceCents(Long balanceCents) {
+        this.balanceCents = balanceCents;
     }
 
     public String getDescription() {
@@ -112,13 +149,23 @@ public class BalanceEntry {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "BalanceEntry{" +
                 "id=" + id +
+                ", accountId='" + accountId + '\'' +
                 ", date=" + date +
-                ", balance=" + balance +
+                ", balanceCents=" + balanceCents +
                 ", description='" + description + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,206 @@
+package com.expensetracker.model;
+
+import com.expensetracker.money.CentsConverter;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class storing pre-computed totals for one calendar month of one account.
+ *
+ * Rows are maintained by MonthlyRollupService in the same transaction as
+ * every balance write, so monthly reports read a single row instead of
+ * recomputing the month from its balance entries. Amounts are whole cents.
+ */
+@Entity
+@Table(name = "monthly_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollup_account_period",
+                                             columnNames = {"account_id", "period"}))
+public class MonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false, length = 64,
+            columnDefinition = "varchar(64) default '" + BalanceEntry.DEFAULT_ACCOUNT_ID + "'")
+    private String accountId = BalanceEntry.DEFAULT_ACCOUNT_ID;
+
+    // year * 100 + month, so month ranges are index range scans
+    @Column(nullable = false)
+    private Integer period;
+
+    @Column(name = "rollup_year", nullable = false)
+    private Integer year;
+
+    @Column(name = "rollup_month", nullable = false)
+    private Integer month;
+
+    @Column(name = "opening_balance", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long openingBalanceCents;
+
+    @Column(name = "closing_balance", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long closingBalanceCents;
+
+    @Column(name = "total_expense", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long totalExpenseCents;
+
+    @Column(name = "min_daily_expense", precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long minDailyExpenseCents;
+
+    @Column(name = "max_daily_expense", precision = 15, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long maxDailyExpenseCents;
+
+    @Column(name = "days_with_expenses", nullable = false)
+    private Integer daysWithExpenses;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public MonthlyRollup() {
+    }
+
+    public MonthlyRollup(String accountId, int year, int month) {
+        this.accountId = accountId;
+        this.year = year;
+        this.month = month;
+        this.period = toPeriod(year, month);
+    }
+
+    /**
+     * Encode a year and month as a sortable period key
+     */
+    public static int toPeriod(int year, int month) {
+        return year * 100 + month;
+    }
+
+    // Lifecycle callbacks
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public Integer getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Integer period) {
+        this.period = period;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getMonth() {
+        return month;
+    }
+
+    public void setMonth(Integer month) {
+        this.month = month;
+    }
+
+    public Long getOpeningBalanceCents() {
+        return openingBalanceCents;
+    }
+
+    public void setOpeningBalanceCents(Long openingBalanceCents) {
+        this.openingBalanceCents = openingBalanceCents;
+    }
+
+    public Long getClosingBalanceCents() {
+        return closingBalanceCents;
+    }
+
+    public void setClosingBalanceCents(Long closingBalanceCents) {
+        this.closingBalanceCents = closingBalanceCents;
+    }
+
+    public Long getTotalExpenseCents() {
+        return totalExpenseCents;
+    }
+
+    public void setTotalExpenseCents(Long totalExpenseCents) {
+        this.totalExpenseCents = totalExpenseCents;
+    }
+
+    public Long getMinDailyExpenseCents() {
+        return minDailyExpenseCents;
+    }
+
+    public void setMinDailyExpenseCents(Long minDailyExpenseCents) {
+        this.minDailyExpenseCents = minDailyExpenseCents;
+    }
+
+    public Long getMaxDailyExpenseCents() {
+        return maxDailyExpenseCents;
+    }
+
+    public void setMaxDailyExpenseCents(Long maxDailyExpenseCents) {
+        this.maxDailyExpenseCents = maxDailyExpenseCents;
+    }
+
+    public Integer getDaysWithExpenses() {
+        return daysWithExpenses;
+    }
+
+    public void setDaysWithExpenses(Integer daysWithExpenses) {
+        this.daysWithExpenses = daysWithExpenses;
+    }
+
+    public Integer getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(Integer entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "MonthlyRollup{" +
+                "accountId='" + accountId + '\'' +
+                ", period=" + period +
+                ", totalExpenseCents=" + totalExpenseCents +
+                ", entryCount=" + entryCount +
+                '}';
+    }
+}
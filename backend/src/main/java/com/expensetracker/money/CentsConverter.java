@@ -0,0 +1,26 @@
+package com.expensetracker.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Maps cents held in a Long attribute to a DECIMAL(15,2) column
+ */
+@Converter
+public class CentsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents != null ? Money.toDecimal(cents) : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        // The column has two decimal places, so rounding only guards against other column types
+        return amount != null ? amount.setScale(Money.SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact()
+                : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.expensetracker.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON decimal number (or numeric string) with at most two decimal places as cents
+ *
+ * The number is read as a BigDecimal straight from its text, so 0.1 + 0.2 style
+ * binary rounding never reaches the stored value.
+ */
+public class CentsDeserializer extends StdDeserializer<Long> {
+
+    public CentsDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            try {
+                return Money.toCents(parser.getDecimalValue());
+            } catch (IllegalArgumentException e) {
+                return (Long) context.handleWeirdNumberValue(Long.class, parser.getDecimalValue(), e.getMessage());
+            }
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Money.parse(parser.getText());
+            } catch (IllegalArgumentException e) {
+                return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), e.getMessage());
+            }
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+}
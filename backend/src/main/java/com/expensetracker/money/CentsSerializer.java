@@ -0,0 +1,22 @@
+package com.expensetracker.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes cents as a JSON decimal number with two decimal places, e.g. 1250.50
+ */
+public class CentsSerializer extends StdSerializer<Long> {
+
+    public CentsSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(Money.toDecimal(cents));
+    }
+}
@@ -0,0 +1,73 @@
+package com.expensetracker.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between amounts and long minor units (cents)
+ *
+ * Balances and expenses are held as cents everywhere inside the application,
+ * so arithmetic and totals are exact. Amounts are only turned into decimals
+ * at the edges: the DECIMAL(15,2) columns, JSON, CSV and JDBC batches.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    // DECIMAL(15,2) holds up to 13 integer digits
+    private static final long MAX_ABS_CENTS = 999_999_999_999_999L;
+
+    private Money() {
+    }
+
+    /**
+     * Convert an amount with at most two decimal places to cents
+     */
+    public static long toCents(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " has more than " + SCALE + " decimal places.");
+        }
+        long cents = scaled.unscaledValue().longValue();
+        if (scaled.unscaledValue().bitLength() > 63 || Math.abs(cents) > MAX_ABS_CENTS) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is out of range.");
+        }
+        return cents;
+    }
+
+    /**
+     * Parse a decimal string such as "1250.5" to cents
+     */
+    public static long parse(String amount) {
+        try {
+            return toCents(new BigDecimal(amount.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+    }
+
+    /**
+     * Convert cents to a decimal with two decimal places
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Format cents as a plain decimal string such as "1250.50"
+     */
+    public static String format(long cents) {
+        return toDecimal(cents).toPlainString();
+    }
+
+    /**
+     * Divide cents, rounding half to even, e.g. for averages
+     */
+    public static long divide(long cents, long divisor) {
+        return BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+}
@@ -1,75 +1,238 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.BalanceEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for BalanceEntry entity
  * Provides CRUD operations and custom queries for balance data
+ *
+ * Every query is scoped to one account and leads with account_id, so it is
+ * a range scan on the (account_id, date) key of that account only.
+ *
+ * Reads return EntryRow or BalancePoint records selecting only the columns
+ * they need; those are never managed by the persistence context. Entities
+ * are only loaded to be changed.
  */
 @Repository
 public interface BalanceEntryRepository extends JpaRepository<BalanceEntry, Long> {
 
+    /**
+     * Find an account's entry by ID
+     */
+    Optional<BalanceEntry> findByIdAndAccountId(Long id, String accountId);
+
     /**
      * Find a balance entry by date
      */
-    Optional<BalanceEntry> findByDate(LocalDate date);
+    Optional<BalanceEntry> findByAccountIdAndDate(String accountId, LocalDate date);
 
     /**
      * Check if an entry exists for a specific date
      */
-    boolean existsByDate(LocalDate date);
+    boolean existsByAccountIdAndDate(String accountId, LocalDate date);
+
+    /**
+     * Find the rows of all entries between two dates (inclusive)
+     */
+    @Query("SELECT new com.expensetracker.repository.EntryRow(" +
+           "b.id, b.date, b.balanceCents, b.description, b.version) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate ORDER BY b.date ASC")
+    List<EntryRow> findRowsBetween(@Param("accountId") String accountId,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * Dates and balances of all entries between two dates (inclusive)
+     */
+    @Query("SELECT new com.expensetracker.repository.BalancePoint(b.date, b.balanceCents) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate ORDER BY b.date ASC")
+    List<BalancePoint> findPointsBetween(@Param("accountId") String accountId,
+                                         @Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+
+    /**
+     * Version of the entries between two dates (inclusive) and of the nearest entry
+     * before them, which the first entry's expense is taken against
+     */
+    @Query("SELECT new com.expensetracker.repository.EntryVersion(" +
+           "COUNT(b), SUM(b.version), MAX(b.id), MIN(b.date), MAX(b.updatedAt)) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId AND b.date <= :endDate " +
+           "AND b.date >= COALESCE((SELECT MAX(p.date) FROM BalanceEntry p " +
+           "WHERE p.accountId = :accountId AND p.date < :startDate), :startDate)")
+    EntryVersion findVersion(@Param("accountId") String accountId,
+                             @Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate);
+
+    /**
+     * Version of all of an account's entries
+     */
+    @Query("SELECT new com.expensetracker.repository.EntryVersion(" +
+           "COUNT(b), SUM(b.version), MAX(b.id), MIN(b.date), MAX(b.updatedAt)) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId")
+    EntryVersion findVersion(@Param("accountId") String accountId);
+
+    /**
+     * Find the dates that already have an entry between two dates (inclusive)
+     */
+    @Query("SELECT b.date FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate")
+    List<LocalDate> findDatesBetween(@Param("accountId") String accountId,
+                                     @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find every account that has at least one entry
+     */
+    @Query("SELECT DISTINCT b.accountId FROM BalanceEntry b ORDER BY b.accountId")
+    List<String> findAccountIds();
+
+    /**
+     * Find all of an account's entries ordered by date ascending
+     */
+    List<EntryRow> findRowsByAccountIdOrderByDateAsc(String accountId);
+
+    /**
+     * First entries ordered by date ascending, for keyset pagination
+     */
+    List<EntryRow> findRowsByAccountIdOrderByDateAsc(String accountId, Limit limit);
+
+    /**
+     * Last entries ordered by date descending, for keyset pagination
+     */
+    List<EntryRow> findRowsByAccountIdOrderByDateDesc(String accountId, Limit limit);
+
+    /**
+     * Entries after a date ordered ascending, for keyset pagination
+     */
+    List<EntryRow> findRowsByAccountIdAndDateGreaterThanOrderByDateAsc(String accountId, LocalDate date, Limit limit);
 
     /**
-     * Find all entries between two dates (inclusive)
+     * Entries before a date ordered descending, for keyset pagination
      */
-    @Query("SELECT b FROM BalanceEntry b WHERE b.date BETWEEN :startDate AND :endDate ORDER BY b.date ASC")
-    List<BalanceEntry> findByDateBetween(@Param("startDate") LocalDate startDate, 
-                                          @Param("endDate") LocalDate endDate);
+    List<EntryRow> findRowsByAccountIdAndDateLessThanOrderByDateDesc(String accountId, LocalDate date, Limit limit);
 
     /**
-     * Find all entries for a specific month
+     * Find an account's entry row by ID
      */
-    @Query("SELECT b FROM BalanceEntry b WHERE YEAR(b.date) = :year AND MONTH(b.date) = :month ORDER BY b.date ASC")
-    List<BalanceEntry> findByYearAndMonth(@Param("year") int year, @Param("month") int month);
+    Optional<EntryRow> findRowByIdAndAccountId(Long id, String accountId);
 
     /**
-     * Find the entry for the previous day
+     * Find an entry row by date
      */
-    @Query("SELECT b FROM BalanceEntry b WHERE b.date = :date")
-    Optional<BalanceEntry> findPreviousDayEntry(@Param("date") LocalDate date);
+    Optional<EntryRow> findRowByAccountIdAndDate(String accountId, LocalDate date);
 
     /**
-     * Find all entries ordered by date descending
+     * Find the rows of an account's entries on the given dates, ordered by date ascending
      */
-    List<BalanceEntry> findAllByOrderByDateDesc();
+    List<EntryRow> findRowsByAccountIdAndDateInOrderByDateAsc(String accountId, Collection<LocalDate> dates);
 
     /**
-     * Find all entries ordered by date ascending
+     * Find the rows of an account's entries with the given ids, ordered by date ascending
      */
-    List<BalanceEntry> findAllByOrderByDateAsc();
+    List<EntryRow> findRowsByAccountIdAndIdInOrderByDateAsc(String accountId, Collection<Long> ids);
+
+    /**
+     * Date and balance of the nearest entry before a date, in one seek on (account_id, date)
+     */
+    Optional<BalancePoint> findFirstPointByAccountIdAndDateLessThanOrderByDateDesc(String accountId, LocalDate date);
+
+    /**
+     * Date and balance of the nearest entry after a date, in one seek on (account_id, date)
+     */
+    Optional<BalancePoint> findFirstPointByAccountIdAndDateGreaterThanOrderByDateAsc(String accountId,
+                                                                                     LocalDate date);
+
+    /**
+     * The entry on a date, if any, followed by the nearest entry before it: everything
+     * that date's expense needs, in one seek
+     */
+    List<BalancePoint> findFirst2PointsByAccountIdAndDateLessThanEqualOrderByDateDesc(String accountId,
+                                                                                      LocalDate date);
+
+    /**
+     * Dates and balances of all of an account's entries ordered by date ascending
+     */
+    List<BalancePoint> findPointsByAccountIdOrderByDateAsc(String accountId);
+
+    /**
+     * Stream the rows of all of an account's entries ordered by date ascending through a database cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.expensetracker.repository.EntryRow(" +
+           "b.id, b.date, b.balanceCents, b.description, b.version) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId ORDER BY b.date ASC")
+    Stream<EntryRow> streamRowsByAccountId(@Param("accountId") String accountId);
+
+    /**
+     * Stream the rows of entries between two dates (inclusive) through a database cursor
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.expensetracker.repository.EntryRow(" +
+           "b.id, b.date, b.balanceCents, b.description, b.version) " +
+           "FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate ORDER BY b.date ASC")
+    Stream<EntryRow> streamRowsBetween(@Param("accountId") String accountId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
 
     /**
      * Get the most recent entry
      */
-    Optional<BalanceEntry> findTopByOrderByDateDesc();
+    Optional<BalanceEntry> findTopByAccountIdOrderByDateDesc(String accountId);
 
     /**
      * Get the oldest entry
      */
-    Optional<BalanceEntry> findTopByOrderByDateAsc();
+    Optional<BalanceEntry> findTopByAccountIdOrderByDateAsc(String accountId);
 
     /**
      * Count entries in a date range
      */
-    @Query("SELECT COUNT(b) FROM BalanceEntry b WHERE b.date BETWEEN :startDate AND :endDate")
-    Long countByDateBetween(@Param("startDate") LocalDate startDate, 
+    @Query("SELECT COUNT(b) FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate")
+    Long countByDateBetween(@Param("accountId") String accountId,
+                            @Param("startDate") LocalDate startDate, 
+                            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Delete all of an account's entries with a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM BalanceEntry b WHERE b.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") String accountId);
+
+    /**
+     * Delete an account's entries between two dates (inclusive) with a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM BalanceEntry b WHERE b.accountId = :accountId " +
+           "AND b.date BETWEEN :startDate AND :endDate")
+    int deleteByDateBetween(@Param("accountId") String accountId,
+                            @Param("startDate") LocalDate startDate,
                             @Param("endDate") LocalDate endDate);
 }
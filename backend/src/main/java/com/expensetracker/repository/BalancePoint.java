@@ -0,0 +1,9 @@
+package com.expensetracker.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Date and balance of an entry, for expense and summary calculations
+ */
+public record BalancePoint(LocalDate date, long balanceCents) implements DailyBalance {
+}
@@ -0,0 +1,86 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes an account's entry for a date in a single statement, whether or not it exists
+ *
+ * MySQL uses INSERT ... ON DUPLICATE KEY UPDATE, reading the inserted values
+ * through a row alias (MySQL 8.0.19+) rather than the deprecated VALUES(), and
+ * H2 uses MERGE. Both are keyed on the (account_id, date) unique constraint,
+ * so concurrent writers for one date never see a half-written
+ * check-then-insert. A new row starts at version 0 and every update bumps it,
+ * like Hibernate does for BalanceEntry.
+ */
+@Repository
+public class BalanceUpsertRepository {
+
+    // Parameters: account, date, balance, description, created_at, updated_at
+    private static final String MYSQL_UPSERT_SQL =
+            "INSERT INTO balance_entries (account_id, date, balance, description, created_at, updated_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 0) AS new "
+                    + "ON DUPLICATE KEY UPDATE balance = new.balance, description = new.description, "
+                    + "updated_at = new.updated_at, version = balance_entries.version + 1";
+
+    // Same parameters as MYSQL_UPSERT_SQL
+    private static final String H2_UPSERT_SQL =
+            "MERGE INTO balance_entries t USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS DATE), "
+                    + "CAST(? AS DECIMAL(15, 2)), CAST(? AS VARCHAR(500)), CAST(? AS TIMESTAMP), "
+                    + "CAST(? AS TIMESTAMP))) "
+                    + "s (account_id, date, balance, description, created_at, updated_at) "
+                    + "ON t.account_id = s.account_id AND t.date = s.date "
+                    + "WHEN MATCHED THEN UPDATE SET balance = s.balance, description = s.description, "
+                    + "updated_at = s.updated_at, version = t.version + 1 "
+                    + "WHEN NOT MATCHED THEN INSERT (account_id, date, balance, description, created_at, updated_at, "
+                    + "version) VALUES (s.account_id, s.date, s.balance, s.description, s.created_at, s.updated_at, 0)";
+
+    private static final String CONDITIONAL_UPDATE_SQL =
+            "UPDATE balance_entries SET balance = ?, description = ?, updated_at = ?, version = version + 1 "
+                    + "WHERE account_id = ? AND date = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    @Autowired
+    public BalanceUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.upsertSql = "H2".equalsIgnoreCase(product) ? H2_UPSERT_SQL : MYSQL_UPSERT_SQL;
+    }
+
+    /**
+     * Insert the entry for a date, or overwrite the existing one's balance and description
+     */
+    public void upsert(String accountId, LocalDate date, long balanceCents, String description) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] args = {accountId, Date.valueOf(date), Money.toDecimal(balanceCents), description, now, now};
+        try {
+            jdbcTemplate.update(upsertSql, args);
+        } catch (DuplicateKeyException e) {
+            // MERGE can lose a race with a concurrent insert of the same date; the row now exists
+            jdbcTemplate.update(upsertSql, args);
+        }
+    }
+
+    /**
+     * Overwrite the entry for a date only if it is still at the expected version.
+     * Returns false when there is no such entry, or it was changed since.
+     */
+    public boolean updateIfVersion(String accountId, LocalDate date, long balanceCents, String description,
+                                   long expectedVersion) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(CONDITIONAL_UPDATE_SQL, Money.toDecimal(balanceCents), description, now,
+                accountId, Date.valueOf(date), expectedVersion) > 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.expensetracker.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A day's balance in cents, as read by the projection queries of BalanceEntryRepository
+ */
+public interface DailyBalance {
+
+    LocalDate date();
+
+    long balanceCents();
+}
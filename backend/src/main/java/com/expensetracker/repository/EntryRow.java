@@ -0,0 +1,10 @@
+package com.expensetracker.repository;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of an entry that entry lists and the timeline index need
+ */
+public record EntryRow(long id, LocalDate date, long balanceCents, String description, long version)
+        implements DailyBalance {
+}
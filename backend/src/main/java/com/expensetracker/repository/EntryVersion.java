@@ -0,0 +1,63 @@
+package com.expensetracker.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version of an account's entries in a date range: a tag that changes whenever a response computed
+ * from those entries would, and when the latest of them changed
+ *
+ * The tag is made of how many entries there are, the sum of their versions, the
+ * highest id and the first date. An update bumps its entry's version, an insert
+ * takes a new highest id, and a delete changes the count, or the first date when
+ * it removes the entry the range's first expense is taken against. None of that
+ * depends on updated_at, which the database may only keep to the second. A
+ * loaded AccountTimeline tags its versions itself, without the database.
+ *
+ * lastUpdated is only used for Last-Modified. A delete leaves lastUpdated of the
+ * remaining entries behind, so Last-Modified also takes lastRemoved, when an entry
+ * of the account was last deleted or moved to another date.
+ */
+public record EntryVersion(String tag, LocalDateTime lastUpdated, LocalDateTime lastRemoved) {
+
+    public EntryVersion(long count, Long versionSum, Long maxId, LocalDate firstDate, LocalDateTime lastUpdated) {
+        this(count + "-" + Long.toString(versionSum != null ? versionSum : 0L, 36)
+                + "-" + Long.toString(maxId != null ? maxId : 0L, 36)
+                + "-" + Long.toString(firstDate != null ? firstDate.toEpochDay() : 0L, 36), lastUpdated, null);
+    }
+
+    /**
+     * This version with the account's last removal
+     */
+    public EntryVersion withLastRemoved(LocalDateTime removedAt) {
+        return new EntryVersion(tag, lastUpdated, removedAt);
+    }
+
+    /**
+     * Strong ETag for a response computed from these entries
+     */
+    public String eTag() {
+        return eTag("");
+    }
+
+    /**
+     * Strong ETag for one representation of a response computed from these entries;
+     * a non-empty suffix tells it apart from the default JSON one
+     */
+    public String eTag(String representation) {
+        return "\"" + tag + (representation.isEmpty() ? "" : "-" + representation) + "\"";
+    }
+
+    /**
+     * Last-Modified timestamp in epoch milliseconds: the later of lastUpdated and lastRemoved,
+     * or -1 when neither is known
+     */
+    public long lastModifiedMillis() {
+        LocalDateTime lastModified = lastUpdated;
+        if (lastRemoved != null && (lastModified == null || lastRemoved.isAfter(lastModified))) {
+            lastModified = lastRemoved;
+        }
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1L;
+    }
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.repository;
+
+import java.time.LocalDate;
+
+/**
+ * An entry with its daily expense computed by the database, in cents.
+ * expenseCents is null when the entry has no expense under the GapPolicy.
+ */
+public record ExpenseRow(long id, LocalDate date, long balanceCents, String description, long version,
+                         Long expenseCents) {
+}
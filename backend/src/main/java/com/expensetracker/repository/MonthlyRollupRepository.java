@@ -0,0 +1,62 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.MonthlyRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for MonthlyRollup entity
+ * Periods are encoded as year * 100 + month, and rows are scoped to an account
+ */
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+
+    /**
+     * Find an account's rollup for a period
+     */
+    Optional<MonthlyRollup> findByAccountIdAndPeriod(String accountId, Integer period);
+
+    /**
+     * Find and lock an account's rollup for a period until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM MonthlyRollup r WHERE r.accountId = :accountId AND r.period = :period")
+    Optional<MonthlyRollup> findForUpdate(@Param("accountId") String accountId, @Param("period") Integer period);
+
+    /**
+     * Find an account's rollups between two periods (inclusive)
+     */
+    List<MonthlyRollup> findByAccountIdAndPeriodBetweenOrderByPeriodAsc(String accountId, Integer startPeriod,
+                                                                         Integer endPeriod);
+
+    /**
+     * Delete all of an account's rollups with a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyRollup r WHERE r.accountId = :accountId")
+    void deleteByAccountId(@Param("accountId") String accountId);
+
+    /**
+     * Delete an account's rollups between two periods (inclusive) with a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyRollup r WHERE r.accountId = :accountId " +
+           "AND r.period BETWEEN :startPeriod AND :endPeriod")
+    void deleteByPeriodBetween(@Param("accountId") String accountId, @Param("startPeriod") Integer startPeriod,
+                               @Param("endPeriod") Integer endPeriod);
+
+    /**
+     * Delete every rollup with a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyRollup r")
+    void deleteAllInBulk();
+}
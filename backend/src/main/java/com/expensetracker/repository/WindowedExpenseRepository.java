@@ -0,0 +1,165 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.money.Money;
+import com.expensetracker.service.GapPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expense queries evaluated by the database with window functions
+ *
+ * Each entry is paired with the nearest earlier entry through LAG over the
+ * account's entries ordered by date, and its expense is computed in the
+ * SELECT from the difference of the two balances, following the GapPolicy
+ * like ExpenseCalculator: a rise counts as no expense and a drop spread over
+ * several days reports its floored daily share. Ranges are read from the nearest entry before their
+ * start, so the first entry's expense needs no second query, and summaries are
+ * aggregated in the database so a range of any length returns a single row.
+ * The SQL sticks to window functions, TIMESTAMPDIFF and MOD, which MySQL 8 and
+ * H2 both support; shares of a spread drop use MOD rather than division so
+ * both round them the same way.
+ */
+@Repository
+public class WindowedExpenseRepository {
+
+    // Entries with the date and balance of the entry before them in the selected rows
+    private static final String WINDOWED_ENTRIES =
+            "SELECT b.id, b.date, b.balance, b.description, b.version, "
+                    + "LAG(b.date) OVER (ORDER BY b.date) AS previous_date, "
+                    + "LAG(b.balance) OVER (ORDER BY b.date) AS previous_balance "
+                    + "FROM balance_entries b WHERE b.account_id = ?";
+
+    // Parameters: account, account, start, start, end
+    private static final String WINDOWED_RANGE = WINDOWED_ENTRIES
+            + " AND b.date >= COALESCE((SELECT MAX(p.date) FROM balance_entries p "
+            + "WHERE p.account_id = ? AND p.date < ?), ?) AND b.date <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String allSql;
+    // Parameters: account, account, start, start, end, start
+    private final String rangeSql;
+    private final String summarySql;
+
+    @Autowired
+    public WindowedExpenseRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.allSql = expenseSql(gapPolicy) + "FROM (" + WINDOWED_ENTRIES + ") e ORDER BY e.date";
+        this.rangeSql = expenseSql(gapPolicy) + "FROM (" + WINDOWED_RANGE + ") e "
+                + "WHERE e.date >= ? ORDER BY e.date";
+        this.summarySql = summarySql(gapPolicy);
+    }
+
+    /**
+     * All of an account's entries with their expenses, ordered by date
+     */
+    public List<ExpenseRow> findAll(String accountId) {
+        return jdbcTemplate.query(allSql, this::mapExpenseRow, accountId);
+    }
+
+    /**
+     * An account's entries between two dates (inclusive) with their expenses, ordered by date
+     */
+    public List<ExpenseRow> findRange(String accountId, LocalDate startDate, LocalDate endDate) {
+        Date start = Date.valueOf(startDate);
+        return jdbcTemplate.query(rangeSql, this::mapExpenseRow, accountId, accountId, start, start,
+                Date.valueOf(endDate), start);
+    }
+
+    /**
+     * Entry count, opening and closing balances and expense totals between two dates (inclusive)
+     */
+    public RangeSummary summarize(String accountId, LocalDate startDate, LocalDate endDate) {
+        Date start = Date.valueOf(startDate);
+        return jdbcTemplate.queryForObject(summarySql, (rs, rowNum) -> {
+            int entryCount = rs.getInt("entry_count");
+            Long totalCents = wholeCents(rs, "total_expense_cents");
+            Long daysWithExpenses = wholeCents(rs, "days_with_expenses");
+            ExpenseAggregate expenses = new ExpenseAggregate(totalCents != null ? totalCents : 0L,
+                    daysWithExpenses != null ? daysWithExpenses.intValue() : 0,
+                    wholeCents(rs, "min_expense_cents"), wholeCents(rs, "max_expense_cents"));
+            return new RangeSummary(entryCount, cents(rs, "opening_balance"), cents(rs, "closing_balance"),
+                    expenses);
+        }, accountId, accountId, start, start, Date.valueOf(endDate), start);
+    }
+
+    // Helper methods
+    private ExpenseRow mapExpenseRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ExpenseRow(rs.getLong("id"), rs.getObject("date", LocalDate.class),
+                Money.toCents(rs.getBigDecimal("balance")), rs.getString("description"), rs.getLong("version"),
+                wholeCents(rs, "expense_cents"));
+    }
+
+    /**
+     * Selection of the entries' columns and expense_cents, each entry's expense as in
+     * ExpenseCalculator.expenseCents: null without an earlier entry or days to spread
+     * over, otherwise the drop, or 0 for a rise, floored to a daily share
+     */
+    private static String expenseSql(GapPolicy policy) {
+        String spreadDays = spreadDays(policy);
+        String dropCents = "CASE WHEN e.previous_balance > e.balance "
+                + "THEN (e.previous_balance - e.balance) * 100 ELSE 0 END";
+        return "SELECT e.id, e.date, e.balance, e.description, e.version, "
+                + "CASE WHEN e.previous_date IS NULL OR " + spreadDays + " = 0 THEN NULL "
+                + "ELSE (" + dropCents + " - MOD(" + dropCents + ", " + spreadDays + ")) / " + spreadDays
+                + " END AS expense_cents ";
+    }
+
+    /**
+     * Summary of the entries of the range query's range: drop_cents is each entry's expense
+     * and spread_days the days the policy spreads it over, as in ExpenseCalculator
+     */
+    private static String summarySql(GapPolicy policy) {
+        String spreadDays = spreadDays(policy);
+        return "SELECT COUNT(*) AS entry_count, "
+                + "MAX(s.opening_balance) AS opening_balance, MAX(s.closing_balance) AS closing_balance, "
+                + "SUM(s.drop_cents) AS total_expense_cents, "
+                + "SUM(CASE WHEN s.drop_cents IS NULL THEN NULL WHEN s.drop_cents < s.spread_days "
+                + "THEN s.drop_cents ELSE s.spread_days END) AS days_with_expenses, "
+                + "MIN(CASE WHEN s.drop_cents IS NULL THEN NULL WHEN s.drop_cents < s.spread_days THEN 1 "
+                + "ELSE (s.drop_cents - MOD(s.drop_cents, s.spread_days)) / s.spread_days END) AS min_expense_cents, "
+                + "MAX(CASE WHEN s.drop_cents IS NULL THEN NULL "
+                + "ELSE (s.drop_cents - MOD(s.drop_cents, s.spread_days)) / s.spread_days "
+                + "+ CASE WHEN MOD(s.drop_cents, s.spread_days) > 0 THEN 1 ELSE 0 END END) AS max_expense_cents "
+                + "FROM (SELECT r.opening_balance, r.closing_balance, r.spread_days, "
+                + "CASE WHEN r.balance_drop > 0 AND r.spread_days > 0 THEN r.balance_drop * 100 END AS drop_cents "
+                + "FROM (SELECT e.previous_balance - e.balance AS balance_drop, "
+                + spreadDays + " AS spread_days, "
+                + "FIRST_VALUE(e.balance) OVER (ORDER BY e.date "
+                + "ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING) AS opening_balance, "
+                + "LAST_VALUE(e.balance) OVER (ORDER BY e.date "
+                + "ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING) AS closing_balance "
+                + "FROM (" + WINDOWED_RANGE + ") e WHERE e.date >= ?) r) s";
+    }
+
+    // Days the policy spreads an entry's drop over, as GapPolicy.spreadDays
+    private static String spreadDays(GapPolicy policy) {
+        String gapDays = "TIMESTAMPDIFF(DAY, e.previous_date, e.date)";
+        return switch (policy) {
+            case CONSECUTIVE -> "CASE WHEN " + gapDays + " = 1 THEN 1 ELSE 0 END";
+            case CURRENT_DAY -> "1";
+            case SPREAD -> gapDays;
+        };
+    }
+
+    private static Long cents(ResultSet rs, String column) throws SQLException {
+        BigDecimal amount = rs.getBigDecimal(column);
+        return amount != null ? Money.toCents(amount) : null;
+    }
+
+    private static Long wholeCents(ResultSet rs, String column) throws SQLException {
+        BigDecimal amount = rs.getBigDecimal(column);
+        return amount != null ? amount.longValue() : null;
+    }
+}
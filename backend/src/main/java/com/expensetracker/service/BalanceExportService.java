@@ -0,0 +1,113 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.money.Money;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.BalancePoint;
+import com.expensetracker.repository.EntryRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service that streams balance history straight to an output stream
+ *
+ * Rows are read through a database cursor as EntryRow projections and written
+ * one at a time, with each entry's expense computed from the previous row.
+ * Projections are never managed by the persistence context, so memory use
+ * stays constant regardless of how many entries are exported.
+ */
+@Service
+public class BalanceExportService {
+
+    private static final String CSV_HEADER = "date,balance,description,dailyExpense";
+
+    private final BalanceEntryRepository repository;
+    private final ObjectMapper objectMapper;
+    private final GapPolicy gapPolicy;
+
+    @Autowired
+    public BalanceExportService(BalanceEntryRepository repository, ObjectMapper objectMapper,
+                                @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.gapPolicy = gapPolicy;
+    }
+
+    /**
+     * Export an account's entries, optionally limited to a date range (inclusive), in the given format
+     */
+    @Transactional(readOnly = true)
+    public void export(String accountId, LocalDate startDate, LocalDate endDate, ExportFormat format,
+                       OutputStream out) throws IOException {
+        boolean ranged = startDate != null && endDate != null;
+        BalancePoint previous = ranged
+                ? repository.findFirstPointByAccountIdAndDateLessThanOrderByDateDesc(accountId, startDate).orElse(null)
+                : null;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<EntryRow> rows = ranged
+                ? repository.streamRowsBetween(accountId, startDate, endDate)
+                : repository.streamRowsByAccountId(accountId)) {
+            Iterator<EntryRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                EntryRow current = iterator.next();
+                BalancePoint point = new BalancePoint(current.date(), current.balanceCents());
+                Long expense = ExpenseCalculator.calculateExpense(gapPolicy, previous, point);
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, current, expense);
+                } else {
+                    writeNdjson(writer, current, expense);
+                }
+                previous = point;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // Helper methods
+    private void writeNdjson(Writer writer, EntryRow row, Long expense) throws IOException {
+        BalanceEntryDTO dto = new BalanceEntryDTO(row.id(), row.date(), row.balanceCents(), row.description());
+        dto.setVersion(row.version());
+        dto.setDailyExpense(expense);
+        writer.write(objectMapper.writeValueAsString(dto));
+        writer.write('\n');
+    }
+
+    private void writeCsv(Writer writer, EntryRow row, Long expense) throws IOException {
+        writer.write(row.date().toString());
+        writer.write(',');
+        writer.write(Money.format(row.balanceCents()));
+        writer.write(',');
+        if (row.description() != null) {
+            writer.write('"');
+            writer.write(row.description().replace("\"", "\"\""));
+            writer.write('"');
+        }
+        writer.write(',');
+        if (expense != null) {
+            writer.write(Money.format(expense));
+        }
+        writer.write('\n');
+    }
+}
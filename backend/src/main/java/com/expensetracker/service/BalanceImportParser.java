@@ -0,0 +1,127 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.money.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses uploaded balance histories into DTOs for BatchImportService
+ *
+ * CSV rows are date,balance[,description] with an optional header line and
+ * RFC 4180 quoting. NDJSON holds one BalanceEntryDTO JSON object per line.
+ */
+@Component
+public class BalanceImportParser {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BalanceImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parse CSV rows of date,balance[,description]
+     */
+    public List<BalanceEntryDTO> parseCsv(Reader reader) throws IOException {
+        List<BalanceEntryDTO> entries = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line, lineNumber);
+            if (lineNumber == 1 && fields.get(0).trim().equalsIgnoreCase("date")) {
+                continue;
+            }
+            if (fields.size() < 2 || fields.size() > 3) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected date,balance[,description]");
+            }
+
+            BalanceEntryDTO entry = new BalanceEntryDTO();
+            try {
+                entry.setDate(LocalDate.parse(fields.get(0).trim()));
+                entry.setBalance(Money.parse(fields.get(1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+            }
+            if (fields.size() == 3 && !fields.get(2).isEmpty()) {
+                entry.setDescription(fields.get(2));
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Parse one JSON entry per line
+     */
+    public List<BalanceEntryDTO> parseNdjson(Reader reader) throws IOException {
+        List<BalanceEntryDTO> entries = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                entries.add(objectMapper.readValue(line, BalanceEntryDTO.class));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getOriginalMessage());
+            }
+        }
+        return entries;
+    }
+
+    // Helper methods
+    private List<String> splitCsvLine(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,225 +1,859 @@
 package com.expensetracker.service;
 
+import com.expensetracker.cache.CacheKey;
+import com.expensetracker.cache.DateRangeCache;
 import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BalancePageDTO;
 import com.expensetracker.dto.ExpenseSummaryDTO;
 import com.expensetracker.dto.ExpenseSummaryDTO.DailyExpenseDTO;
+import com.expensetracker.dto.MonthlyRollupDTO;
+import com.expensetracker.dto.PeriodSummaryDTO;
+import com.expensetracker.index.AccountTimeline;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.index.IndexedEntry;
+import com.expensetracker.index.RangeSummary;
 import com.expensetracker.model.BalanceEntry;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.money.Money;
 import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.BalancePoint;
+import com.expensetracker.repository.BalanceUpsertRepository;
+import com.expensetracker.repository.DailyBalance;
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.repository.EntryVersion;
+import com.expensetracker.repository.ExpenseRow;
+import com.expensetracker.repository.WindowedExpenseRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service class for balance and expense operations
  * Contains business logic for calculating expenses and managing balance entries
+ *
+ * Every operation is scoped to one account. Reads are answered from the
+ * account's in-memory timeline once it is loaded, and from the database otherwise.
+ * Reads run in read-only transactions and load EntryRow or BalancePoint
+ * projections, so Hibernate keeps no entity snapshots for them; only writes
+ * load entities. In ExpenseMode.DATABASE, reads the index does not answer get
+ * their expenses and summaries computed by the database instead.
  */
 @Service
-@Transactional
+// Writes refresh rollups, whose row locks need READ COMMITTED (see MonthlyRollupService)
+@Transactional(isolation = Isolation.READ_COMMITTED)
 public class BalanceService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // Cache kinds
+    static final String CACHE_ENTRY = "entry";
+    static final String CACHE_EXPENSE = "expense";
+    static final String CACHE_SUMMARY = "summary";
+    static final String CACHE_MONTHLY_SUMMARY = "monthly-summary";
+    static final String CACHE_PERIOD_SUMMARY = "period-summary";
+    static final String CACHE_VERSION = "version";
+
     private final BalanceEntryRepository repository;
+    private final BalanceUpsertRepository upsertRepository;
+    private final BalanceTimelineIndex index;
+    private final MonthlyRollupService rollupService;
+    private final DateRangeCache cache;
+    private final ParallelSummaryAggregator summaryAggregator;
+    private final WriteBehindBuffer writeBuffer;
+    private final EntryRemovals removals;
+    private final WindowedExpenseRepository windowedRepository;
+    private final ExpenseMode expenseMode;
+    private final GapPolicy gapPolicy;
+    private final Validator validator;
 
     @Autowired
-    public BalanceService(BalanceEntryRepository repository) {
+    public BalanceService(BalanceEntryRepository repository, BalanceUpsertRepository upsertRepository,
+                          BalanceTimelineIndex index,
+                          MonthlyRollupService rollupService, DateRangeCache cache,
+                          ParallelSummaryAggregator summaryAggregator, WriteBehindBuffer writeBuffer,
+                          EntryRemovals removals, WindowedExpenseRepository windowedRepository,
+                          @Value("${expense-tracker.expenses.mode:application}") ExpenseMode expenseMode,
+                          @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy,
+                          Validator validator) {
         this.repository = repository;
+        this.upsertRepository = upsertRepository;
+        this.index = index;
+        this.rollupService = rollupService;
+        this.cache = cache;
+        this.summaryAggregator = summaryAggregator;
+        this.writeBuffer = writeBuffer;
+        this.removals = removals;
+        this.windowedRepository = windowedRepository;
+        this.expenseMode = expenseMode;
+        this.gapPolicy = gapPolicy;
+        this.validator = validator;
     }
 
     /**
      * Get all balance entries
      */
-    public List<BalanceEntryDTO> getAllEntries() {
-        return repository.findAllByOrderByDateAsc()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BalanceEntryDTO> getAllEntries(String accountId) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (timeline.isPresent()) {
+            return convertIndexedToDTOs(timeline.get().all());
+        }
+        if (expenseMode == ExpenseMode.DATABASE) {
+            return convertExpenseRowsToDTOs(windowedRepository.findAll(accountId));
+        }
+        return convertToDTOs(accountId, repository.findRowsByAccountIdOrderByDateAsc(accountId));
+    }
+
+    /**
+     * Get one keyset-paginated page of entries, ordered by date in the given direction.
+     * With after (or no cursor) the page continues past the cursor; with before it is
+     * the page that precedes the cursor. Fetches one extra row to detect further pages.
+     */
+    @Transactional(readOnly = true)
+    public BalancePageDTO getEntriesPage(String accountId, String after, String before, int limit,
+                                         boolean ascending) {
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Use either after or before, not both.");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        boolean backward = before != null;
+        LocalDate cursor = decodeCursor(backward ? before : after);
+        List<BalanceEntryDTO> entries = scanEntries(accountId, cursor, ascending != backward, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = new ArrayList<>(entries.subList(0, limit));
+        }
+        if (backward) {
+            // Scanned away from the cursor, which is the opposite of the requested order
+            Collections.reverse(entries);
+        }
+
+        BalancePageDTO page = new BalancePageDTO();
+        page.setEntries(entries);
+        page.setLimit(limit);
+        page.setDirection(ascending ? "asc" : "desc");
+        if (!entries.isEmpty()) {
+            String firstCursor = encodeCursor(entries.get(0).getDate());
+            String lastCursor = encodeCursor(entries.get(entries.size() - 1).getDate());
+            if (backward) {
+                page.setPrevCursor(hasMore ? firstCursor : null);
+                page.setNextCursor(lastCursor);
+            } else {
+                page.setPrevCursor(cursor != null ? firstCursor : null);
+                page.setNextCursor(hasMore ? lastCursor : null);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Version of all of an account's entries, for conditional requests.
+     * Taken from the account's timeline, or the cache, before the database.
+     */
+    @Transactional(readOnly = true)
+    public EntryVersion getVersion(String accountId) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        EntryVersion version = timeline.isPresent()
+                ? timeline.get().version()
+                : cache.get(new CacheKey(accountId, CACHE_VERSION, Integer.MIN_VALUE, Integer.MAX_VALUE, ""),
+                        () -> repository.findVersion(accountId));
+        return version.withLastRemoved(removals.lastRemoved(accountId));
+    }
+
+    /**
+     * Version of the entries a date range's entries and expenses are computed from,
+     * including the nearest entry before the range for the first entry's expense.
+     * Taken from the account's timeline, or the cache, before the database.
+     */
+    @Transactional(readOnly = true)
+    public EntryVersion getVersion(String accountId, LocalDate startDate, LocalDate endDate) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        EntryVersion version = timeline.isPresent()
+                ? timeline.get().version(startDate, endDate)
+                : cache.get(CacheKey.of(accountId, CACHE_VERSION, startDate, endDate, ""),
+                        () -> repository.findVersion(accountId, startDate, endDate));
+        return version.withLastRemoved(removals.lastRemoved(accountId));
     }
 
     /**
      * Get entry by ID
      */
-    public Optional<BalanceEntryDTO> getEntryById(Long id) {
-        return repository.findById(id).map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Optional<BalanceEntryDTO> getEntryById(String accountId, Long id) {
+        return repository.findRowByIdAndAccountId(id, accountId).map(row -> convertToDTO(accountId, row));
     }
 
     /**
      * Get entry by date
      */
-    public Optional<BalanceEntryDTO> getEntryByDate(LocalDate date) {
-        return repository.findByDate(date).map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Optional<BalanceEntryDTO> getEntryByDate(String accountId, LocalDate date) {
+        return cache.get(CacheKey.of(accountId, CACHE_ENTRY, date), () -> loadEntryByDate(accountId, date));
+    }
+
+    private Optional<BalanceEntryDTO> loadEntryByDate(String accountId, LocalDate date) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (timeline.isPresent()) {
+            return timeline.get().get(date).map(this::convertToDTO);
+        }
+        if (expenseMode == ExpenseMode.DATABASE) {
+            return windowedRepository.findRange(accountId, date, date).stream().findFirst().map(this::convertToDTO);
+        }
+        return repository.findRowByAccountIdAndDate(accountId, date).map(row -> convertToDTO(accountId, row));
     }
 
     /**
      * Create a new balance entry
      */
-    public BalanceEntryDTO createEntry(BalanceEntryDTO dto) {
+    public BalanceEntryDTO createEntry(String accountId, BalanceEntryDTO dto) {
         // Check if entry already exists for this date
-        if (repository.existsByDate(dto.getDate())) {
+        if (repository.existsByAccountIdAndDate(accountId, dto.getDate())) {
             throw new IllegalArgumentException("An entry already exists for this date. Use update instead.");
         }
 
         BalanceEntry entry = new BalanceEntry();
+        entry.setAccountId(accountId);
         entry.setDate(dto.getDate());
-        entry.setBalance(dto.getBalance());
+        entry.setBalanceCents(dto.getBalance());
         entry.setDescription(dto.getDescription());
 
         BalanceEntry savedEntry = repository.save(entry);
+        List<LocalDate> affectedDates = rollupService.refresh(accountId, savedEntry.getDate());
+        TransactionCallbacks.afterCommit(() -> {
+            indexEntry(savedEntry);
+            cache.invalidate(accountId, affectedDates);
+        });
         return convertToDTO(savedEntry);
     }
 
     /**
-     * Update an existing balance entry
+     * Create or overwrite the entry for a date with one atomic statement.
+     * With a version in the DTO the entry is only overwritten if it is still at that version.
+     * The returned entry is at version 0 when it was created.
      */
-    public BalanceEntryDTO updateEntry(Long id, BalanceEntryDTO dto) {
-        BalanceEntry entry = repository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
+    public BalanceEntryDTO upsertEntry(String accountId, LocalDate date, BalanceEntryDTO dto) {
+        if (dto.getDate() == null) {
+            dto.setDate(date);
+        } else if (!dto.getDate().equals(date)) {
+            throw new IllegalArgumentException("The entry's date does not match the date in the path.");
+        }
+        validate(dto);
+        if (dto.getVersion() == null) {
+            upsertRepository.upsert(accountId, date, dto.getBalance(), dto.getDescription());
+        } else if (!upsertRepository.updateIfVersion(accountId, date, dto.getBalance(), dto.getDescription(),
+                dto.getVersion())) {
+            throw new OptimisticLockingFailureException("The entry for " + date
+                    + " does not exist at version " + dto.getVersion() + ".");
+        }
+
+        // Read back in the same transaction for the id and version the statement left
+        EntryRow row = repository.findRowByAccountIdAndDate(accountId, date)
+                .orElseThrow(() -> new IllegalStateException("Upserted entry for " + date + " not found"));
+        BalanceEntry stored = new BalanceEntry(accountId, row.date(), row.balanceCents(), row.description());
+        stored.setId(row.id());
+        stored.setVersion(row.version());
+
+        List<LocalDate> affectedDates = rollupService.refresh(accountId, date);
+        TransactionCallbacks.afterCommit(() -> {
+            writeBuffer.discard(accountId, row.id());
+            indexEntry(stored);
+            cache.invalidate(accountId, affectedDates);
+        });
+        return convertToDTO(stored);
+    }
+
+    /**
+     * Update an existing balance entry.
+     * With a version in the DTO the update is rejected unless the entry is still at that version.
+     * With the write-behind buffer enabled, updates without a version that keep the entry's date
+     * are buffered and coalesced instead of written; the returned entry then reflects the
+     * buffered write and has no version.
+     */
+    public BalanceEntryDTO updateEntry(String accountId, Long id, BalanceEntryDTO dto) {
+        if (writeBuffer.isEnabled() && dto.getVersion() == null) {
+            // A pending write proves the entry exists without another lookup
+            Optional<PendingWrite> pending = writeBuffer.enqueue(accountId, id, dto.getDate(), dto.getBalance(),
+                    dto.getDescription(), () -> repository.findRowByIdAndAccountId(id, accountId));
+            if (pending.isPresent()) {
+                BalanceEntry buffered = new BalanceEntry(accountId, dto.getDate(), dto.getBalance(),
+                        dto.getDescription());
+                buffered.setId(id);
+                return convertToDTO(buffered);
+            }
+        }
+
+        BalanceEntry entry = findEntry(accountId, id);
+        if (dto.getVersion() != null && !dto.getVersion().equals(entry.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(BalanceEntry.class, id);
+        }
 
         // If date is changing, check for conflicts
-        if (!entry.getDate().equals(dto.getDate()) && repository.existsByDate(dto.getDate())) {
+        if (!entry.getDate().equals(dto.getDate()) && repository.existsByAccountIdAndDate(accountId, dto.getDate())) {
             throw new IllegalArgumentException("An entry already exists for the new date.");
         }
 
+        LocalDate previousDate = entry.getDate();
         entry.setDate(dto.getDate());
-        entry.setBalance(dto.getBalance());
+        entry.setBalanceCents(dto.getBalance());
         entry.setDescription(dto.getDescription());
 
-        BalanceEntry updatedEntry = repository.save(entry);
+        // Flushed now so the version check runs here and the returned entry carries the new version
+        BalanceEntry updatedEntry = repository.saveAndFlush(entry);
+        List<LocalDate> affectedDates = rollupService.refresh(accountId, previousDate, updatedEntry.getDate());
+        TransactionCallbacks.afterCommit(() -> {
+            if (!previousDate.equals(updatedEntry.getDate())) {
+                removals.removed(accountId);
+            }
+            writeBuffer.discard(accountId, id);
+            index.remove(accountId, previousDate);
+            indexEntry(updatedEntry);
+            cache.invalidate(accountId, affectedDates);
+        });
         return convertToDTO(updatedEntry);
     }
 
     /**
      * Delete an entry by ID
      */
-    public void deleteEntry(Long id) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Entry not found with id: " + id);
+    public void deleteEntry(String accountId, Long id) {
+        BalanceEntry entry = findEntry(accountId, id);
+        repository.delete(entry);
+        List<LocalDate> affectedDates = rollupService.refresh(accountId, entry.getDate());
+        TransactionCallbacks.afterCommit(() -> {
+            removals.removed(accountId);
+            writeBuffer.discard(accountId, id);
+            index.remove(accountId, entry.getDate());
+            cache.invalidate(accountId, affectedDates);
+        });
+    }
+
+    /**
+     * Delete an account's entries between two dates (inclusive) with one statement; returns how many were deleted.
+     * Only the rollups, cached results and index entries touching the deleted dates are updated.
+     */
+    public int deleteEntriesBetween(String accountId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date.");
+        }
+        List<LocalDate> deletedDates = new ArrayList<>(repository.findDatesBetween(accountId, startDate, endDate));
+        if (deletedDates.isEmpty()) {
+            return 0;
         }
-        repository.deleteById(id);
+        Collections.sort(deletedDates);
+        int deleted = repository.deleteByDateBetween(accountId, startDate, endDate);
+
+        List<LocalDate> affectedDates = new ArrayList<>(deletedDates);
+        rollupService.refreshDeleted(accountId, deletedDates.get(0), deletedDates.get(deletedDates.size() - 1))
+                .ifPresent(affectedDates::add);
+        TransactionCallbacks.afterCommit(() -> {
+            removals.removed(accountId);
+            writeBuffer.discardBetween(accountId, startDate, endDate);
+            index.removeRange(accountId, startDate, endDate);
+            cache.invalidate(accountId, affectedDates);
+        });
+        return deleted;
     }
 
     /**
-     * Delete all entries
+     * Delete all entries of an account
      */
-    public void deleteAllEntries() {
-        repository.deleteAll();
+    public void deleteAllEntries(String accountId) {
+        repository.deleteByAccountId(accountId);
+        rollupService.clear(accountId);
+        TransactionCallbacks.afterCommit(() -> {
+            removals.removed(accountId);
+            writeBuffer.discardAll(accountId);
+            index.clear(accountId);
+            cache.clear(accountId);
+        });
     }
 
     /**
      * Get entries for a date range
      */
-    public List<BalanceEntryDTO> getEntriesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return repository.findByDateBetween(startDate, endDate)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BalanceEntryDTO> getEntriesByDateRange(String accountId, LocalDate startDate, LocalDate endDate) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (timeline.isPresent()) {
+            return convertIndexedToDTOs(timeline.get().range(startDate, endDate));
+        }
+        if (expenseMode == ExpenseMode.DATABASE) {
+            return convertExpenseRowsToDTOs(windowedRepository.findRange(accountId, startDate, endDate));
+        }
+        return convertToDTOs(accountId, repository.findRowsBetween(accountId, startDate, endDate));
     }
 
     /**
      * Get entries for a specific month
      */
-    public List<BalanceEntryDTO> getEntriesByMonth(int year, int month) {
-        return repository.findByYearAndMonth(year, month)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BalanceEntryDTO> getEntriesByMonth(String accountId, int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return getEntriesByDateRange(accountId, yearMonth.atDay(1), yearMonth.atEndOfMonth());
     }
 
     /**
-     * Calculate expense summary for a date range
+     * Get entries for a specific quarter (1-4)
      */
-    public ExpenseSummaryDTO getExpenseSummary(LocalDate startDate, LocalDate endDate) {
-        List<BalanceEntry> entries = repository.findByDateBetween(startDate, endDate);
+    @Transactional(readOnly = true)
+    public List<BalanceEntryDTO> getEntriesByQuarter(String accountId, int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("Quarter must be between 1 and 4.");
+        }
+        YearMonth firstMonth = YearMonth.of(year, (quarter - 1) * 3 + 1);
+        return getEntriesByDateRange(accountId, firstMonth.atDay(1), firstMonth.plusMonths(2).atEndOfMonth());
+    }
 
-        ExpenseSummaryDTO summary = new ExpenseSummaryDTO();
-        summary.setStartDate(startDate);
-        summary.setEndDate(endDate);
-        summary.setTotalDays(entries.size());
+    /**
+     * Get entries for a specific year
+     */
+    @Transactional(readOnly = true)
+    public List<BalanceEntryDTO> getEntriesByYear(String accountId, int year) {
+        return getEntriesByDateRange(accountId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
 
-        if (entries.isEmpty()) {
-            summary.setOpeningBalance(0.0);
-            summary.setClosingBalance(0.0);
-            summary.setTotalExpenses(0.0);
-            summary.setAverageDailyExpense(0.0);
-            summary.setDaysWithExpenses(0);
-            summary.setDailyBreakdown(new ArrayList<>());
-            return summary;
-        }
+    /**
+     * Calculate expense summary for a date range
+     */
+    @Transactional(readOnly = true)
+    public ExpenseSummaryDTO getExpenseSummary(String accountId, LocalDate startDate, LocalDate endDate) {
+        return getExpenseSummary(accountId, startDate, endDate, true);
+    }
 
-        // Opening and closing balances
-        summary.setOpeningBalance(entries.get(0).getBalance());
-        summary.setClosingBalance(entries.get(entries.size() - 1).getBalance());
+    /**
+     * Calculate expense summary for a date range, optionally without the daily breakdown.
+     * Summary-only requests are answered from the index's expense tree in logarithmic time,
+     * or without the index by ParallelSummaryAggregator.
+     */
+    @Transactional(readOnly = true)
+    public ExpenseSummaryDTO getExpenseSummary(String accountId, LocalDate startDate, LocalDate endDate,
+                                               boolean includeBreakdown) {
+        CacheKey key = CacheKey.of(accountId, CACHE_SUMMARY, startDate, endDate, String.valueOf(includeBreakdown));
+        return cache.get(key, () -> computeExpenseSummary(accountId, startDate, endDate, includeBreakdown));
+    }
 
-        // Calculate daily expenses
-        List<DailyExpenseDTO> dailyBreakdown = new ArrayList<>();
-        double totalExpenses = 0.0;
-        int daysWithExpenses = 0;
+    /**
+     * Calculate expense summary for a date range on the application task executor.
+     * Long ranges can take a while to load and aggregate, so the request thread is not held.
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<ExpenseSummaryDTO> getExpenseSummaryAsync(String accountId, LocalDate startDate,
+                                                                     LocalDate endDate, boolean includeBreakdown) {
+        return CompletableFuture.completedFuture(getExpenseSummary(accountId, startDate, endDate, includeBreakdown));
+    }
 
-        for (int i = 0; i < entries.size(); i++) {
-            BalanceEntry current = entries.get(i);
-            Double expense = calculateDailyExpense(current.getDate());
-
-            DailyExpenseDTO daily = new DailyExpenseDTO();
-            daily.setDate(current.getDate());
-            daily.setBalance(current.getBalance());
-            daily.setExpense(expense);
-            daily.setDescription(current.getDescription());
-
-            if (expense != null && expense > 0) {
-                totalExpenses += expense;
-                daysWithExpenses++;
+    private ExpenseSummaryDTO computeExpenseSummary(String accountId, LocalDate startDate, LocalDate endDate,
+                                                    boolean includeBreakdown) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (!includeBreakdown && timeline.isPresent()) {
+            Optional<RangeSummary> rangeSummary = timeline.get().summarize(startDate, endDate);
+            if (rangeSummary.isPresent()) {
+                return convertToSummary(startDate, endDate, rangeSummary.get());
+            }
+        }
+        if (!includeBreakdown && timeline.isEmpty()) {
+            if (expenseMode == ExpenseMode.DATABASE) {
+                return convertToSummary(startDate, endDate,
+                        windowedRepository.summarize(accountId, startDate, endDate));
             }
+            // Aggregate dates and balances only; long ranges are split into month chunks in parallel
+            List<BalancePoint> entries = repository.findPointsBetween(accountId, startDate, endDate);
+            BalancePoint previous = entries.isEmpty() ? null : findPrevious(accountId, entries.get(0).date());
+            return convertToSummary(startDate, endDate,
+                    summaryAggregator.summarize(startDate, endDate, previous, entries));
+        }
 
-            dailyBreakdown.add(daily);
+        List<BalanceEntryDTO> entries = getEntriesByDateRange(accountId, startDate, endDate);
+
+        // Totals are aggregated the same way as without the breakdown, so a gap spread
+        // over several days counts each of them
+        List<DailyExpenseDTO> dailyBreakdown = includeBreakdown ? new ArrayList<>(entries.size()) : null;
+        List<BalancePoint> points = new ArrayList<>(entries.size());
+        for (BalanceEntryDTO current : entries) {
+            if (includeBreakdown) {
+                DailyExpenseDTO daily = new DailyExpenseDTO();
+                daily.setDate(current.getDate());
+                daily.setBalance(current.getBalance());
+                daily.setExpense(current.getDailyExpense());
+                daily.setDescription(current.getDescription());
+                dailyBreakdown.add(daily);
+            }
+            points.add(new BalancePoint(current.getDate(), current.getBalance()));
         }
 
-        summary.setTotalExpenses(totalExpenses);
-        summary.setDaysWithExpenses(daysWithExpenses);
-        summary.setAverageDailyExpense(daysWithExpenses > 0 ? totalExpenses / daysWithExpenses : 0.0);
+        DailyBalance previous = null;
+        if (!entries.isEmpty()) {
+            LocalDate firstDate = entries.get(0).getDate();
+            previous = timeline.isPresent()
+                    ? timeline.get().before(firstDate).orElse(null)
+                    : findPrevious(accountId, firstDate);
+        }
+        ExpenseSummaryDTO summary = convertToSummary(startDate, endDate,
+                summaryAggregator.summarize(startDate, endDate, previous, points));
         summary.setDailyBreakdown(dailyBreakdown);
-
         return summary;
     }
 
     /**
      * Calculate monthly summary
      */
-    public ExpenseSummaryDTO getMonthlySummary(int year, int month) {
+    @Transactional(readOnly = true)
+    public ExpenseSummaryDTO getMonthlySummary(String accountId, int year, int month) {
+        return getMonthlySummary(accountId, year, month, true);
+    }
+
+    /**
+     * Calculate monthly summary, optionally without the daily breakdown.
+     * Summary-only requests read the month's stored rollup row.
+     */
+    @Transactional(readOnly = true)
+    public ExpenseSummaryDTO getMonthlySummary(String accountId, int year, int month, boolean includeBreakdown) {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-        return getExpenseSummary(startDate, endDate);
+        if (includeBreakdown) {
+            return getExpenseSummary(accountId, startDate, endDate);
+        }
+        return cache.get(CacheKey.of(accountId, CACHE_MONTHLY_SUMMARY, startDate, endDate, ""),
+                () -> loadMonthlySummary(accountId, year, month, startDate, endDate));
+    }
+
+    /**
+     * Calculate monthly summary on the application task executor
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<ExpenseSummaryDTO> getMonthlySummaryAsync(String accountId, int year, int month,
+                                                                     boolean includeBreakdown) {
+        return CompletableFuture.completedFuture(getMonthlySummary(accountId, year, month, includeBreakdown));
+    }
+
+    private ExpenseSummaryDTO loadMonthlySummary(String accountId, int year, int month, LocalDate startDate,
+                                                 LocalDate endDate) {
+
+        ExpenseSummaryDTO summary = new ExpenseSummaryDTO();
+        summary.setStartDate(startDate);
+        summary.setEndDate(endDate);
+        Optional<MonthlyRollup> rollup = rollupService.getRollup(accountId, year, month);
+        if (rollup.isEmpty()) {
+            summary.setOpeningBalance(0L);
+            summary.setClosingBalance(0L);
+            summary.setTotalExpenses(0L);
+            summary.setAverageDailyExpense(0L);
+            summary.setTotalDays(0);
+            summary.setDaysWithExpenses(0);
+            return summary;
+        }
+
+        MonthlyRollup totals = rollup.get();
+        summary.setOpeningBalance(totals.getOpeningBalanceCents());
+        summary.setClosingBalance(totals.getClosingBalanceCents());
+        summary.setTotalExpenses(totals.getTotalExpenseCents());
+        summary.setTotalDays(totals.getEntryCount());
+        summary.setDaysWithExpenses(totals.getDaysWithExpenses());
+        summary.setAverageDailyExpense(totals.getDaysWithExpenses() > 0
+                ? Money.divide(totals.getTotalExpenseCents(), totals.getDaysWithExpenses()) : 0L);
+        summary.setMinDailyExpense(totals.getMinDailyExpenseCents());
+        summary.setMaxDailyExpense(totals.getMaxDailyExpenseCents());
+        return summary;
+    }
+
+    /**
+     * Get month-by-month totals between two months (inclusive) from the stored rollups
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyRollupDTO> getMonthlyTrend(String accountId, YearMonth startMonth, YearMonth endMonth) {
+        if (startMonth.isAfter(endMonth)) {
+            throw new IllegalArgumentException("Start month must not be after end month.");
+        }
+        return rollupService.getTrend(accountId, startMonth, endMonth);
+    }
+
+    /**
+     * Get per-year totals between two years (inclusive) from the stored monthly rollups
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodSummaryDTO> getYearlySummaries(String accountId, int startYear, int endYear) {
+        if (startYear > endYear) {
+            throw new IllegalArgumentException("Start year must not be after end year.");
+        }
+        YearMonth startMonth = YearMonth.of(startYear, 1);
+        YearMonth endMonth = YearMonth.of(endYear, 12);
+        return cache.get(CacheKey.of(accountId, CACHE_PERIOD_SUMMARY, startMonth.atDay(1), endMonth.atEndOfMonth(),
+                "year"), () -> rollupService.getPeriodSummaries(accountId, startMonth, endMonth, 12));
+    }
+
+    /**
+     * Get per-quarter totals of a year from the stored monthly rollups
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodSummaryDTO> getQuarterlySummaries(String accountId, int year) {
+        YearMonth startMonth = YearMonth.of(year, 1);
+        YearMonth endMonth = YearMonth.of(year, 12);
+        return cache.get(CacheKey.of(accountId, CACHE_PERIOD_SUMMARY, startMonth.atDay(1), endMonth.atEndOfMonth(),
+                "quarter"), () -> rollupService.getPeriodSummaries(accountId, startMonth, endMonth, 3));
+    }
+
+    /**
+     * Rebuild an account's monthly rollups from its balance entries
+     */
+    public int rebuildMonthlyRollups(String accountId) {
+        int months = rollupService.rebuild(accountId);
+        TransactionCallbacks.afterCommit(() -> {
+            cache.invalidateKind(accountId, CACHE_MONTHLY_SUMMARY);
+            cache.invalidateKind(accountId, CACHE_PERIOD_SUMMARY);
+        });
+        return months;
     }
 
     /**
      * Calculate daily expense for a specific date
-     * Expense = Previous day balance - Current day balance
+     * Expense = Previous entry's balance - Current balance, in cents, as the GapPolicy attributes it
      */
-    public Double calculateDailyExpense(LocalDate date) {
-        Optional<BalanceEntry> currentEntry = repository.findByDate(date);
-        Optional<BalanceEntry> previousEntry = repository.findByDate(date.minusDays(1));
+    @Transactional(readOnly = true)
+    public Long calculateDailyExpense(String accountId, LocalDate date) {
+        return cache.get(CacheKey.of(accountId, CACHE_EXPENSE, date), () -> loadDailyExpense(accountId, date));
+    }
+
+    private Long loadDailyExpense(String accountId, LocalDate date) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (timeline.isPresent()) {
+            return timeline.get().expenseOn(date);
+        }
+        if (expenseMode == ExpenseMode.DATABASE) {
+            return windowedRepository.findRange(accountId, date, date).stream().findFirst()
+                    .map(ExpenseRow::expenseCents).orElse(null);
+        }
 
-        if (currentEntry.isEmpty() || previousEntry.isEmpty()) {
+        // The entry on the date and the one before it, in a single seek
+        List<BalancePoint> entries = repository.findFirst2PointsByAccountIdAndDateLessThanEqualOrderByDateDesc(
+                accountId, date);
+        if (entries.isEmpty() || !entries.get(0).date().equals(date)) {
             return null;
         }
+        return ExpenseCalculator.calculateExpense(gapPolicy, entries.size() > 1 ? entries.get(1) : null,
+                entries.get(0));
+    }
+
+    /**
+     * Calculate daily expenses for entries sorted by date ascending.
+     * Only the first entry needs a lookup for the entry before the range.
+     */
+    private long[] calculateExpenses(String accountId, List<EntryRow> entries) {
+        if (entries.isEmpty()) {
+            return new long[0];
+        }
+        return ExpenseCalculator.calculateExpenses(gapPolicy, findPrevious(accountId, entries.get(0).date()),
+                entries);
+    }
+
+    // Nearest entry before a date, in one seek on (account_id, date)
+    private BalancePoint findPrevious(String accountId, LocalDate date) {
+        return repository.findFirstPointByAccountIdAndDateLessThanOrderByDateDesc(accountId, date).orElse(null);
+    }
+
+    private void validate(BalanceEntryDTO dto) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<BalanceEntryDTO> violation : validator.validate(dto)) {
+            errors.add(violation.getMessage());
+        }
+        if (dto.getDescription() != null && dto.getDescription().length() > 500) {
+            errors.add("Description must be at most 500 characters");
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+    }
+
+    private BalanceEntry findEntry(String accountId, Long id) {
+        return repository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
+    }
 
-        double expense = previousEntry.get().getBalance() - currentEntry.get().getBalance();
-        return expense > 0 ? expense : 0.0;
+    private void indexEntry(BalanceEntry entry) {
+        index.put(entry.getAccountId(), entry.getId(), entry.getDate(), entry.getBalanceCents(),
+                entry.getDescription(), entry.getVersion());
     }
 
     /**
      * Convert entity to DTO with calculated expense
      */
     private BalanceEntryDTO convertToDTO(BalanceEntry entry) {
+        // Called after writes too, so only use a timeline that is already loaded. It may not
+        // contain this write yet: an entry moved to a later date can still be found at its old
+        // date, and then the database is asked instead
+        Optional<IndexedEntry> indexed = index.loadedTimeline(entry.getAccountId())
+                .flatMap(timeline -> timeline.before(entry.getDate()));
+        DailyBalance previous = indexed.isPresent() && indexed.get().id() != entry.getId()
+                ? indexed.get()
+                : findPrevious(entry.getAccountId(), entry.getDate());
+        return convertToDTO(entry, ExpenseCalculator.calculateExpense(gapPolicy, previous,
+                new BalancePoint(entry.getDate(), entry.getBalanceCents())));
+    }
+
+    private BalanceEntryDTO convertToDTO(BalanceEntry entry, Long dailyExpense) {
         BalanceEntryDTO dto = new BalanceEntryDTO();
         dto.setId(entry.getId());
         dto.setDate(entry.getDate());
-        dto.setBalance(entry.getBalance());
+        dto.setBalance(entry.getBalanceCents());
         dto.setDescription(entry.getDescription());
-        dto.setDailyExpense(calculateDailyExpense(entry.getDate()));
+        dto.setVersion(entry.getVersion());
+        dto.setDailyExpense(dailyExpense);
+        return dto;
+    }
+
+    /**
+     * Convert a row read outside the index to a DTO, looking up the entry before it for its expense
+     */
+    private BalanceEntryDTO convertToDTO(String accountId, EntryRow row) {
+        return convertToDTO(row, ExpenseCalculator.calculateExpense(gapPolicy,
+                findPrevious(accountId, row.date()), row));
+    }
+
+    private BalanceEntryDTO convertToDTO(EntryRow row, Long dailyExpense) {
+        BalanceEntryDTO dto = new BalanceEntryDTO();
+        dto.setId(row.id());
+        dto.setDate(row.date());
+        dto.setBalance(row.balanceCents());
+        dto.setDescription(row.description());
+        dto.setVersion(row.version());
+        dto.setDailyExpense(dailyExpense);
+        return dto;
+    }
+
+    /**
+     * Up to limit entries strictly after (scanning up) or before (scanning down) a date, in scan order
+     */
+    private List<BalanceEntryDTO> scanEntries(String accountId, LocalDate cursor, boolean up, int limit) {
+        Optional<AccountTimeline> timeline = index.timeline(accountId);
+        if (timeline.isPresent()) {
+            return convertIndexedToDTOs(timeline.get().scan(cursor, up, limit));
+        }
+
+        List<EntryRow> entries;
+        if (up) {
+            entries = cursor == null
+                    ? repository.findRowsByAccountIdOrderByDateAsc(accountId, Limit.of(limit))
+                    : repository.findRowsByAccountIdAndDateGreaterThanOrderByDateAsc(accountId, cursor,
+                            Limit.of(limit));
+            return convertToDTOs(accountId, entries);
+        }
+
+        entries = new ArrayList<>(cursor == null
+                ? repository.findRowsByAccountIdOrderByDateDesc(accountId, Limit.of(limit))
+                : repository.findRowsByAccountIdAndDateLessThanOrderByDateDesc(accountId, cursor, Limit.of(limit)));
+        // Expenses are computed over ascending dates, then the page goes back to scan order
+        Collections.reverse(entries);
+        List<BalanceEntryDTO> dtos = convertToDTOs(accountId, entries);
+        Collections.reverse(dtos);
+        return dtos;
+    }
+
+    private static String encodeCursor(LocalDate date) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(date.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LocalDate decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor.");
+        }
+    }
+
+    private BalanceEntryDTO convertToDTO(IndexedEntry entry) {
+        BalanceEntryDTO dto = new BalanceEntryDTO();
+        dto.setId(entry.id());
+        dto.setDate(entry.date());
+        dto.setBalance(entry.balanceCents());
+        dto.setDescription(entry.description());
+        dto.setVersion(entry.version());
+        dto.setDailyExpense(entry.expenseCents());
+        return dto;
+    }
+
+    /**
+     * Convert rows sorted by date ascending to DTOs with calculated expenses
+     */
+    private List<BalanceEntryDTO> convertToDTOs(String accountId, List<EntryRow> entries) {
+        long[] expenses = calculateExpenses(accountId, entries);
+        List<BalanceEntryDTO> dtos = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            dtos.add(convertToDTO(entries.get(i), ExpenseCalculator.toNullable(expenses[i])));
+        }
+        return dtos;
+    }
+
+    private ExpenseSummaryDTO convertToSummary(LocalDate startDate, LocalDate endDate, RangeSummary rangeSummary) {
+        ExpenseAggregate expenses = rangeSummary.expenses();
+        long totalExpenses = expenses.totalCents();
+        int daysWithExpenses = expenses.daysWithExpenses();
+
+        ExpenseSummaryDTO summary = new ExpenseSummaryDTO();
+        summary.setStartDate(startDate);
+        summary.setEndDate(endDate);
+        summary.setTotalDays(rangeSummary.entryCount());
+        summary.setOpeningBalance(rangeSummary.openingCents() != null ? rangeSummary.openingCents() : 0L);
+        summary.setClosingBalance(rangeSummary.closingCents() != null ? rangeSummary.closingCents() : 0L);
+        summary.setTotalExpenses(totalExpenses);
+        summary.setDaysWithExpenses(daysWithExpenses);
+        summary.setAverageDailyExpense(daysWithExpenses > 0 ? Money.divide(totalExpenses, daysWithExpenses) : 0L);
+        summary.setMinDailyExpense(expenses.minCents());
+        summary.setMaxDailyExpense(expenses.maxCents());
+        return summary;
+    }
+
+    private BalanceEntryDTO convertToDTO(ExpenseRow row) {
+        BalanceEntryDTO dto = new BalanceEntryDTO();
+        dto.setId(row.id());
+        dto.setDate(row.date());
+        dto.setBalance(row.balanceCents());
+        dto.setDescription(row.description());
+        dto.setVersion(row.version());
+        dto.setDailyExpense(row.expenseCents());
         return dto;
     }
+
+    private List<BalanceEntryDTO> convertExpenseRowsToDTOs(List<ExpenseRow> rows) {
+        List<BalanceEntryDTO> dtos = new ArrayList<>(rows.size());
+        for (ExpenseRow row : rows) {
+            dtos.add(convertToDTO(row));
+        }
+        return dtos;
+    }
+
+    private List<BalanceEntryDTO> convertIndexedToDTOs(List<IndexedEntry> entries) {
+        List<BalanceEntryDTO> dtos = new ArrayList<>(entries.size());
+        for (IndexedEntry entry : entries) {
+            dtos.add(convertToDTO(entry));
+        }
+        return dtos;
+    }
 }
@@ -0,0 +1,171 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BatchImportResultDTO;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.money.Money;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service for importing many balance entries in one transaction
+ *
+ * The batch is validated as a whole before anything is written. Rows are then
+ * written with JDBC batch statements, since the IDENTITY id generation on
+ * BalanceEntry prevents Hibernate from batching inserts.
+ */
+@Service
+// Writes refresh rollups, whose row locks need READ COMMITTED (see MonthlyRollupService)
+@Transactional(isolation = Isolation.READ_COMMITTED)
+public class BatchImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO balance_entries (account_id, date, balance, description, created_at, updated_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_SQL =
+            "UPDATE balance_entries SET balance = ?, description = ?, updated_at = ?, version = version + 1 "
+                    + "WHERE account_id = ? AND date = ?";
+
+    private final BalanceEntryRepository repository;
+    private final MonthlyRollupService rollupService;
+    private final BalanceTimelineIndex index;
+    private final DateRangeCache cache;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final int batchSize;
+
+    @Autowired
+    public BatchImportService(BalanceEntryRepository repository,
+                              MonthlyRollupService rollupService,
+                              BalanceTimelineIndex index,
+                              DateRangeCache cache,
+                              JdbcTemplate jdbcTemplate,
+                              Validator validator,
+                              @Value("${expense-tracker.import.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.rollupService = rollupService;
+        this.index = index;
+        this.cache = cache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Validate and write a batch of an account's entries, resolving existing dates with the given policy
+     */
+    public BatchImportResultDTO importEntries(String accountId, List<BalanceEntryDTO> entries, ConflictPolicy policy) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("The batch contains no entries.");
+        }
+        validate(entries);
+
+        LocalDate minDate = entries.get(0).getDate();
+        LocalDate maxDate = minDate;
+        for (BalanceEntryDTO entry : entries) {
+            minDate = entry.getDate().isBefore(minDate) ? entry.getDate() : minDate;
+            maxDate = entry.getDate().isAfter(maxDate) ? entry.getDate() : maxDate;
+        }
+        Set<LocalDate> existingDates = new HashSet<>(repository.findDatesBetween(accountId, minDate, maxDate));
+
+        List<BalanceEntryDTO> inserts = new ArrayList<>();
+        List<BalanceEntryDTO> updates = new ArrayList<>();
+        int skipped = 0;
+        for (BalanceEntryDTO entry : entries) {
+            if (!existingDates.contains(entry.getDate())) {
+                inserts.add(entry);
+            } else if (policy == ConflictPolicy.UPSERT) {
+                updates.add(entry);
+            } else if (policy == ConflictPolicy.SKIP) {
+                skipped++;
+            } else {
+                throw new IllegalArgumentException("An entry already exists for " + entry.getDate() + ".");
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, batchSize, (ps, entry) -> {
+            ps.setString(1, accountId);
+            ps.setDate(2, Date.valueOf(entry.getDate()));
+            ps.setBigDecimal(3, Money.toDecimal(entry.getBalance()));
+            ps.setString(4, entry.getDescription());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, batchSize, (ps, entry) -> {
+            ps.setBigDecimal(1, Money.toDecimal(entry.getBalance()));
+            ps.setString(2, entry.getDescription());
+            ps.setTimestamp(3, now);
+            ps.setString(4, accountId);
+            ps.setDate(5, Date.valueOf(entry.getDate()));
+        });
+
+        List<LocalDate> writtenDates = new ArrayList<>(inserts.size() + updates.size());
+        inserts.forEach(entry -> writtenDates.add(entry.getDate()));
+        updates.forEach(entry -> writtenDates.add(entry.getDate()));
+        if (!writtenDates.isEmpty()) {
+            List<LocalDate> affectedDates = rollupService.refresh(accountId,
+                    writtenDates.toArray(new LocalDate[0]));
+
+            // Read back only the written rows, in chunks, to pick up generated ids and versions for the index
+            List<EntryRow> stored = new ArrayList<>(writtenDates.size());
+            for (int from = 0; from < writtenDates.size(); from += batchSize) {
+                List<LocalDate> chunk = writtenDates.subList(from, Math.min(from + batchSize, writtenDates.size()));
+                stored.addAll(repository.findRowsByAccountIdAndDateInOrderByDateAsc(accountId, chunk));
+            }
+            TransactionCallbacks.afterCommit(() -> {
+                index.putAll(accountId, stored);
+                cache.invalidate(accountId, affectedDates);
+            });
+        }
+
+        return new BatchImportResultDTO(entries.size(), inserts.size(), updates.size(), skipped);
+    }
+
+    // Helper methods
+    private void validate(List<BalanceEntryDTO> entries) {
+        List<String> errors = new ArrayList<>();
+        Set<LocalDate> seenDates = new HashSet<>();
+
+        for (int i = 0; i < entries.size() && errors.size() < MAX_REPORTED_ERRORS; i++) {
+            BalanceEntryDTO entry = entries.get(i);
+            if (entry == null) {
+                errors.add("Row " + (i + 1) + ": entry is empty");
+                continue;
+            }
+            for (ConstraintViolation<BalanceEntryDTO> violation : validator.validate(entry)) {
+                errors.add("Row " + (i + 1) + ": " + violation.getMessage());
+            }
+            if (entry.getDescription() != null && entry.getDescription().length() > 500) {
+                errors.add("Row " + (i + 1) + ": Description must be at most 500 characters");
+            }
+            if (entry.getDate() != null && !seenDates.add(entry.getDate())) {
+                errors.add("Row " + (i + 1) + ": duplicate date " + entry.getDate() + " in batch");
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Batch validation failed: " + String.join("; ", errors));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.expensetracker.service;
+
+/**
+ * How a batch import treats rows whose date already has an entry
+ */
+public enum ConflictPolicy {
+
+    /** Fail the whole batch */
+    REJECT,
+
+    /** Keep the stored entry and ignore the row */
+    SKIP,
+
+    /** Overwrite the stored entry with the row */
+    UPSERT
+}
@@ -0,0 +1,43 @@
+package com.expensetracker.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When an entry was last removed from a date of each account
+ *
+ * Deleting an entry, or moving it to another date, leaves MAX(updated_at) of
+ * the remaining entries where it was, so EntryVersion's Last-Modified would not
+ * move. BalanceService records those removals here after they commit. Like the
+ * index and the cache this is kept in memory; accounts without a removal since
+ * startup report the startup time, so a removal before a restart is never missed.
+ */
+@Component
+class EntryRemovals {
+
+    private final LocalDateTime startedAt = now();
+    private final Map<String, LocalDateTime> lastRemoved = new ConcurrentHashMap<>();
+
+    /**
+     * Record that entries of the account were just removed
+     */
+    void removed(String accountId) {
+        lastRemoved.put(accountId, now());
+    }
+
+    /**
+     * Time of the account's last removal, or the startup time if there was none since
+     */
+    LocalDateTime lastRemoved(String accountId) {
+        return lastRemoved.getOrDefault(accountId, startedAt);
+    }
+
+    // Helper methods
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
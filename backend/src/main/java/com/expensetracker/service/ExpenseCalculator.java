@@ -0,0 +1,114 @@
+package com.expensetracker.service;
+
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.repository.DailyBalance;
+
+import java.util.List;
+
+/**
+ * Expense arithmetic shared by the service layer
+ * Expense = Previous entry's balance - Current balance, never negative,
+ * spread over the days of a gap as the GapPolicy says.
+ * All amounts are in cents.
+ *
+ * When a drop is spread over n days each day gets drop / n, and the
+ * remainder goes one cent at a time to the earliest days of the gap, so the
+ * closing day, whose expense an entry reports, always gets drop / n.
+ */
+public final class ExpenseCalculator {
+
+    /**
+     * Marks a day without an expense in the arrays returned by calculateExpenses
+     */
+    public static final long NO_EXPENSE = -1L;
+
+    private ExpenseCalculator() {
+    }
+
+    /**
+     * Expense between two entries, or null if the policy gives the current one none
+     */
+    public static Long calculateExpense(GapPolicy policy, DailyBalance previous, DailyBalance current) {
+        long expense = expenseCents(policy, previous, current);
+        return expense != NO_EXPENSE ? expense : null;
+    }
+
+    /**
+     * Calculate daily expenses for entries sorted by date ascending.
+     * Each day's expense is taken from the previous element of the list;
+     * previous is the nearest entry before the first one, if any.
+     * Days without an expense hold NO_EXPENSE, so the array needs no boxing.
+     */
+    public static long[] calculateExpenses(GapPolicy policy, DailyBalance previous,
+                                           List<? extends DailyBalance> entries) {
+        long[] expenses = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            DailyBalance current = entries.get(i);
+            expenses[i] = expenseCents(policy, previous, current);
+            previous = current;
+        }
+        return expenses;
+    }
+
+    /**
+     * Expense of the day at currentDay against the entry at previousDay, or NO_EXPENSE
+     */
+    public static long expenseCents(GapPolicy policy, long previousDay, long previousCents,
+                                    long currentDay, long currentCents) {
+        int days = policy.spreadDays(currentDay - previousDay);
+        if (days == 0) {
+            return NO_EXPENSE;
+        }
+        return Math.max(0L, previousCents - currentCents) / days;
+    }
+
+    /**
+     * What an entry adds to a summary: the whole drop since the entry at previousDay,
+     * with the days and daily shares it is spread over. Null when it adds nothing.
+     */
+    public static ExpenseAggregate contribution(GapPolicy policy, long previousDay, long previousCents,
+                                                long currentDay, long currentCents) {
+        long drop = previousCents - currentCents;
+        int days = policy.spreadDays(currentDay - previousDay);
+        if (drop <= 0 || days == 0) {
+            return null;
+        }
+        return new ExpenseAggregate(drop, daysWithShare(drop, days), minShare(drop, days), maxShare(drop, days));
+    }
+
+    /**
+     * Number of days with a positive share when drop cents are spread over days
+     */
+    public static int daysWithShare(long drop, int days) {
+        return (int) Math.min(drop, days);
+    }
+
+    /**
+     * Smallest positive daily share when drop cents are spread over days
+     */
+    public static long minShare(long drop, int days) {
+        return drop >= days ? drop / days : 1L;
+    }
+
+    /**
+     * Largest daily share when drop cents are spread over days
+     */
+    public static long maxShare(long drop, int days) {
+        return (drop + days - 1) / days;
+    }
+
+    /**
+     * Box an element of a calculateExpenses array for a DTO
+     */
+    public static Long toNullable(long expense) {
+        return expense != NO_EXPENSE ? expense : null;
+    }
+
+    private static long expenseCents(GapPolicy policy, DailyBalance previous, DailyBalance current) {
+        if (previous == null) {
+            return NO_EXPENSE;
+        }
+        return expenseCents(policy, previous.date().toEpochDay(), previous.balanceCents(),
+                current.date().toEpochDay(), current.balanceCents());
+    }
+}
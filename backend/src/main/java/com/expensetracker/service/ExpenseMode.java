@@ -0,0 +1,13 @@
+package com.expensetracker.service;
+
+/**
+ * Where BalanceService computes expenses and summaries for reads the timeline index does not answer
+ */
+public enum ExpenseMode {
+
+    /** Load the entries and compute in the application */
+    APPLICATION,
+
+    /** Compute in the database with the window-function queries of WindowedExpenseRepository */
+    DATABASE
+}
@@ -0,0 +1,20 @@
+package com.expensetracker.service;
+
+/**
+ * Line-oriented formats supported by the streaming export
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
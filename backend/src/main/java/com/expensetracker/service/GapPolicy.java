@@ -0,0 +1,40 @@
+package com.expensetracker.service;
+
+/**
+ * How the balance drop across days without an entry becomes an expense
+ *
+ * Every entry's expense is taken against the nearest earlier entry. A drop is
+ * always counted with the entry that closes the gap, so summaries, rollups and
+ * ranges that hold that entry include the whole drop.
+ */
+public enum GapPolicy {
+
+    /** Only against an entry for the day before; an entry after a gap has no expense */
+    CONSECUTIVE {
+        @Override
+        public int spreadDays(long gapDays) {
+            return gapDays == 1 ? 1 : 0;
+        }
+    },
+
+    /** The whole drop is the expense of the day that closes the gap */
+    CURRENT_DAY {
+        @Override
+        public int spreadDays(long gapDays) {
+            return 1;
+        }
+    },
+
+    /** The drop is split evenly over every day of the gap, the closing day included */
+    SPREAD {
+        @Override
+        public int spreadDays(long gapDays) {
+            return (int) Math.min(gapDays, Integer.MAX_VALUE);
+        }
+    };
+
+    /**
+     * Number of days a drop between entries gapDays apart is spread over, 0 when it is no expense
+     */
+    public abstract int spreadDays(long gapDays);
+}
@@ -0,0 +1,344 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.MonthlyRollupDTO;
+import com.expensetracker.dto.PeriodSummaryDTO;
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.money.Money;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.BalancePoint;
+import com.expensetracker.repository.MonthlyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Service maintaining the monthly_rollups table
+ *
+ * A write to day D changes the expense of D and of the next entry after D, so
+ * BalanceService calls refresh with every date it writes and the months holding
+ * both are recomputed inside the same transaction. Rollups are kept per account
+ * and follow the GapPolicy; rebuild them after changing it.
+ *
+ * A month's rollup row is locked before its entries are read, so concurrent
+ * writes to the same month recompute it one after the other and each sees the
+ * entries the previous one committed. That needs READ COMMITTED: under MySQL's
+ * default REPEATABLE READ the second writer would still read the entries as of
+ * its first read and overwrite the rollup with a stale total. The services that
+ * write entries and refresh rollups therefore declare READ COMMITTED on their
+ * transactions; read-only transactions keep the database default.
+ */
+@Service
+@Transactional(isolation = Isolation.READ_COMMITTED)
+public class MonthlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    // An empty rollup to lock when a month has none yet; recompute fills it in or deletes it
+    private static final String INSERT_EMPTY_SQL =
+            "INSERT INTO monthly_rollups (account_id, period, rollup_year, rollup_month, opening_balance, "
+                    + "closing_balance, total_expense, days_with_expenses, entry_count, updated_at) "
+                    + "VALUES (?, ?, ?, ?, 0, 0, 0, 0, 0, ?)";
+
+    private final BalanceEntryRepository entryRepository;
+    private final MonthlyRollupRepository rollupRepository;
+    private final GapPolicy gapPolicy;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MonthlyRollupService(BalanceEntryRepository entryRepository, MonthlyRollupRepository rollupRepository,
+                                @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy,
+                                JdbcTemplate jdbcTemplate) {
+        this.entryRepository = entryRepository;
+        this.rollupRepository = rollupRepository;
+        this.gapPolicy = gapPolicy;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recompute the rollups affected by writes to the given dates.
+     * Returns the dates whose expense the writes changed: the written dates and
+     * the next entry after each, for invalidating anything derived from them.
+     */
+    public List<LocalDate> refresh(String accountId, LocalDate... dates) {
+        Set<LocalDate> written = new TreeSet<>(Arrays.asList(dates));
+        Set<LocalDate> affected = new TreeSet<>(written);
+        for (LocalDate date : written) {
+            // Runs of consecutive written days only need the seek after their last day
+            if (!written.contains(date.plusDays(1))) {
+                entryRepository.findFirstPointByAccountIdAndDateGreaterThanOrderByDateAsc(accountId, date)
+                        .ifPresent(next -> affected.add(next.date()));
+            }
+        }
+
+        Set<YearMonth> months = new TreeSet<>();
+        for (LocalDate date : affected) {
+            months.add(YearMonth.from(date));
+        }
+        months.forEach(month -> recompute(accountId, month));
+        return new ArrayList<>(affected);
+    }
+
+    /**
+     * Update the rollups after a range delete removed every entry from first to last (inclusive).
+     * Months strictly between the two are left without entries and are dropped in one statement;
+     * the months at either end and that of the next remaining entry are recomputed. Returns the
+     * date of that next entry, whose expense the delete changed, if there is one.
+     */
+    public Optional<LocalDate> refreshDeleted(String accountId, LocalDate first, LocalDate last) {
+        YearMonth firstMonth = YearMonth.from(first);
+        YearMonth lastMonth = YearMonth.from(last);
+        if (lastMonth.isAfter(firstMonth.plusMonths(1))) {
+            YearMonth from = firstMonth.plusMonths(1);
+            YearMonth to = lastMonth.minusMonths(1);
+            rollupRepository.deleteByPeriodBetween(accountId,
+                    MonthlyRollup.toPeriod(from.getYear(), from.getMonthValue()),
+                    MonthlyRollup.toPeriod(to.getYear(), to.getMonthValue()));
+        }
+
+        Optional<LocalDate> next = entryRepository
+                .findFirstPointByAccountIdAndDateGreaterThanOrderByDateAsc(accountId, last)
+                .map(BalancePoint::date);
+        Set<YearMonth> months = new TreeSet<>(List.of(firstMonth, lastMonth));
+        next.ifPresent(date -> months.add(YearMonth.from(date)));
+        months.forEach(month -> recompute(accountId, month));
+        return next;
+    }
+
+    /**
+     * Recompute a single month from its balance entries
+     */
+    public void recompute(String accountId, YearMonth month) {
+        MonthlyRollup rollup = lockRollup(accountId, month);
+        List<BalancePoint> entries = entryRepository.findPointsBetween(accountId, month.atDay(1),
+                month.atEndOfMonth());
+
+        if (entries.isEmpty()) {
+            rollupRepository.delete(rollup);
+            return;
+        }
+
+        SummaryChunk chunk = SummaryChunk.of(gapPolicy, entries, 0, entries.size());
+        Optional<BalancePoint> previous = entryRepository.findFirstPointByAccountIdAndDateLessThanOrderByDateDesc(
+                accountId, month.atDay(1));
+        if (previous.isPresent()) {
+            chunk = chunk.withEdge(gapPolicy, previous.get().date().toEpochDay(), previous.get().balanceCents());
+        }
+        applyTotals(rollup, chunk.toRangeSummary());
+        rollupRepository.save(rollup);
+    }
+
+    /**
+     * Rebuild the rollups of every account; returns the number of months stored
+     */
+    public int rebuildAll() {
+        rollupRepository.deleteAllInBulk();
+        int months = 0;
+        for (String accountId : entryRepository.findAccountIds()) {
+            months += storeRollups(accountId);
+        }
+        return months;
+    }
+
+    /**
+     * Rebuild an account's rollups from scratch in one pass over its entries
+     */
+    public int rebuild(String accountId) {
+        rollupRepository.deleteByAccountId(accountId);
+        return storeRollups(accountId);
+    }
+
+    /**
+     * Delete every rollup of an account
+     */
+    public void clear(String accountId) {
+        rollupRepository.deleteByAccountId(accountId);
+    }
+
+    /**
+     * Whether no rollups have been stored yet
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    /**
+     * Get an account's rollup for a month
+     */
+    @Transactional(readOnly = true)
+    public Optional<MonthlyRollup> getRollup(String accountId, int year, int month) {
+        return rollupRepository.findByAccountIdAndPeriod(accountId, MonthlyRollup.toPeriod(year, month));
+    }
+
+    /**
+     * Get an account's rollups between two months (inclusive); months without entries are omitted
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyRollupDTO> getTrend(String accountId, YearMonth startMonth, YearMonth endMonth) {
+        List<MonthlyRollup> rollups = rollupRepository.findByAccountIdAndPeriodBetweenOrderByPeriodAsc(accountId,
+                MonthlyRollup.toPeriod(startMonth.getYear(), startMonth.getMonthValue()),
+                MonthlyRollup.toPeriod(endMonth.getYear(), endMonth.getMonthValue()));
+
+        List<MonthlyRollupDTO> trend = new ArrayList<>(rollups.size());
+        for (MonthlyRollup rollup : rollups) {
+            trend.add(convertToDTO(rollup));
+        }
+        return trend;
+    }
+
+    /**
+     * Get an account's totals per period of monthsPerPeriod months (3 for quarters, 12 for years),
+     * folded from the rollups between two months in a single query. Periods without entries are omitted.
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodSummaryDTO> getPeriodSummaries(String accountId, YearMonth startMonth, YearMonth endMonth,
+                                                     int monthsPerPeriod) {
+        List<MonthlyRollup> rollups = rollupRepository.findByAccountIdAndPeriodBetweenOrderByPeriodAsc(accountId,
+                MonthlyRollup.toPeriod(startMonth.getYear(), startMonth.getMonthValue()),
+                MonthlyRollup.toPeriod(endMonth.getYear(), endMonth.getMonthValue()));
+
+        List<PeriodSummaryDTO> periods = new ArrayList<>();
+        PeriodSummaryDTO current = null;
+        int currentIndex = -1;
+        for (MonthlyRollup rollup : rollups) {
+            // Months since year 0, so every period starts at a multiple of monthsPerPeriod
+            int index = (rollup.getYear() * 12 + rollup.getMonth() - 1) / monthsPerPeriod;
+            if (current == null || index != currentIndex) {
+                current = startPeriod(rollup, monthsPerPeriod);
+                currentIndex = index;
+                periods.add(current);
+            }
+            addMonth(current, rollup);
+        }
+
+        for (PeriodSummaryDTO period : periods) {
+            period.setAverageDailyExpense(period.getDaysWithExpenses() > 0
+                    ? Money.divide(period.getTotalExpenses(), period.getDaysWithExpenses()) : 0L);
+        }
+        return periods;
+    }
+
+    // Helper methods
+    private MonthlyRollup lockRollup(String accountId, YearMonth month) {
+        int period = MonthlyRollup.toPeriod(month.getYear(), month.getMonthValue());
+        Optional<MonthlyRollup> existing = rollupRepository.findForUpdate(accountId, period);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            // Through JDBC, since a failed insert through Hibernate would mark the transaction for rollback
+            jdbcTemplate.update(INSERT_EMPTY_SQL, accountId, period, month.getYear(), month.getMonthValue(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // Another transaction created it first; the lock below waits for it to finish
+        }
+        return rollupRepository.findForUpdate(accountId, period)
+                .orElseThrow(() -> new IllegalStateException("Rollup " + period + " of " + accountId + " not found"));
+    }
+
+    private PeriodSummaryDTO startPeriod(MonthlyRollup rollup, int monthsPerPeriod) {
+        int firstMonth = (rollup.getMonth() - 1) / monthsPerPeriod * monthsPerPeriod + 1;
+        YearMonth start = YearMonth.of(rollup.getYear(), firstMonth);
+
+        PeriodSummaryDTO period = new PeriodSummaryDTO();
+        period.setYear(rollup.getYear());
+        period.setQuarter(monthsPerPeriod == 3 ? (firstMonth - 1) / 3 + 1 : null);
+        period.setStartDate(start.atDay(1));
+        period.setEndDate(start.plusMonths(monthsPerPeriod - 1L).atEndOfMonth());
+        period.setOpeningBalance(rollup.getOpeningBalanceCents());
+        period.setTotalExpenses(0L);
+        period.setTotalDays(0);
+        period.setDaysWithExpenses(0);
+        return period;
+    }
+
+    // Monthly totals already include the expense of each month's first entry, so they add up exactly
+    private void addMonth(PeriodSummaryDTO period, MonthlyRollup rollup) {
+        period.setClosingBalance(rollup.getClosingBalanceCents());
+        period.setTotalExpenses(period.getTotalExpenses() + rollup.getTotalExpenseCents());
+        period.setTotalDays(period.getTotalDays() + rollup.getEntryCount());
+        period.setDaysWithExpenses(period.getDaysWithExpenses() + rollup.getDaysWithExpenses());
+        if (rollup.getMinDailyExpenseCents() != null) {
+            period.setMinDailyExpense(period.getMinDailyExpense() == null ? rollup.getMinDailyExpenseCents()
+                    : Math.min(period.getMinDailyExpense(), rollup.getMinDailyExpenseCents()));
+            period.setMaxDailyExpense(period.getMaxDailyExpense() == null ? rollup.getMaxDailyExpenseCents()
+                    : Math.max(period.getMaxDailyExpense(), rollup.getMaxDailyExpenseCents()));
+        }
+    }
+
+    private int storeRollups(String accountId) {
+        List<BalancePoint> entries = entryRepository.findPointsByAccountIdOrderByDateAsc(accountId);
+        List<MonthlyRollup> rollups = new ArrayList<>();
+
+        int from = 0;
+        while (from < entries.size()) {
+            YearMonth month = YearMonth.from(entries.get(from).date());
+            int to = from;
+            while (to < entries.size() && YearMonth.from(entries.get(to).date()).equals(month)) {
+                to++;
+            }
+
+            SummaryChunk chunk = SummaryChunk.of(gapPolicy, entries, from, to);
+            if (from > 0) {
+                BalancePoint previous = entries.get(from - 1);
+                chunk = chunk.withEdge(gapPolicy, previous.date().toEpochDay(), previous.balanceCents());
+            }
+            MonthlyRollup rollup = new MonthlyRollup(accountId, month.getYear(), month.getMonthValue());
+            applyTotals(rollup, chunk.toRangeSummary());
+            rollups.add(rollup);
+            from = to;
+        }
+
+        rollupRepository.saveAll(rollups);
+        log.info("Rebuilt {} monthly rollups from {} entries of account {}", rollups.size(), entries.size(),
+                accountId);
+        return rollups.size();
+    }
+
+    /**
+     * Apply the summary of a month's entries, which has at least one entry
+     */
+    private void applyTotals(MonthlyRollup rollup, RangeSummary summary) {
+        ExpenseAggregate expenses = summary.expenses();
+        rollup.setOpeningBalanceCents(summary.openingCents());
+        rollup.setClosingBalanceCents(summary.closingCents());
+        rollup.setTotalExpenseCents(expenses.totalCents());
+        rollup.setDaysWithExpenses(expenses.daysWithExpenses());
+        rollup.setMinDailyExpenseCents(expenses.minCents());
+        rollup.setMaxDailyExpenseCents(expenses.maxCents());
+        rollup.setEntryCount(summary.entryCount());
+    }
+
+    private MonthlyRollupDTO convertToDTO(MonthlyRollup rollup) {
+        MonthlyRollupDTO dto = new MonthlyRollupDTO();
+        dto.setYear(rollup.getYear());
+        dto.setMonth(rollup.getMonth());
+        dto.setOpeningBalance(rollup.getOpeningBalanceCents());
+        dto.setClosingBalance(rollup.getClosingBalanceCents());
+        dto.setTotalExpenses(rollup.getTotalExpenseCents());
+        dto.setDaysWithExpenses(rollup.getDaysWithExpenses());
+        dto.setAverageDailyExpense(rollup.getDaysWithExpenses() > 0
+                ? Money.divide(rollup.getTotalExpenseCents(), rollup.getDaysWithExpenses()) : 0L);
+        dto.setTotalDays(rollup.getEntryCount());
+        return dto;
+    }
+}
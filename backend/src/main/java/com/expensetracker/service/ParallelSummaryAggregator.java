@@ -0,0 +1,114 @@
+package com.expensetracker.service;
+
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.repository.DailyBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates the expense summary of a range of entries, splitting ranges of
+ * at least min-days into month-aligned chunks that are summed in parallel on
+ * the common fork-join pool and merged in date order
+ *
+ * Chunks only count expenses between their own entries; the expense of each
+ * chunk's first entry is added when it is merged with the chunk before it.
+ */
+@Component
+public class ParallelSummaryAggregator {
+
+    // Leaves stop splitting at about three years of daily entries
+    static final int LEAF_ENTRIES = 1024;
+
+    private final boolean enabled;
+    private final long minDays;
+    private final GapPolicy gapPolicy;
+
+    @Autowired
+    public ParallelSummaryAggregator(
+            @Value("${expense-tracker.summary.parallel.enabled:true}") boolean enabled,
+            @Value("${expense-tracker.summary.parallel.min-days:730}") long minDays,
+            @Value("${expense-tracker.expenses.gap-policy:current-day}") GapPolicy gapPolicy) {
+        this.enabled = enabled;
+        this.minDays = minDays;
+        this.gapPolicy = gapPolicy;
+    }
+
+    /**
+     * Summarize entries sorted by date ascending; previous is the nearest
+     * entry before the first one, if any
+     */
+    public RangeSummary summarize(LocalDate startDate, LocalDate endDate, DailyBalance previous,
+                                  List<? extends DailyBalance> entries) {
+        SummaryChunk chunk = isParallel(startDate, endDate) && entries.size() > LEAF_ENTRIES
+                ? ForkJoinPool.commonPool().invoke(new ChunkTask(gapPolicy, entries, 0, entries.size()))
+                : SummaryChunk.of(gapPolicy, entries, 0, entries.size());
+        if (previous != null) {
+            chunk = chunk.withEdge(gapPolicy, previous.date().toEpochDay(), previous.balanceCents());
+        }
+        return chunk.toRangeSummary();
+    }
+
+    /**
+     * Whether a range is long enough to be split across threads
+     */
+    public boolean isParallel(LocalDate startDate, LocalDate endDate) {
+        return enabled && ChronoUnit.DAYS.between(startDate, endDate) + 1 >= minDays;
+    }
+
+    /**
+     * Sums entries [from, to), splitting at the month boundary nearest the middle
+     */
+    private static final class ChunkTask extends RecursiveTask<SummaryChunk> {
+
+        private final GapPolicy policy;
+        private final List<? extends DailyBalance> entries;
+        private final int from;
+        private final int to;
+
+        ChunkTask(GapPolicy policy, List<? extends DailyBalance> entries, int from, int to) {
+            this.policy = policy;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SummaryChunk compute() {
+            int split = to - from > LEAF_ENTRIES ? monthSplit() : from;
+            if (split <= from || split >= to) {
+                return SummaryChunk.of(policy, entries, from, to);
+            }
+            ChunkTask right = new ChunkTask(policy, entries, split, to);
+            right.fork();
+            SummaryChunk left = new ChunkTask(policy, entries, from, split).compute();
+            return left.merge(policy, right.join());
+        }
+
+        private int monthSplit() {
+            LocalDate middle = entries.get((from + to) >>> 1).date();
+            int split = firstOnOrAfter(middle.withDayOfMonth(1));
+            return split > from ? split : firstOnOrAfter(middle.withDayOfMonth(1).plusMonths(1));
+        }
+
+        private int firstOnOrAfter(LocalDate date) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).date().isBefore(date)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
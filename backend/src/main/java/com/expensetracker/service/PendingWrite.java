@@ -0,0 +1,14 @@
+package com.expensetracker.service;
+
+import java.time.LocalDate;
+
+/**
+ * A balance correction held by WriteBehindBuffer until it is flushed
+ *
+ * version is the entry's version when its first pending write was accepted;
+ * writes coalesced into it keep that version. The flush only updates a row that
+ * is still at it, so a synchronous write made meanwhile, which bumps the
+ * version, is never overwritten by an older buffered one.
+ */
+record PendingWrite(long id, LocalDate date, long balanceCents, String description, long version) {
+}
@@ -0,0 +1,98 @@
+package com.expensetracker.service;
+
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.repository.DailyBalance;
+
+import java.util.List;
+
+/**
+ * Expense totals of a run of entries sorted by date, in cents
+ *
+ * The first and last entries are kept so that merging two adjacent chunks can
+ * add the expense of the entry that crosses their edge. Merging is associative,
+ * so chunks can be computed in any grouping and combined in date order.
+ * Expenses follow the GapPolicy; daysWithExpenses and the min/max count every
+ * day a drop is spread over.
+ */
+record SummaryChunk(int entryCount, long firstDay, long firstCents, long lastDay, long lastCents,
+                    long totalCents, int daysWithExpenses, long minCents, long maxCents) {
+
+    static final SummaryChunk EMPTY = new SummaryChunk(0, 0, 0, 0, 0, 0, 0, Long.MAX_VALUE, 0);
+
+    /**
+     * Totals of entries [from, to); only expenses between entries inside the run are counted
+     */
+    static SummaryChunk of(GapPolicy policy, List<? extends DailyBalance> entries, int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        long totalCents = 0L;
+        int daysWithExpenses = 0;
+        long minCents = Long.MAX_VALUE;
+        long maxCents = 0L;
+
+        DailyBalance first = entries.get(from);
+        long previousDay = first.date().toEpochDay();
+        long previousCents = first.balanceCents();
+        for (int i = from + 1; i < to; i++) {
+            DailyBalance entry = entries.get(i);
+            long day = entry.date().toEpochDay();
+            long cents = entry.balanceCents();
+            long drop = previousCents - cents;
+            int days = policy.spreadDays(day - previousDay);
+            if (drop > 0 && days > 0) {
+                totalCents += drop;
+                daysWithExpenses += ExpenseCalculator.daysWithShare(drop, days);
+                minCents = Math.min(minCents, ExpenseCalculator.minShare(drop, days));
+                maxCents = Math.max(maxCents, ExpenseCalculator.maxShare(drop, days));
+            }
+            previousDay = day;
+            previousCents = cents;
+        }
+        return new SummaryChunk(to - from, first.date().toEpochDay(), first.balanceCents(), previousDay,
+                previousCents, totalCents, daysWithExpenses, minCents, maxCents);
+    }
+
+    /**
+     * Combine with the chunk that directly follows this one
+     */
+    SummaryChunk merge(GapPolicy policy, SummaryChunk next) {
+        if (entryCount == 0) {
+            return next;
+        }
+        if (next.entryCount == 0) {
+            return this;
+        }
+        SummaryChunk following = next.withEdge(policy, lastDay, lastCents);
+        return new SummaryChunk(entryCount + following.entryCount, firstDay, firstCents,
+                following.lastDay, following.lastCents, totalCents + following.totalCents,
+                daysWithExpenses + following.daysWithExpenses, Math.min(minCents, following.minCents),
+                Math.max(maxCents, following.maxCents));
+    }
+
+    /**
+     * Add the expense of the first entry against the entry before the chunk
+     */
+    SummaryChunk withEdge(GapPolicy policy, long previousDay, long previousCents) {
+        if (entryCount == 0) {
+            return this;
+        }
+        ExpenseAggregate edge = ExpenseCalculator.contribution(policy, previousDay, previousCents, firstDay,
+                firstCents);
+        if (edge == null) {
+            return this;
+        }
+        return new SummaryChunk(entryCount, firstDay, firstCents, lastDay, lastCents,
+                totalCents + edge.totalCents(), daysWithExpenses + edge.daysWithExpenses(),
+                Math.min(minCents, edge.minCents()), Math.max(maxCents, edge.maxCents()));
+    }
+
+    RangeSummary toRangeSummary() {
+        if (entryCount == 0) {
+            return new RangeSummary(0, null, null, new ExpenseAggregate(0L, 0, null, null));
+        }
+        return new RangeSummary(entryCount, firstCents, lastCents, new ExpenseAggregate(totalCents,
+                daysWithExpenses, daysWithExpenses > 0 ? minCents : null, daysWithExpenses > 0 ? maxCents : null));
+    }
+}
@@ -0,0 +1,302 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.index.AccountTimeline;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.repository.EntryRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for same-date balance corrections
+ *
+ * When enabled, BalanceService hands updates that keep an entry's date to this
+ * buffer instead of writing them. Writes are kept per account and coalesced per
+ * entry, so repeated corrections of one date cost a single row update, and are
+ * flushed in one batch by WriteBehindWriter every flush-interval-ms and once an
+ * account holds max-pending writes. Each write is appended to a local
+ * WriteJournal before it is acknowledged and replayed on the next start, so a
+ * crash loses nothing.
+ *
+ * Accepted writes are put into the timeline index straight away, and laid over
+ * a timeline loaded while they are pending, so reads the index answers see them
+ * without a flush. Only reads that go to the database flush the account first
+ * (see WriteBehindInterceptor).
+ */
+@Component
+public class WriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final WriteBehindWriter writer;
+    private final BalanceTimelineIndex index;
+    private final DateRangeCache cache;
+    private final boolean enabled;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+    private final WriteJournal journal;
+    private final Map<String, AccountWrites> accounts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public WriteBehindBuffer(WriteBehindWriter writer, BalanceTimelineIndex index, DateRangeCache cache,
+                             ObjectMapper objectMapper,
+                             @Value("${expense-tracker.write-behind.enabled:false}") boolean enabled,
+                             @Value("${expense-tracker.write-behind.flush-interval-ms:1000}") long flushIntervalMillis,
+                             @Value("${expense-tracker.write-behind.max-pending:500}") int maxPending,
+                             @Value("${expense-tracker.write-behind.journal-dir:data/write-behind}") String journalDir) {
+        this.writer = writer;
+        this.index = index;
+        this.cache = cache;
+        this.enabled = enabled;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPending = maxPending;
+        this.journal = enabled ? new WriteJournal(Path.of(journalDir), objectMapper) : null;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        index.setPendingWrites(this::pendingRows);
+        journal.recover().forEach((accountId, writes) -> {
+            AccountWrites account = accountWrites(accountId);
+            writes.forEach(write -> account.pending.put(write.id(), write));
+            log.info("Recovered {} journaled writes of account {}", account.pending.size(), accountId);
+        });
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Recovered writes are flushed straight away
+        flusher.scheduleWithFixedDelay(this::flushAllQuietly, 0, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushAllQuietly();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept a write to an existing entry that keeps its date, replacing any pending write to it.
+     * Without a pending write the entry is looked up with current, under the account's lock, so
+     * no flush can change its version before the write is queued. Returns the queued write once
+     * it is journaled and in the index, or empty when the entry does not exist or the write would move it.
+     */
+    Optional<PendingWrite> enqueue(String accountId, long id, LocalDate date, long balanceCents,
+                                   String description, Supplier<Optional<EntryRow>> current) {
+        AccountWrites account = accountWrites(accountId);
+        PendingWrite write;
+        int pending;
+        account.lock.lock();
+        try {
+            PendingWrite previous = account.pending.get(id);
+            Optional<EntryRow> entry = previous == null ? current.get() : Optional.empty();
+            LocalDate currentDate = previous != null ? previous.date() : entry.map(EntryRow::date).orElse(null);
+            if (!date.equals(currentDate)) {
+                return Optional.empty();
+            }
+            long version = previous != null ? previous.version() : entry.get().version();
+            write = new PendingWrite(id, date, balanceCents, description, version);
+            journal.append(accountId, write);
+            account.pending.put(id, write);
+            pending = account.pending.size();
+            // Under the lock, so a direct write or delete of the entry, which discards the
+            // pending write first, also replaces or removes it in the index afterwards
+            index.put(accountId, id, date, balanceCents, description, version);
+        } finally {
+            account.lock.unlock();
+        }
+        invalidateCached(accountId, date);
+        if (pending >= maxPending) {
+            flusher.execute(() -> flushQuietly(accountId));
+        }
+        return Optional.of(write);
+    }
+
+    /**
+     * Forget the pending write to an entry that was since written or deleted directly.
+     * A journaled copy replayed later is skipped by WriteBehindWriter, since the row's version moved on or it is gone.
+     */
+    void discard(String accountId, long id) {
+        AccountWrites account = accounts.get(accountId);
+        if (account != null) {
+            account.lock.lock();
+            try {
+                account.pending.remove(id);
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forget the pending writes of an account to entries between two dates (inclusive), which were deleted
+     */
+    void discardBetween(String accountId, LocalDate startDate, LocalDate endDate) {
+        AccountWrites account = accounts.get(accountId);
+        if (account != null) {
+            account.lock.lock();
+            try {
+                account.pending.values().removeIf(write ->
+                        !write.date().isBefore(startDate) && !write.date().isAfter(endDate));
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forget every pending write of an account whose entries were all deleted
+     */
+    void discardAll(String accountId) {
+        AccountWrites account = accounts.get(accountId);
+        if (account != null) {
+            account.lock.lock();
+            try {
+                account.pending.clear();
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write an account's pending writes to the database, waiting for a flush already
+     * in progress. Must be called outside a transaction.
+     */
+    public void flush(String accountId) {
+        AccountWrites account = enabled ? accounts.get(accountId) : null;
+        if (account == null) {
+            return;
+        }
+        account.lock.lock();
+        try {
+            if (account.pending.isEmpty()) {
+                return;
+            }
+            // Held until the batch commits, so writes accepted meanwhile wait and stay in order
+            List<PendingWrite> writes = new ArrayList<>(account.pending.values());
+            int updated = writer.apply(accountId, writes);
+            account.pending.clear();
+            journal.truncate(accountId);
+            log.debug("Flushed {} writes of account {} ({} rows updated)", writes.size(), accountId, updated);
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Write every account's pending writes to the database
+     */
+    public void flushAll() {
+        accounts.keySet().forEach(this::flush);
+    }
+
+    /**
+     * Number of writes waiting to be flushed, across all accounts
+     */
+    public int pendingCount() {
+        return accounts.values().stream().mapToInt(AccountWrites::size).sum();
+    }
+
+    // Helper methods
+    private List<EntryRow> pendingRows(String accountId) {
+        AccountWrites account = accounts.get(accountId);
+        if (account == null) {
+            return List.of();
+        }
+        account.lock.lock();
+        try {
+            return account.pending.values().stream()
+                    .map(write -> new EntryRow(write.id(), write.date(), write.balanceCents(), write.description(),
+                            write.version()))
+                    .toList();
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    private void invalidateCached(String accountId, LocalDate date) {
+        if (!index.isEnabled()) {
+            // Every read flushes first, and the flush invalidates what it wrote
+            return;
+        }
+        Optional<AccountTimeline> timeline = index.loadedTimeline(accountId);
+        if (timeline.isEmpty()) {
+            cache.clear(accountId);
+            return;
+        }
+        // The write changes its own expense and the next entry's
+        List<LocalDate> dates = new ArrayList<>(2);
+        dates.add(date);
+        timeline.get().scan(date, true, 1).forEach(next -> dates.add(next.date()));
+        cache.invalidate(accountId, dates);
+    }
+
+    private AccountWrites accountWrites(String accountId) {
+        return accounts.computeIfAbsent(accountId, id -> new AccountWrites());
+    }
+
+    private void flushQuietly(String accountId) {
+        try {
+            flush(accountId);
+        } catch (RuntimeException e) {
+            // Writes stay pending and journaled, and the next flush retries them
+            log.warn("Flushing pending writes of account {} failed", accountId, e);
+        }
+    }
+
+    private void flushAllQuietly() {
+        accounts.keySet().forEach(this::flushQuietly);
+    }
+
+    /**
+     * One account's pending writes by entry id, in the order they were first accepted
+     */
+    private static final class AccountWrites {
+
+        // A lock rather than a monitor so virtual threads waiting on a flush are not pinned
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, PendingWrite> pending = new LinkedHashMap<>();
+
+        int size() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.money.Money;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a flushed batch of WriteBehindBuffer's pending writes in one transaction
+ *
+ * Rows are updated with one JDBC batch statement, and the affected months'
+ * rollups, the index and the cache are then brought up to date once for the
+ * whole batch instead of once per write.
+ */
+@Service
+// Writes refresh rollups, whose row locks need READ COMMITTED (see MonthlyRollupService)
+@Transactional(isolation = Isolation.READ_COMMITTED)
+class WriteBehindWriter {
+
+    // Rows whose version moved on since the write was accepted already hold a newer value
+    private static final String UPDATE_SQL =
+            "UPDATE balance_entries SET balance = ?, description = ?, updated_at = ?, version = version + 1 "
+                    + "WHERE id = ? AND account_id = ? AND version = ?";
+
+    private final BalanceEntryRepository repository;
+    private final MonthlyRollupService rollupService;
+    private final BalanceTimelineIndex index;
+    private final DateRangeCache cache;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    WriteBehindWriter(BalanceEntryRepository repository, MonthlyRollupService rollupService,
+                      BalanceTimelineIndex index, DateRangeCache cache, JdbcTemplate jdbcTemplate) {
+        this.repository = repository;
+        this.rollupService = rollupService;
+        this.index = index;
+        this.cache = cache;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Apply an account's pending writes, returning how many rows were updated.
+     * Writes to deleted rows, or to rows written directly since the write was accepted, are skipped.
+     */
+    public int apply(String accountId, List<PendingWrite> writes) {
+        Timestamp flushedAt = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, writes, writes.size(), (ps, write) -> {
+            ps.setBigDecimal(1, Money.toDecimal(write.balanceCents()));
+            ps.setString(2, write.description());
+            ps.setTimestamp(3, flushedAt);
+            ps.setLong(4, write.id());
+            ps.setString(5, accountId);
+            ps.setLong(6, write.version());
+        });
+
+        List<Long> ids = new ArrayList<>(writes.size());
+        int next = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers that rewrite batches may not report per-row counts
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    ids.add(writes.get(next).id());
+                }
+                next++;
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<EntryRow> stored = repository.findRowsByAccountIdAndIdInOrderByDateAsc(accountId, ids);
+        List<LocalDate> dates = stored.stream().map(EntryRow::date).toList();
+        List<LocalDate> affectedDates = rollupService.refresh(accountId, dates.toArray(new LocalDate[0]));
+        TransactionCallbacks.afterCommit(() -> {
+            index.putAll(accountId, stored);
+            cache.invalidate(accountId, affectedDates);
+        });
+        return stored.size();
+    }
+}
@@ -0,0 +1,294 @@
+package com.expensetracker.wire;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BalancePageDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO.DailyExpenseDTO;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compact columnar binary encoding of entry lists and expense summaries
+ *
+ * A response starts with the magic bytes "ETC", a version byte (1) and a kind
+ * byte (1 = entry list, 2 = summary, 3 = entry page). Integers are LEB128
+ * varints; signed ones are zigzag encoded, and nullable amounts are written as
+ * zigzag(value) + 1 with 0 meaning null. Amounts are in cents. Nullable
+ * strings are written as their UTF-8 length + 1, 0 meaning null, followed by
+ * the bytes.
+ *
+ * Entry list: count, then the columns date, id, balance, dailyExpense and
+ * description, each holding one value per entry. Dates are epoch days, the
+ * first written in full and the rest as the delta to the previous date; ids
+ * are delta encoded the same way.
+ *
+ * Entry page: the entry list's count and columns, then nextCursor and
+ * prevCursor as nullable strings, limit as a nullable integer and direction
+ * as a nullable string.
+ *
+ * Summary: startDate and endDate (epoch days), the nullable opening, closing,
+ * total, average, min and max amounts, the nullable totalDays and
+ * daysWithExpenses, then a flag byte and, when it is 1, the daily breakdown
+ * as count and the columns date, balance, expense and description.
+ *
+ * Description column: a dictionary of the distinct descriptions (size, then
+ * each as UTF-8 length and bytes) followed by one index per row, 0 meaning
+ * null and i + 1 meaning dictionary entry i. A dictionary size of 0 means no
+ * row has a description and no indices follow. Clients that do not need
+ * descriptions can ask for them to be left out with the media type parameter
+ * descriptions=none.
+ */
+public final class ColumnarFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.expense-tracker.columnar";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final String DESCRIPTIONS_PARAMETER = "descriptions";
+    static final String NO_DESCRIPTIONS = "none";
+
+    private static final byte[] MAGIC = {'E', 'T', 'C'};
+    private static final byte VERSION = 1;
+    private static final byte KIND_ENTRIES = 1;
+    private static final byte KIND_SUMMARY = 2;
+    private static final byte KIND_PAGE = 3;
+
+    private ColumnarFormat() {
+    }
+
+    /**
+     * Suffix that keeps the ETag of a response specific to the representation chosen for
+     * these Accept types: empty for JSON, "c" for this format and "cn" for it without descriptions.
+     * Types are ranked the way content negotiation ranks them, and JSON wins wildcards.
+     */
+    public static String eTagSuffix(List<MediaType> accepted) {
+        List<MediaType> ranked = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(ranked);
+        for (MediaType type : ranked) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.equalsTypeAndSubtype(MEDIA_TYPE)) {
+                return NO_DESCRIPTIONS.equals(type.getParameter(DESCRIPTIONS_PARAMETER)) ? "cn" : "c";
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Encode an entry list into a new byte array
+     */
+    public static byte[] encodeEntries(List<BalanceEntryDTO> entries, boolean descriptions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + entries.size() * 8);
+        try {
+            writeEntries(entries, descriptions, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Write an entry list to a stream
+     */
+    public static void writeEntries(List<BalanceEntryDTO> entries, boolean descriptions, OutputStream stream)
+            throws IOException {
+        VarintOutput out = new VarintOutput(stream);
+        writeHeader(out, KIND_ENTRIES);
+        writeEntryColumns(out, entries, descriptions);
+        out.flush();
+    }
+
+    /**
+     * Write a keyset-paginated page of entries to a stream
+     */
+    public static void writePage(BalancePageDTO page, boolean descriptions, OutputStream stream) throws IOException {
+        VarintOutput out = new VarintOutput(stream);
+        writeHeader(out, KIND_PAGE);
+        writeEntryColumns(out, page.getEntries() != null ? page.getEntries() : List.of(), descriptions);
+        out.writeNullable(page.getNextCursor());
+        out.writeNullable(page.getPrevCursor());
+        out.writeNullable(page.getLimit() != null ? page.getLimit().longValue() : null);
+        out.writeNullable(page.getDirection());
+        out.flush();
+    }
+
+    /**
+     * Write an expense summary to a stream
+     */
+    public static void writeSummary(ExpenseSummaryDTO summary, boolean descriptions, OutputStream stream)
+            throws IOException {
+        VarintOutput out = new VarintOutput(stream);
+        writeHeader(out, KIND_SUMMARY);
+        out.writeSigned(summary.getStartDate().toEpochDay());
+        out.writeSigned(summary.getEndDate().toEpochDay());
+        out.writeNullable(summary.getOpeningBalance());
+        out.writeNullable(summary.getClosingBalance());
+        out.writeNullable(summary.getTotalExpenses());
+        out.writeNullable(summary.getAverageDailyExpense());
+        out.writeNullable(summary.getMinDailyExpense());
+        out.writeNullable(summary.getMaxDailyExpense());
+        out.writeNullable(summary.getTotalDays() != null ? summary.getTotalDays().longValue() : null);
+        out.writeNullable(summary.getDaysWithExpenses() != null ? summary.getDaysWithExpenses().longValue() : null);
+
+        List<DailyExpenseDTO> breakdown = summary.getDailyBreakdown();
+        out.write(breakdown != null ? 1 : 0);
+        if (breakdown != null) {
+            out.writeUnsigned(breakdown.size());
+            long previousDay = 0;
+            for (DailyExpenseDTO day : breakdown) {
+                long epochDay = day.getDate().toEpochDay();
+                out.writeSigned(epochDay - previousDay);
+                previousDay = epochDay;
+            }
+            for (DailyExpenseDTO day : breakdown) {
+                out.writeNullable(day.getBalance());
+            }
+            for (DailyExpenseDTO day : breakdown) {
+                out.writeNullable(day.getExpense());
+            }
+            writeDescriptions(out, breakdown, DailyExpenseDTO::getDescription, descriptions);
+        }
+        out.flush();
+    }
+
+    // Helper methods
+    private static void writeHeader(VarintOutput out, byte kind) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(kind);
+    }
+
+    private static void writeEntryColumns(VarintOutput out, List<BalanceEntryDTO> entries, boolean descriptions)
+            throws IOException {
+        out.writeUnsigned(entries.size());
+
+        long previousDay = 0;
+        for (BalanceEntryDTO entry : entries) {
+            long day = entry.getDate().toEpochDay();
+            out.writeSigned(day - previousDay);
+            previousDay = day;
+        }
+        long previousId = 0;
+        for (BalanceEntryDTO entry : entries) {
+            long id = entry.getId() != null ? entry.getId() : 0;
+            out.writeSigned(id - previousId);
+            previousId = id;
+        }
+        for (BalanceEntryDTO entry : entries) {
+            out.writeNullable(entry.getBalance());
+        }
+        for (BalanceEntryDTO entry : entries) {
+            out.writeNullable(entry.getDailyExpense());
+        }
+        writeDescriptions(out, entries, BalanceEntryDTO::getDescription, descriptions);
+    }
+
+    private static <T> void writeDescriptions(VarintOutput out, List<T> rows, Function<T, String> description,
+                                              boolean include) throws IOException {
+        if (!include) {
+            out.writeUnsigned(0);
+            return;
+        }
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] indices = new int[rows.size()];
+        for (int i = 0; i < indices.length; i++) {
+            String value = description.apply(rows.get(i));
+            indices[i] = value == null ? 0 : dictionary.computeIfAbsent(value, key -> dictionary.size() + 1);
+        }
+
+        out.writeUnsigned(dictionary.size());
+        if (dictionary.isEmpty()) {
+            return;
+        }
+        String[] values = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> values[index - 1] = value);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeUnsigned(bytes.length);
+            out.write(bytes);
+        }
+        for (int index : indices) {
+            out.writeUnsigned(index);
+        }
+    }
+
+    /**
+     * Buffered varint writer over a stream
+     */
+    private static final class VarintOutput {
+
+        private final OutputStream stream;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        VarintOutput(OutputStream stream) {
+            this.stream = stream;
+        }
+
+        void write(int value) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            for (byte value : bytes) {
+                write(value);
+            }
+        }
+
+        void writeUnsigned(long value) throws IOException {
+            if (buffer.length - position < 10) {
+                drain();
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeSigned(long value) throws IOException {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void writeNullable(Long value) throws IOException {
+            writeUnsigned(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+        }
+
+        void writeNullable(String value) throws IOException {
+            if (value == null) {
+                writeUnsigned(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(bytes.length + 1L);
+            write(bytes);
+        }
+
+        void flush() throws IOException {
+            drain();
+            stream.flush();
+        }
+
+        private void drain() throws IOException {
+            stream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.expensetracker.wire;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BalancePageDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes entry lists, entry pages and expense summaries in ColumnarFormat when a client asks for it
+ *
+ * Registered after the JSON converter, so JSON stays the default and this
+ * format is only chosen for an Accept header naming its media type.
+ * Write-only; request bodies are always JSON.
+ */
+public class ColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public ColumnarHttpMessageConverter() {
+        super(ColumnarFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (type == null ? supports(clazz) : isSupportedType(type, clazz));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ExpenseSummaryDTO.class.isAssignableFrom(clazz) || BalancePageDTO.class.isAssignableFrom(clazz)
+                || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        boolean descriptions = contentType == null || !ColumnarFormat.NO_DESCRIPTIONS.equals(
+                contentType.getParameter(ColumnarFormat.DESCRIPTIONS_PARAMETER));
+
+        if (value instanceof ExpenseSummaryDTO summary) {
+            ColumnarFormat.writeSummary(summary, descriptions, outputMessage.getBody());
+            return;
+        }
+        if (value instanceof BalancePageDTO page) {
+            ColumnarFormat.writePage(page, descriptions, outputMessage.getBody());
+            return;
+        }
+        List<?> list = (List<?>) value;
+        for (Object element : list) {
+            // Handlers declared as ResponseEntity<?> hide the element type until now
+            if (!(element instanceof BalanceEntryDTO)) {
+                throw new HttpMessageNotWritableException("Only balance entries can be written as "
+                        + ColumnarFormat.MEDIA_TYPE_VALUE);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<BalanceEntryDTO> entries = (List<BalanceEntryDTO>) list;
+        ColumnarFormat.writeEntries(entries, descriptions, outputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading " + ColumnarFormat.MEDIA_TYPE_VALUE + " is not supported",
+                inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        return readInternal(Object.class, inputMessage);
+    }
+
+    // Helper methods
+    private static boolean isSupportedType(Type type, Class<?> clazz) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        // Handlers declared as ResponseEntity<?> resolve to Object, so the value's class decides
+        if (ExpenseSummaryDTO.class.isAssignableFrom(resolved.toClass())
+                || BalancePageDTO.class.isAssignableFrom(resolved.toClass())
+                || BalancePageDTO.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        if (!List.class.isAssignableFrom(resolved.toClass()) && !List.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        Class<?> element = resolved.asCollection().resolveGeneric(0);
+        return element == null || element == Object.class || BalanceEntryDTO.class.isAssignableFrom(element);
+    }
+}
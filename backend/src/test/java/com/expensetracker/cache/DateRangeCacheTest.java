@@ -0,0 +1,149 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.metrics.MetricsRegistry;
+import com.expensetracker.service.BalanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes and range deletes evict exactly the cached values computed from the dates they change
+ *
+ * Runs without the index, so a value that is still cached answers without a
+ * statement and an evicted one is loaded from the database again.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:date_range_cache_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=false",
+        "expense-tracker.cache.enabled=true",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class DateRangeCacheTest {
+
+    private static final String ACCOUNT_ID = "cached";
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2024, 2, 1);
+    private static final LocalDate MARCH = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private DateRangeCache cache;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        cache.clear();
+        long balance = 100_000;
+        for (LocalDate date = JANUARY; date.isBefore(MARCH.plusMonths(1)); date = date.plusDays(1)) {
+            balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, date, balance, null));
+            balance -= 100;
+        }
+    }
+
+    @Test
+    void invalidateEvictsOnlyRangesHoldingAnAffectedDate() {
+        DateRangeCache rangeCache = new DateRangeCache(true, 100, 300);
+        CacheKey january = CacheKey.of(ACCOUNT_ID, "summary", JANUARY, FEBRUARY.minusDays(1), "");
+        CacheKey february = CacheKey.of(ACCOUNT_ID, "summary", FEBRUARY, MARCH.minusDays(1), "");
+        CacheKey day = CacheKey.of(ACCOUNT_ID, "entry", JANUARY.plusDays(14));
+        CacheKey otherAccount = CacheKey.of("other", "summary", JANUARY, FEBRUARY.minusDays(1), "");
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Integer> loader = loads::incrementAndGet;
+        for (CacheKey key : List.of(january, february, day, otherAccount)) {
+            rangeCache.get(key, loader);
+        }
+
+        rangeCache.invalidate(ACCOUNT_ID, List.of(JANUARY.plusDays(14)));
+
+        loads.set(0);
+        rangeCache.get(february, loader);
+        rangeCache.get(otherAccount, loader);
+        assertThat(loads).as("values of other ranges and accounts stay cached").hasValue(0);
+        rangeCache.get(january, loader);
+        rangeCache.get(day, loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadsRacingAnInvalidationAreNotCached() {
+        DateRangeCache rangeCache = new DateRangeCache(true, 100, 300);
+        CacheKey key = CacheKey.of(ACCOUNT_ID, "entry", JANUARY);
+        AtomicInteger loads = new AtomicInteger();
+
+        rangeCache.get(key, () -> {
+            // A write to the account commits while the value is being computed
+            rangeCache.invalidate(ACCOUNT_ID, List.of(MARCH));
+            return loads.incrementAndGet();
+        });
+        rangeCache.get(key, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void writeEvictsTheRangesOfItsDateAndTheNextEntry() {
+        ExpenseSummaryDTO january = summary(JANUARY);
+        ExpenseSummaryDTO february = summary(FEBRUARY);
+        summary(MARCH);
+
+        // The last entry of January: its own expense and February 1st's change
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT_ID, FEBRUARY.minusDays(1)).orElseThrow();
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                new BalanceEntryDTO(null, entry.getDate(), entry.getBalance() - 5_000, null));
+
+        assertCached(MARCH);
+        assertThat(summary(JANUARY).getTotalExpenses()).isEqualTo(january.getTotalExpenses() + 5_000);
+        assertThat(summary(FEBRUARY).getTotalExpenses()).isEqualTo(february.getTotalExpenses() - 100);
+        assertThat(balanceService.calculateDailyExpense(ACCOUNT_ID, FEBRUARY)).isZero();
+    }
+
+    @Test
+    void rangeDeleteEvictsTheDeletedDatesAndTheNextEntry() {
+        LocalDate deletedFrom = JANUARY.plusDays(9);
+        LocalDate deletedTo = JANUARY.plusDays(19);
+        ExpenseSummaryDTO january = summary(JANUARY);
+        summary(FEBRUARY);
+        assertThat(balanceService.getEntryByDate(ACCOUNT_ID, deletedFrom)).isPresent();
+        assertThat(balanceService.calculateDailyExpense(ACCOUNT_ID, deletedTo.plusDays(1))).isEqualTo(100L);
+
+        balanceService.deleteEntriesBetween(ACCOUNT_ID, deletedFrom, deletedTo);
+
+        assertCached(FEBRUARY);
+        assertThat(balanceService.getEntryByDate(ACCOUNT_ID, deletedFrom)).isEmpty();
+        // The next entry's expense now runs from the last entry before the deleted range
+        assertThat(balanceService.calculateDailyExpense(ACCOUNT_ID, deletedTo.plusDays(1))).isEqualTo(1_200L);
+        ExpenseSummaryDTO afterDelete = summary(JANUARY);
+        assertThat(afterDelete.getTotalDays()).isEqualTo(january.getTotalDays() - 11);
+        assertThat(afterDelete.getTotalExpenses()).isEqualTo(january.getTotalExpenses());
+    }
+
+    // Helper methods
+    private ExpenseSummaryDTO summary(LocalDate month) {
+        return balanceService.getExpenseSummary(ACCOUNT_ID, month, month.plusMonths(1).minusDays(1));
+    }
+
+    private void assertCached(LocalDate month) {
+        long before = metrics.statementCount();
+        summary(month);
+        assertThat(metrics.statementCount() - before).as("statements for the summary of %s", month).isZero();
+    }
+}
@@ -0,0 +1,138 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.metrics.MetricsRegistry;
+import com.expensetracker.service.BalanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs against the index and the cache: answered without SQL once the account is loaded
+ *
+ * Statements are counted at the DataSource by SqlStatementCounter, so the version
+ * the controller checks before the handler runs is counted along with the read.
+ * The summaries are computed asynchronously, so their requests are dispatched
+ * again once the handler's future completes, also when it is answered with 304.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional_get_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=true",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class BalanceControllerConditionalGetTest {
+
+    private static final String ACCOUNT_ID = "conditional";
+    private static final String BASE = "/api/accounts/" + ACCOUNT_ID + "/balances";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        long balance = 100_000;
+        for (int day = 0; day < 60; day++) {
+            balanceService.createEntry(ACCOUNT_ID,
+                    new BalanceEntryDTO(null, FIRST_DATE.plusDays(day), balance, "day " + day));
+            balance -= 250;
+        }
+    }
+
+    @Test
+    void readsOfALoadedAccountIssueNoStatements() throws Exception {
+        String[] uris = {
+                BASE,
+                BASE + "/range?startDate=2024-01-10&endDate=2024-02-10",
+                BASE + "/month?year=2024&month=2",
+        };
+        for (String uri : uris) {
+            // The first read loads the account's timeline
+            String eTag = perform(get(uri), 200).getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(eTag).as(uri).isNotNull();
+
+            long before = metrics.statementCount();
+            perform(get(uri), 200);
+            perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag), 304);
+            assertThat(metrics.statementCount() - before).as("statements for %s", uri).isZero();
+        }
+    }
+
+    @Test
+    void asyncSummariesAnswerMatchingETagsWith304() throws Exception {
+        String[] uris = {
+                BASE + "/summary?startDate=2024-01-10&endDate=2024-02-10",
+                BASE + "/monthly-summary?year=2024&month=2",
+        };
+        for (String uri : uris) {
+            String eTag = performAsync(get(uri), 200).getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(eTag).as(uri).isNotNull();
+
+            long before = metrics.statementCount();
+            MvcResult notModified = performAsync(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag), 304);
+            assertThat(notModified.getResponse().getContentAsString()).as(uri).isEmpty();
+            assertThat(notModified.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+            assertThat(metrics.statementCount() - before).as("statements for %s", uri).isZero();
+
+            performAsync(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""), 200);
+        }
+    }
+
+    @Test
+    void writesChangeTheETagOfTheRangesTheyTouch() throws Exception {
+        String range = BASE + "/range?startDate=2024-01-10&endDate=2024-01-20";
+        String otherRange = BASE + "/range?startDate=2024-02-10&endDate=2024-02-20";
+        String eTag = perform(get(range), 200).getResponse().getHeader(HttpHeaders.ETAG);
+        String otherETag = perform(get(otherRange), 200).getResponse().getHeader(HttpHeaders.ETAG);
+
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT_ID, LocalDate.of(2024, 1, 15)).orElseThrow();
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                new BalanceEntryDTO(null, entry.getDate(), entry.getBalance() - 1, entry.getDescription()));
+
+        MvcResult changed = perform(get(range).header(HttpHeaders.IF_NONE_MATCH, eTag), 200);
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+        perform(get(otherRange).header(HttpHeaders.IF_NONE_MATCH, otherETag), 304);
+
+        // Deleting the entry before the range changes the entry its first expense is taken against
+        BalanceEntryDTO before = balanceService.getEntryByDate(ACCOUNT_ID, LocalDate.of(2024, 2, 9)).orElseThrow();
+        balanceService.deleteEntry(ACCOUNT_ID, before.getId());
+        perform(get(otherRange).header(HttpHeaders.IF_NONE_MATCH, otherETag), 200);
+    }
+
+    // Helper methods
+    private MvcResult perform(RequestBuilder request, int expectedStatus) throws Exception {
+        return mockMvc.perform(request).andExpect(status().is(expectedStatus)).andReturn();
+    }
+
+    private MvcResult performAsync(RequestBuilder builder, int expectedStatus) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return perform(asyncDispatch(started), expectedStatus);
+    }
+}
@@ -0,0 +1,139 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.metrics.MetricsRegistry;
+import com.expensetracker.service.BalanceService;
+import com.expensetracker.service.WriteBehindBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Buffered writes are read from the timeline index without a flush; reads of the database flush first
+ *
+ * The flush interval is long enough that only the interceptor and the tests
+ * flush the buffer.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write_behind_interceptor_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.write-behind.enabled=true",
+        "expense-tracker.write-behind.flush-interval-ms=3600000",
+        "expense-tracker.write-behind.journal-dir=target/write-behind-interceptor-test",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=true",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class WriteBehindInterceptorTest {
+
+    private static final String ACCOUNT_ID = "buffered";
+    private static final String BASE = "/api/accounts/" + ACCOUNT_ID + "/balances";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DATE = FIRST_DATE.plusDays(4);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private WriteBehindBuffer writeBuffer;
+
+    @Autowired
+    private BalanceTimelineIndex index;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        for (int day = 0; day < 10; day++) {
+            balanceService.createEntry(ACCOUNT_ID,
+                    new BalanceEntryDTO(null, FIRST_DATE.plusDays(day), 10_000L - day * 100L, "day " + day));
+        }
+    }
+
+    @AfterEach
+    void flushBuffer() {
+        writeBuffer.flushAll();
+    }
+
+    @Test
+    void timelineReadsSeeBufferedWritesWithoutFlushing() throws Exception {
+        String range = BASE + "/range?startDate=2024-03-01&endDate=2024-03-10";
+        mockMvc.perform(get(range)).andExpect(status().isOk());
+        bufferUpdate(9_000L);
+
+        long before = metrics.statementCount();
+        mockMvc.perform(get(range))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[4].balance").value(90.00))
+                .andExpect(jsonPath("$[5].dailyExpense").value(0.00));
+        mockMvc.perform(get(BASE + "/date/" + DATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(90.00));
+        performAsync(get(BASE + "/summary?startDate=2024-03-01&endDate=2024-03-10&includeBreakdown=false"))
+                .andExpect(jsonPath("$.maxDailyExpense").value(7.00));
+
+        assertThat(metrics.statementCount() - before).as("statements for the timeline reads").isZero();
+        assertThat(writeBuffer.pendingCount()).isOne();
+    }
+
+    @Test
+    void timelinesLoadedWhileWritesArePendingIncludeThem() throws Exception {
+        bufferUpdate(9_000L);
+        index.load(ACCOUNT_ID);
+
+        mockMvc.perform(get(BASE + "/date/" + DATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(90.00));
+        assertThat(writeBuffer.pendingCount()).isOne();
+    }
+
+    @Test
+    void rollupReadsFlushFirst() throws Exception {
+        mockMvc.perform(get(BASE + "/range?startDate=2024-03-01&endDate=2024-03-10")).andExpect(status().isOk());
+        bufferUpdate(9_000L);
+
+        performAsync(get(BASE + "/monthly-summary?year=2024&month=3&includeBreakdown=false"))
+                .andExpect(jsonPath("$.maxDailyExpense").value(7.00));
+        assertThat(writeBuffer.pendingCount()).isZero();
+    }
+
+    // Helper methods
+    private ResultActions performAsync(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    private void bufferUpdate(long balanceCents) {
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT_ID, DATE).orElseThrow();
+        BalanceEntryDTO buffered = balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                new BalanceEntryDTO(null, DATE, balanceCents, entry.getDescription()));
+        assertThat(buffered.getVersion()).as("buffered writes have no version").isNull();
+        assertThat(writeBuffer.pendingCount()).isOne();
+    }
+}
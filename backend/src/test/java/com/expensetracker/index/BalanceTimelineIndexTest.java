@@ -0,0 +1,189 @@
+package com.expensetracker.index;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.repository.BalanceEntryRepository;
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.service.BalanceService;
+import com.expensetracker.service.ExpenseCalculator;
+import com.expensetracker.service.GapPolicy;
+import com.expensetracker.service.ParallelSummaryAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads answered by the timeline index match what the database path computes, after any mix of writes
+ *
+ * The timeline is loaded before the writes, so it is maintained incrementally
+ * by the services. Expected results are computed from the rows in the table
+ * the way BalanceService does without the index. The cache is disabled so
+ * every read reaches the timeline.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timeline_index_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=false",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceTimelineIndexTest {
+
+    private static final String ACCOUNT_ID = "timeline";
+    private static final String OTHER_ACCOUNT_ID = "timeline-other";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2023, 1, 1);
+    private static final int ENTRIES = 150;
+    private static final int WRITES = 80;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BalanceTimelineIndex index;
+
+    @Autowired
+    private BalanceEntryRepository repository;
+
+    @Autowired
+    private ParallelSummaryAggregator summaryAggregator;
+
+    @Value("${expense-tracker.expenses.gap-policy:current-day}")
+    private GapPolicy gapPolicy;
+
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        balanceService.deleteAllEntries(OTHER_ACCOUNT_ID);
+        LocalDate date = FIRST_DATE;
+        long balance = 500_000;
+        for (int i = 0; i < ENTRIES; i++) {
+            balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, date, balance, "entry " + i));
+            // Gaps of up to four days, and now and then a deposit
+            date = date.plusDays(1 + random.nextInt(4));
+            balance += random.nextInt(10) == 0 ? 20_000 : -random.nextInt(3_000);
+        }
+    }
+
+    @Test
+    void timelineMatchesTheDatabaseAfterWrites() {
+        // Loads the timeline, so the writes below maintain it
+        balanceService.getAllEntries(ACCOUNT_ID);
+        assertThat(index.loadedTimeline(ACCOUNT_ID)).isPresent();
+
+        for (int i = 0; i < WRITES; i++) {
+            randomWrite();
+            if (i % 10 == 9) {
+                assertMatchesDatabase();
+            }
+        }
+
+        // A timeline loaded from scratch agrees with the maintained one
+        List<IndexedEntry> maintained = index.loadedTimeline(ACCOUNT_ID).orElseThrow().all();
+        index.load(ACCOUNT_ID);
+        assertThat(index.loadedTimeline(ACCOUNT_ID).orElseThrow().all()).isEqualTo(maintained);
+        assertMatchesDatabase();
+    }
+
+    @Test
+    void loadAllLoadsExistingAccountsUpToMaxAccounts() {
+        balanceService.createEntry(OTHER_ACCOUNT_ID, new BalanceEntryDTO(null, FIRST_DATE, 1_000L, null));
+
+        BalanceTimelineIndex fresh = new BalanceTimelineIndex(repository, true, 1000, gapPolicy);
+        assertThat(fresh.loadAll()).isEqualTo(2);
+        assertThat(fresh.loadedTimeline(ACCOUNT_ID)).get().extracting(AccountTimeline::size).isEqualTo(ENTRIES);
+        assertThat(fresh.loadedTimeline(OTHER_ACCOUNT_ID)).get().extracting(AccountTimeline::size).isEqualTo(1);
+
+        BalanceTimelineIndex small = new BalanceTimelineIndex(repository, true, 1, gapPolicy);
+        assertThat(small.loadAll()).isEqualTo(1);
+        assertThat(small.accountCount()).isEqualTo(1);
+        assertThat(new BalanceTimelineIndex(repository, false, 1000, gapPolicy).loadAll()).isZero();
+    }
+
+    // Helper methods
+    private void randomWrite() {
+        List<BalanceEntryDTO> entries = balanceService.getAllEntries(ACCOUNT_ID);
+        BalanceEntryDTO entry = entries.get(random.nextInt(entries.size()));
+        LocalDate freeDate = freeDate(entries);
+        long balance = 400_000 + random.nextInt(100_000);
+        switch (random.nextInt(6)) {
+            case 0 -> balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                    new BalanceEntryDTO(null, entry.getDate(), balance, "updated"));
+            case 1 -> balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                    new BalanceEntryDTO(null, freeDate, balance, "moved"));
+            case 2 -> balanceService.deleteEntry(ACCOUNT_ID, entry.getId());
+            case 3 -> balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, freeDate, balance, "created"));
+            case 4 -> balanceService.upsertEntry(ACCOUNT_ID, entry.getDate(),
+                    new BalanceEntryDTO(null, entry.getDate(), balance, "upserted"));
+            default -> balanceService.deleteEntriesBetween(ACCOUNT_ID, entry.getDate(),
+                    entry.getDate().plusDays(random.nextInt(8)));
+        }
+    }
+
+    private LocalDate freeDate(List<BalanceEntryDTO> entries) {
+        int days = (int) (entries.get(entries.size() - 1).getDate().toEpochDay() - FIRST_DATE.toEpochDay()) + 30;
+        while (true) {
+            LocalDate date = FIRST_DATE.plusDays(random.nextInt(days));
+            if (entries.stream().noneMatch(entry -> entry.getDate().equals(date))) {
+                return date;
+            }
+        }
+    }
+
+    private void assertMatchesDatabase() {
+        List<EntryRow> rows = repository.findRowsByAccountIdOrderByDateAsc(ACCOUNT_ID);
+        assertThat(balanceService.getAllEntries(ACCOUNT_ID)).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(expectedEntries(rows, null));
+
+        LocalDate last = rows.get(rows.size() - 1).date();
+        for (int i = 0; i < 5; i++) {
+            LocalDate start = FIRST_DATE.plusDays(random.nextInt((int) (last.toEpochDay() - FIRST_DATE.toEpochDay())));
+            LocalDate end = start.plusDays(random.nextInt(120));
+            List<EntryRow> inRange = rows.stream()
+                    .filter(row -> !row.date().isBefore(start) && !row.date().isAfter(end))
+                    .toList();
+            EntryRow previous = rows.stream().filter(row -> row.date().isBefore(start))
+                    .reduce((first, second) -> second).orElse(null);
+
+            assertThat(balanceService.getEntriesByDateRange(ACCOUNT_ID, start, end))
+                    .as("entries from %s to %s", start, end)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(expectedEntries(inRange, previous));
+
+            RangeSummary expected = summaryAggregator.summarize(start, end, previous, inRange);
+            ExpenseSummaryDTO summary = balanceService.getExpenseSummary(ACCOUNT_ID, start, end, false);
+            assertThat(summary.getTotalDays()).isEqualTo(expected.entryCount());
+            assertThat(summary.getTotalExpenses()).as("total from %s to %s", start, end)
+                    .isEqualTo(expected.expenses().totalCents());
+            assertThat(summary.getDaysWithExpenses()).isEqualTo(expected.expenses().daysWithExpenses());
+            assertThat(summary.getMinDailyExpense()).isEqualTo(expected.expenses().minCents());
+            assertThat(summary.getMaxDailyExpense()).isEqualTo(expected.expenses().maxCents());
+        }
+    }
+
+    private List<BalanceEntryDTO> expectedEntries(List<EntryRow> rows, EntryRow previous) {
+        long[] expenses = ExpenseCalculator.calculateExpenses(gapPolicy, previous, rows);
+        List<BalanceEntryDTO> expected = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            EntryRow row = rows.get(i);
+            BalanceEntryDTO dto = new BalanceEntryDTO(row.id(), row.date(), row.balanceCents(), row.description());
+            dto.setVersion(row.version());
+            dto.setDailyExpense(ExpenseCalculator.toNullable(expenses[i]));
+            expected.add(dto);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,173 @@
+package com.expensetracker.index;
+
+import com.expensetracker.repository.EntryRow;
+import com.expensetracker.service.ExpenseCalculator;
+import com.expensetracker.service.GapPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Range sums of the expense tree match a walk over the entries, up to the widest span it covers
+ *
+ * A timeline leaves 31 days of room before its first entry and 366 after its
+ * last, so it keeps a tree while its entries span at most MAX_SPAN_DAYS - 398
+ * days and falls back to walking entries beyond that.
+ */
+class ExpenseTreeTest {
+
+    private static final int FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int WIDEST_ENTRY_SPAN = ExpenseTree.MAX_SPAN_DAYS - 398;
+    private static final GapPolicy POLICY = GapPolicy.SPREAD;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void treeOfTheWidestSpanCoversExactlyItsDays() {
+        ExpenseTree tree = new ExpenseTree(FIRST_DAY, FIRST_DAY + ExpenseTree.MAX_SPAN_DAYS - 1);
+
+        assertThat(tree.covers(FIRST_DAY)).isTrue();
+        assertThat(tree.covers(FIRST_DAY + ExpenseTree.MAX_SPAN_DAYS - 1)).isTrue();
+        assertThat(tree.covers(FIRST_DAY - 1)).isFalse();
+        assertThat(tree.covers(FIRST_DAY + ExpenseTree.MAX_SPAN_DAYS)).isFalse();
+    }
+
+    @Test
+    void sumsAtTheEdgesOfTheWidestSpanMatchAWalk() {
+        int lastDay = FIRST_DAY + ExpenseTree.MAX_SPAN_DAYS - 1;
+        ExpenseTree tree = new ExpenseTree(FIRST_DAY, lastDay);
+        long[] leaves = new long[ExpenseTree.MAX_SPAN_DAYS];
+        int[] setDays = {FIRST_DAY, FIRST_DAY + 1, lastDay - 1, lastDay, FIRST_DAY + ExpenseTree.MAX_SPAN_DAYS / 2};
+        for (int day : setDays) {
+            long cents = 1 + random.nextInt(10_000);
+            tree.set(day, new ExpenseAggregate(cents, 1, cents, cents));
+            leaves[day - FIRST_DAY] = cents;
+        }
+
+        assertThat(tree.query(FIRST_DAY, lastDay).totalCents()).isEqualTo(sum(leaves, 0, leaves.length - 1));
+        assertThat(tree.query(lastDay, lastDay).totalCents()).isEqualTo(leaves[leaves.length - 1]);
+        assertThat(tree.query(FIRST_DAY, FIRST_DAY).totalCents()).isEqualTo(leaves[0]);
+        // Bounds outside the tree are clipped to it
+        assertThat(tree.query(FIRST_DAY - 100, lastDay + 100).totalCents())
+                .isEqualTo(sum(leaves, 0, leaves.length - 1));
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(leaves.length);
+            int to = from + random.nextInt(leaves.length - from);
+            assertThat(tree.query(FIRST_DAY + from, FIRST_DAY + to).totalCents())
+                    .as("days %d to %d", from, to).isEqualTo(sum(leaves, from, to));
+        }
+
+        // Clearing a leaf takes it out of every range
+        tree.set(lastDay, null);
+        assertThat(tree.query(lastDay - 1, lastDay).totalCents()).isEqualTo(leaves[leaves.length - 2]);
+    }
+
+    @Test
+    void timelineAtTheWidestEntrySpanSummarizesFromItsTree() {
+        AccountTimeline timeline = loadedTimeline(entries(WIDEST_ENTRY_SPAN));
+
+        for (int[] range : edgeRanges(WIDEST_ENTRY_SPAN)) {
+            LocalDate start = LocalDate.ofEpochDay(range[0]);
+            LocalDate end = LocalDate.ofEpochDay(range[1]);
+            RangeSummary summary = timeline.summarize(start, end).orElseThrow();
+            assertThat(summary.expenses()).as("%s to %s", start, end).isEqualTo(walk(timeline.all(), start, end));
+        }
+    }
+
+    @Test
+    void timelineBeyondTheWidestEntrySpanHasNoTree() {
+        assertThat(loadedTimeline(entries(WIDEST_ENTRY_SPAN + 1)).summarize(
+                LocalDate.ofEpochDay(FIRST_DAY), LocalDate.ofEpochDay(FIRST_DAY + 10))).isEmpty();
+
+        // Writes into the room the tree leaves keep it; one past the last day it covers drops it
+        AccountTimeline timeline = loadedTimeline(entries(WIDEST_ENTRY_SPAN));
+        int lastCoveredDay = FIRST_DAY - 31 + ExpenseTree.MAX_SPAN_DAYS - 1;
+        LocalDate start = LocalDate.ofEpochDay(FIRST_DAY);
+        LocalDate end = LocalDate.ofEpochDay(lastCoveredDay);
+        timeline.put(Long.MAX_VALUE - 1, end, 0L, "last covered day", 0L);
+        assertThat(timeline.summarize(start, end).orElseThrow().expenses())
+                .isEqualTo(walk(timeline.all(), start, end));
+
+        timeline.put(Long.MAX_VALUE, end.plusDays(1), 0L, "past the tree", 0L);
+        assertThat(timeline.summarize(start, end)).isEmpty();
+    }
+
+    // Helper methods
+    private List<EntryRow> entries(int span) {
+        // Dense at both ends, with a few entries and gaps in between
+        List<Integer> days = new ArrayList<>();
+        for (int day = 0; day < 40; day++) {
+            days.add(FIRST_DAY + day);
+        }
+        for (int day = 1_000; day < span - 40; day += 997 + random.nextInt(1_000)) {
+            days.add(FIRST_DAY + day);
+        }
+        for (int day = span - 40; day <= span; day++) {
+            days.add(FIRST_DAY + day);
+        }
+
+        List<EntryRow> rows = new ArrayList<>(days.size());
+        long balance = 10_000_000;
+        for (int i = 0; i < days.size(); i++) {
+            rows.add(new EntryRow(i + 1, LocalDate.ofEpochDay(days.get(i)), balance, null, 0));
+            balance += random.nextInt(8) == 0 ? 5_000 : -random.nextInt(2_000);
+        }
+        return rows;
+    }
+
+    private int[][] edgeRanges(int span) {
+        int lastDay = FIRST_DAY + span;
+        return new int[][] {
+                {FIRST_DAY, lastDay},
+                {FIRST_DAY, FIRST_DAY},
+                {lastDay, lastDay},
+                {FIRST_DAY - 31, FIRST_DAY + 20},
+                {lastDay - 20, lastDay + 366},
+                {FIRST_DAY + 5, lastDay - 5},
+                {FIRST_DAY + span / 3, FIRST_DAY + 2 * span / 3},
+        };
+    }
+
+    private static AccountTimeline loadedTimeline(List<EntryRow> rows) {
+        AccountTimeline timeline = new AccountTimeline("tree-test", POLICY);
+        timeline.load(() -> rows);
+        return timeline;
+    }
+
+    // What a summary walking the entries adds up: each entry's whole drop since the one before it
+    private static ExpenseAggregate walk(List<IndexedEntry> entries, LocalDate start, LocalDate end) {
+        long total = 0;
+        int days = 0;
+        Long min = null;
+        Long max = null;
+        for (int i = 1; i < entries.size(); i++) {
+            IndexedEntry current = entries.get(i);
+            if (current.date().isBefore(start) || current.date().isAfter(end)) {
+                continue;
+            }
+            IndexedEntry previous = entries.get(i - 1);
+            ExpenseAggregate contribution = ExpenseCalculator.contribution(POLICY, previous.date().toEpochDay(),
+                    previous.balanceCents(), current.date().toEpochDay(), current.balanceCents());
+            if (contribution != null) {
+                total += contribution.totalCents();
+                days += contribution.daysWithExpenses();
+                min = min == null ? contribution.minCents() : Math.min(min, contribution.minCents());
+                max = max == null ? contribution.maxCents() : Math.max(max, contribution.maxCents());
+            }
+        }
+        return new ExpenseAggregate(total, days, min, max);
+    }
+
+    private static long sum(long[] leaves, int from, int to) {
+        long total = 0;
+        for (int i = from; i <= to; i++) {
+            total += leaves[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,110 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.service.BalanceService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the month, quarter and year lookups are served by the (account_id, date) index
+ *
+ * Calls the lookups through BalanceService with the index and the cache
+ * disabled, so they reach the range query the database path runs. Records
+ * the SQL Hibernate generates for it and runs EXPLAIN on it in H2, so the
+ * plan follows the queries as they are written.
+ * H2 names the index after the unique constraint and writes the condition it
+ * seeks on in a comment after the table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plan_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.expensetracker.repository.BalanceEntryRepositoryPlanTest$LastRangeStatement",
+        "expense-tracker.index.enabled=false",
+        "expense-tracker.cache.enabled=false",
+        "expense-tracker.expenses.mode=application",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceEntryRepositoryPlanTest {
+
+    private static final String ACCOUNT_ID = "plans";
+    private static final Pattern INDEX_CONDITION = Pattern.compile("/\\* PUBLIC\\.UK_ACCOUNT_DATE\\w*: (.*?)\\*/",
+            Pattern.DOTALL);
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearLastStatement() {
+        LastRangeStatement.SQL.set(null);
+    }
+
+    @Test
+    void monthLookupUsesAccountDateIndex() {
+        balanceService.getEntriesByMonth(ACCOUNT_ID, 2024, 3);
+
+        YearMonth march = YearMonth.of(2024, 3);
+        assertSeeksOnAccountAndDate(march.atDay(1), march.atEndOfMonth());
+    }
+
+    @Test
+    void quarterLookupUsesAccountDateIndex() {
+        balanceService.getEntriesByQuarter(ACCOUNT_ID, 2024, 2);
+
+        assertSeeksOnAccountAndDate(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30));
+    }
+
+    @Test
+    void yearLookupUsesAccountDateIndex() {
+        balanceService.getEntriesByYear(ACCOUNT_ID, 2024);
+
+        assertSeeksOnAccountAndDate(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    /**
+     * Keeps the last SQL statement Hibernate prepared with a BETWEEN date range
+     */
+    public static class LastRangeStatement implements StatementInspector {
+
+        static final AtomicReference<String> SQL = new AtomicReference<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase(Locale.ROOT).contains(" between ")) {
+                SQL.set(sql);
+            }
+            return sql;
+        }
+    }
+
+    // Helper methods
+    private void assertSeeksOnAccountAndDate(LocalDate startDate, LocalDate endDate) {
+        String sql = LastRangeStatement.SQL.get();
+        assertThat(sql).as("range statement of the lookup").isNotNull();
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class,
+                ACCOUNT_ID, startDate, endDate);
+        Matcher index = INDEX_CONDITION.matcher(String.join("\n", plan).toUpperCase());
+        assertThat(index.find()).as("plan uses the (account_id, date) index: %s", plan).isTrue();
+        assertThat(index.group(1)).contains("ACCOUNT_ID =", "DATE >=", "DATE <=");
+    }
+}
@@ -0,0 +1,102 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.service.BalanceService;
+import com.expensetracker.service.ExpenseCalculator;
+import com.expensetracker.service.GapPolicy;
+import com.expensetracker.service.ParallelSummaryAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expenses and summaries computed in SQL match ExpenseCalculator under every GapPolicy
+ *
+ * The entries have gaps of up to four days, deposits and drops that do not
+ * divide evenly over their gap, so the clamp at zero and the floored shares
+ * of SPREAD are both exercised. Ranges start and end on random days, often
+ * inside a gap.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:windowed_expense_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class WindowedExpenseRepositoryTest {
+
+    private static final String ACCOUNT_ID = "windowed";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BalanceEntryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(11);
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        LocalDate date = FIRST_DATE;
+        long balance = 300_000;
+        for (int i = 0; i < 120; i++) {
+            balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, date, balance, null));
+            date = date.plusDays(1 + random.nextInt(4));
+            balance += random.nextInt(8) == 0 ? 7_001 : -random.nextInt(2_500);
+        }
+    }
+
+    @Test
+    void windowedExpensesMatchTheCalculatorUnderEveryPolicy() {
+        List<EntryRow> rows = repository.findRowsByAccountIdOrderByDateAsc(ACCOUNT_ID);
+        int days = (int) (rows.get(rows.size() - 1).date().toEpochDay() - FIRST_DATE.toEpochDay());
+
+        for (GapPolicy policy : GapPolicy.values()) {
+            WindowedExpenseRepository windowed = new WindowedExpenseRepository(jdbcTemplate, policy);
+            ParallelSummaryAggregator aggregator = new ParallelSummaryAggregator(false, 730, policy);
+            assertExpenses(policy, windowed.findAll(ACCOUNT_ID), null, rows);
+
+            for (int i = 0; i < 10; i++) {
+                LocalDate start = FIRST_DATE.plusDays(random.nextInt(days));
+                LocalDate end = start.plusDays(random.nextInt(90));
+                List<EntryRow> inRange = rows.stream()
+                        .filter(row -> !row.date().isBefore(start) && !row.date().isAfter(end))
+                        .toList();
+                EntryRow previous = rows.stream().filter(row -> row.date().isBefore(start))
+                        .reduce((first, second) -> second).orElse(null);
+
+                assertExpenses(policy, windowed.findRange(ACCOUNT_ID, start, end), previous, inRange);
+                RangeSummary expected = aggregator.summarize(start, end, previous, inRange);
+                assertThat(windowed.summarize(ACCOUNT_ID, start, end)).as("%s summary from %s to %s",
+                        policy, start, end).isEqualTo(expected);
+            }
+        }
+    }
+
+    // Helper methods
+    private static void assertExpenses(GapPolicy policy, List<ExpenseRow> actual, EntryRow previous,
+                                       List<EntryRow> rows) {
+        long[] expected = ExpenseCalculator.calculateExpenses(policy, previous, rows);
+        assertThat(actual).extracting(ExpenseRow::id).containsExactlyElementsOf(rows.stream()
+                .map(EntryRow::id).toList());
+        assertThat(actual).extracting(ExpenseRow::expenseCents).as("%s expenses", policy)
+                .containsExactlyElementsOf(Arrays.stream(expected).mapToObj(ExpenseCalculator::toNullable).toList());
+    }
+}
@@ -0,0 +1,134 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.ExpenseSummaryDTO;
+import com.expensetracker.dto.MonthlyRollupDTO;
+import com.expensetracker.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two accounts with entries on the same dates never see or change each other's data
+ *
+ * Runs with the index and the cache, so timelines, cached values and rollups
+ * are all checked to be kept per account.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account_isolation_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=true",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class AccountIsolationTest {
+
+    private static final String ACCOUNT = "alice";
+    private static final String OTHER_ACCOUNT = "bob";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 4, 1);
+    private static final LocalDate LAST_DATE = FIRST_DATE.plusDays(29);
+    private static final YearMonth MONTH = YearMonth.from(FIRST_DATE);
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT);
+        balanceService.deleteAllEntries(OTHER_ACCOUNT);
+        for (int day = 0; day < 30; day++) {
+            LocalDate date = FIRST_DATE.plusDays(day);
+            balanceService.createEntry(ACCOUNT, new BalanceEntryDTO(null, date, 50_000L - day * 100L, ACCOUNT));
+            balanceService.createEntry(OTHER_ACCOUNT,
+                    new BalanceEntryDTO(null, date, 90_000L - day * 300L, OTHER_ACCOUNT));
+        }
+    }
+
+    @Test
+    void readsOnlyReturnTheirAccountsEntries() {
+        assertThat(balanceService.getAllEntries(ACCOUNT)).hasSize(30)
+                .allSatisfy(entry -> assertThat(entry.getDescription()).isEqualTo(ACCOUNT));
+        assertThat(balanceService.getEntriesByDateRange(OTHER_ACCOUNT, FIRST_DATE, LAST_DATE)).hasSize(30)
+                .allSatisfy(entry -> assertThat(entry.getDescription()).isEqualTo(OTHER_ACCOUNT));
+        assertThat(summary(ACCOUNT).getTotalExpenses()).isEqualTo(29 * 100L);
+        assertThat(summary(OTHER_ACCOUNT).getTotalExpenses()).isEqualTo(29 * 300L);
+        assertThat(trend(ACCOUNT).get(0).getTotalExpenses()).isEqualTo(29 * 100L);
+        assertThat(trend(OTHER_ACCOUNT).get(0).getTotalExpenses()).isEqualTo(29 * 300L);
+    }
+
+    @Test
+    void writesLeaveTheOtherAccountUntouched() throws Exception {
+        String otherEntries = json(balanceService.getAllEntries(OTHER_ACCOUNT));
+        String otherTrend = json(trend(OTHER_ACCOUNT));
+        String otherETag = balanceService.getVersion(OTHER_ACCOUNT).eTag();
+        ExpenseSummaryDTO otherSummary = summary(OTHER_ACCOUNT);
+
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT, FIRST_DATE.plusDays(10)).orElseThrow();
+        balanceService.updateEntry(ACCOUNT, entry.getId(),
+                new BalanceEntryDTO(null, entry.getDate(), 1_000L, ACCOUNT));
+        balanceService.upsertEntry(ACCOUNT, LAST_DATE.plusDays(1),
+                new BalanceEntryDTO(null, LAST_DATE.plusDays(1), 500L, ACCOUNT));
+        balanceService.deleteEntriesBetween(ACCOUNT, FIRST_DATE.plusDays(20), FIRST_DATE.plusDays(25));
+
+        // The other account's summary was not evicted from the cache
+        long before = metrics.statementCount();
+        assertThat(summary(OTHER_ACCOUNT)).usingRecursiveComparison().isEqualTo(otherSummary);
+        assertThat(metrics.statementCount() - before).isZero();
+
+        assertThat(json(balanceService.getAllEntries(OTHER_ACCOUNT))).isEqualTo(otherEntries);
+        assertThat(json(trend(OTHER_ACCOUNT))).isEqualTo(otherTrend);
+        assertThat(balanceService.getVersion(OTHER_ACCOUNT).eTag()).isEqualTo(otherETag);
+
+        balanceService.deleteAllEntries(ACCOUNT);
+        assertThat(balanceService.getAllEntries(ACCOUNT)).isEmpty();
+        assertThat(json(balanceService.getAllEntries(OTHER_ACCOUNT))).isEqualTo(otherEntries);
+        assertThat(json(trend(OTHER_ACCOUNT))).isEqualTo(otherTrend);
+    }
+
+    @Test
+    void entriesCannotBeReachedThroughAnotherAccount() {
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT, FIRST_DATE).orElseThrow();
+
+        assertThat(balanceService.getEntryById(OTHER_ACCOUNT, entry.getId())).isEmpty();
+        assertThatThrownBy(() -> balanceService.updateEntry(OTHER_ACCOUNT, entry.getId(),
+                new BalanceEntryDTO(null, entry.getDate(), 1L, OTHER_ACCOUNT)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> balanceService.deleteEntry(OTHER_ACCOUNT, entry.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        BalanceEntryDTO stored = balanceService.getEntryById(ACCOUNT, entry.getId()).orElseThrow();
+        assertThat(stored.getBalance()).isEqualTo(entry.getBalance());
+        assertThat(stored.getVersion()).isEqualTo(entry.getVersion());
+    }
+
+    // Helper methods
+    private ExpenseSummaryDTO summary(String accountId) {
+        return balanceService.getExpenseSummary(accountId, FIRST_DATE, LAST_DATE);
+    }
+
+    private List<MonthlyRollupDTO> trend(String accountId) {
+        return balanceService.getMonthlyTrend(accountId, MONTH, MONTH);
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
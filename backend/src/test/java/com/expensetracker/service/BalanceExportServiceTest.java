@@ -0,0 +1,106 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streamed exports hold the same entries, versions and expenses as the entry list and range reads
+ *
+ * One entry is updated before exporting, so its version is not the initial
+ * one. A ranged export takes its first expense against the entry before it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balance_export_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceExportServiceTest {
+
+    private static final String ACCOUNT_ID = "exporter";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 6, 1);
+
+    @Autowired
+    private BalanceExportService exportService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        for (int day = 0; day < 10; day++) {
+            // Every third day is missing
+            if (day % 3 != 2) {
+                balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, FIRST_DATE.plusDays(day),
+                        20_000L - day * 150L, day == 0 ? "say \"hi\", then go" : null));
+            }
+        }
+        BalanceEntryDTO entry = balanceService.getEntryByDate(ACCOUNT_ID, FIRST_DATE.plusDays(4)).orElseThrow();
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                new BalanceEntryDTO(null, entry.getDate(), 15_000L, "updated"));
+    }
+
+    @Test
+    void ndjsonExportMatchesTheEntryList() throws IOException {
+        List<BalanceEntryDTO> exported = ndjson(null, null);
+
+        assertThat(exported).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(balanceService.getAllEntries(ACCOUNT_ID));
+        assertThat(exported).extracting(BalanceEntryDTO::getVersion).contains(0L, 1L);
+    }
+
+    @Test
+    void rangedNdjsonExportMatchesTheRangeRead() throws IOException {
+        LocalDate start = FIRST_DATE.plusDays(3);
+        LocalDate end = FIRST_DATE.plusDays(8);
+        List<BalanceEntryDTO> exported = ndjson(start, end);
+
+        assertThat(exported).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(balanceService.getEntriesByDateRange(ACCOUNT_ID, start, end));
+        assertThat(exported.get(0).getDailyExpense()).isNotNull();
+    }
+
+    @Test
+    void csvExportQuotesDescriptions() throws IOException {
+        String[] lines = export(ExportFormat.CSV, FIRST_DATE, FIRST_DATE.plusDays(1)).split("\n");
+
+        assertThat(lines).containsExactly(
+                "date,balance,description,dailyExpense",
+                "2024-06-01,200.00,\"say \"\"hi\"\", then go\",",
+                "2024-06-02,198.50,,1.50");
+    }
+
+    // Helper methods
+    private List<BalanceEntryDTO> ndjson(LocalDate startDate, LocalDate endDate) throws IOException {
+        List<BalanceEntryDTO> entries = new ArrayList<>();
+        for (String line : export(ExportFormat.NDJSON, startDate, endDate).split("\n")) {
+            entries.add(objectMapper.readValue(line, BalanceEntryDTO.class));
+        }
+        return entries;
+    }
+
+    private String export(ExportFormat format, LocalDate startDate, LocalDate endDate) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ACCOUNT_ID, startDate, endDate, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CSV and NDJSON uploads parse into entries, and malformed lines are reported with their line number
+ *
+ * CSV fields follow RFC 4180: a quoted field may hold commas and doubled
+ * quotes, and an optional date,balance header on the first line is skipped.
+ */
+class BalanceImportParserTest {
+
+    private final BalanceImportParser parser = new BalanceImportParser(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void headerLineIsSkippedOnlyOnTheFirstLine() throws IOException {
+        List<BalanceEntryDTO> entries = csv("Date,Balance,Description\n2024-01-01,100.50\n\n2024-01-02,99,groceries\n");
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).getDate()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(entries.get(0).getBalance()).isEqualTo(10_050L);
+        assertThat(entries.get(0).getDescription()).isNull();
+        assertThat(entries.get(1).getBalance()).isEqualTo(9_900L);
+        assertThat(entries.get(1).getDescription()).isEqualTo("groceries");
+
+        assertThatThrownBy(() -> csv("2024-01-01,1\ndate,balance\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 2:");
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        List<BalanceEntryDTO> entries = csv("\"2024-01-01\",\"15\"\n"
+                + "2024-01-02,\" 20.25 \",\"rent, \"\"March\"\"\"\n"
+                + "2024-01-03,7,\"\"\n");
+
+        assertThat(entries).extracting(BalanceEntryDTO::getBalance).containsExactly(1_500L, 2_025L, 700L);
+        assertThat(entries.get(1).getDescription()).isEqualTo("rent, \"March\"");
+        // An empty quoted description is no description
+        assertThat(entries.get(2).getDescription()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() {
+        assertThatThrownBy(() -> csv("2024-01-01,1\n2024-01-02,2,\"open \"\" quote\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Line 2: unterminated quoted field");
+    }
+
+    @Test
+    void malformedRowsReportTheirLine() {
+        assertThatThrownBy(() -> csv("2024-01-01\n"))
+                .hasMessage("Line 1: expected date,balance[,description]");
+        assertThatThrownBy(() -> csv("2024-01-01,1,a,b\n"))
+                .hasMessage("Line 1: expected date,balance[,description]");
+        assertThatThrownBy(() -> csv("2024-01-01,1\n2024-13-01,1\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 2:");
+        assertThatThrownBy(() -> csv("2024-01-01,1.001\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 1: Amount 1.001");
+    }
+
+    @Test
+    void ndjsonParsesOneEntryPerLine() throws IOException {
+        List<BalanceEntryDTO> entries = parser.parseNdjson(new StringReader(
+                "{\"date\":\"2024-01-01\",\"balance\":12.5,\"description\":\"a\"}\n\n"
+                        + "{\"date\":\"2024-01-02\",\"balance\":10}\n"));
+
+        assertThat(entries).extracting(BalanceEntryDTO::getDate)
+                .containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+        assertThat(entries).extracting(BalanceEntryDTO::getBalance).containsExactly(1_250L, 1_000L);
+
+        assertThatThrownBy(() -> parser.parseNdjson(new StringReader("{\"date\":\"2024-01-01\"}\n{oops\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 2:");
+    }
+
+    // Helper methods
+    private List<BalanceEntryDTO> csv(String content) throws IOException {
+        return parser.parseCsv(new StringReader(content));
+    }
+}
@@ -0,0 +1,99 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.expensetracker.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Once an account's timeline is loaded, reads and the versions behind their ETags issue no SQL statements
+ *
+ * The counterpart of BalanceServiceStatementCountTest with the timeline index
+ * enabled. The timeline is loaded up front the way startup warm-up does, and
+ * the cache is disabled so every read is answered by the timeline itself.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexed_statement_count_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=false",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceServiceIndexedStatementCountTest {
+
+    private static final String ACCOUNT_ID = "indexed-statements";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 3 * 365;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BatchImportService importService;
+
+    @Autowired
+    private BalanceTimelineIndex index;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void seedAndLoadEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        List<BalanceEntryDTO> entries = new ArrayList<>(DAYS);
+        long balance = 1_000_000;
+        for (int day = 0; day < DAYS; day++) {
+            if (day % 7 != 3) {
+                entries.add(new BalanceEntryDTO(null, FIRST_DATE.plusDays(day), balance, "day " + day));
+            }
+            balance -= day % 5 * 100;
+        }
+        importService.importEntries(ACCOUNT_ID, entries, ConflictPolicy.REJECT);
+        index.load(ACCOUNT_ID);
+    }
+
+    @Test
+    void readsOfALoadedTimelineIssueNoStatements() {
+        LocalDate start = FIRST_DATE.plusDays(40);
+        LocalDate end = FIRST_DATE.plusDays(DAYS);
+
+        assertNoStatements("all entries", () -> assertThat(balanceService.getAllEntries(ACCOUNT_ID))
+                .hasSizeGreaterThan(900));
+        assertNoStatements("range", () -> balanceService.getEntriesByDateRange(ACCOUNT_ID, start, end));
+        assertNoStatements("month", () -> balanceService.getEntriesByMonth(ACCOUNT_ID, 2021, 3));
+        assertNoStatements("year", () -> balanceService.getEntriesByYear(ACCOUNT_ID, 2021));
+        assertNoStatements("entry by date", () -> balanceService.getEntryByDate(ACCOUNT_ID, start));
+        assertNoStatements("summary", () -> balanceService.getExpenseSummary(ACCOUNT_ID, start, end, false));
+        assertNoStatements("summary with breakdown", () ->
+                balanceService.getExpenseSummary(ACCOUNT_ID, start, end, true));
+        assertNoStatements("monthly summary with breakdown", () ->
+                balanceService.getMonthlySummary(ACCOUNT_ID, 2021, 3, true));
+        assertNoStatements("daily expense", () -> balanceService.calculateDailyExpense(ACCOUNT_ID, start));
+    }
+
+    @Test
+    void versionsOfALoadedTimelineIssueNoStatements() {
+        assertNoStatements("account version", () -> balanceService.getVersion(ACCOUNT_ID));
+        assertNoStatements("range version", () -> balanceService.getVersion(ACCOUNT_ID,
+                FIRST_DATE.plusDays(40), FIRST_DATE.plusDays(70)));
+    }
+
+    // Helper methods
+    private void assertNoStatements(String read, Runnable action) {
+        long before = metrics.statementCount();
+        action.run();
+        assertThat(metrics.statementCount() - before).as("statements for the %s", read).isZero();
+    }
+}
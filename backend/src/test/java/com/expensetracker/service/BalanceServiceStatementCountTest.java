@@ -0,0 +1,117 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression test for the single-pass expense computation: every read costs a
+ * constant number of SQL statements, however many entries it covers
+ *
+ * Runs without the timeline index and the cache, so each read goes to the
+ * database. Statements are counted at the DataSource by SqlStatementCounter.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement_count_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=false",
+        "expense-tracker.cache.enabled=false",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceServiceStatementCountTest {
+
+    private static final String ACCOUNT_ID = "statements";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 3 * 365;
+
+    // A read may load its entries and the entry before them, and a summary with a breakdown looks that
+    // entry up again for its totals; never one query per entry. The range's version is looked up by the
+    // controller for its ETag, so it is not part of these service reads.
+    private static final long MAX_STATEMENTS_PER_READ = 3;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BatchImportService importService;
+
+    @Autowired
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        List<BalanceEntryDTO> entries = new ArrayList<>(DAYS);
+        long balance = 1_000_000;
+        for (int day = 0; day < DAYS; day++) {
+            // Skip every seventh day so gaps are part of the data
+            if (day % 7 != 3) {
+                entries.add(new BalanceEntryDTO(null, FIRST_DATE.plusDays(day), balance, "day " + day));
+            }
+            balance -= day % 5 * 100;
+        }
+        importService.importEntries(ACCOUNT_ID, entries, ConflictPolicy.REJECT);
+    }
+
+    @Test
+    void allEntriesCostConstantStatements() {
+        long statements = statementsDuring(() ->
+                assertThat(balanceService.getAllEntries(ACCOUNT_ID)).hasSizeGreaterThan(900));
+        assertThat(statements).isBetween(1L, MAX_STATEMENTS_PER_READ);
+    }
+
+    @Test
+    void rangeReadsCostTheSameForShortAndLongRanges() {
+        long month = statementsDuring(() -> balanceService.getEntriesByDateRange(ACCOUNT_ID,
+                FIRST_DATE.plusDays(40), FIRST_DATE.plusDays(70)));
+        long years = statementsDuring(() -> balanceService.getEntriesByDateRange(ACCOUNT_ID,
+                FIRST_DATE.plusDays(40), FIRST_DATE.plusDays(DAYS)));
+
+        assertThat(month).isBetween(1L, MAX_STATEMENTS_PER_READ);
+        assertThat(years).isEqualTo(month);
+        assertThat(statementsDuring(() -> balanceService.getEntriesByMonth(ACCOUNT_ID, 2021, 3)))
+                .isBetween(1L, MAX_STATEMENTS_PER_READ);
+        assertThat(statementsDuring(() -> balanceService.getEntriesByYear(ACCOUNT_ID, 2021)))
+                .isBetween(1L, MAX_STATEMENTS_PER_READ);
+    }
+
+    @Test
+    void summariesCostTheSameForShortAndLongRanges() {
+        for (boolean includeBreakdown : new boolean[] {true, false}) {
+            long month = statementsDuring(() -> balanceService.getExpenseSummary(ACCOUNT_ID,
+                    FIRST_DATE.plusDays(40), FIRST_DATE.plusDays(70), includeBreakdown));
+            long years = statementsDuring(() -> balanceService.getExpenseSummary(ACCOUNT_ID,
+                    FIRST_DATE, FIRST_DATE.plusDays(DAYS), includeBreakdown));
+
+            assertThat(month).as("breakdown %s", includeBreakdown).isBetween(1L, MAX_STATEMENTS_PER_READ);
+            assertThat(years).as("breakdown %s", includeBreakdown).isEqualTo(month);
+        }
+        assertThat(statementsDuring(() -> balanceService.getMonthlySummary(ACCOUNT_ID, 2021, 3, true)))
+                .isBetween(1L, MAX_STATEMENTS_PER_READ);
+    }
+
+    @Test
+    void dailyExpenseCostsConstantStatements() {
+        assertThat(statementsDuring(() -> balanceService.calculateDailyExpense(ACCOUNT_ID, FIRST_DATE.plusDays(100))))
+                .isBetween(1L, MAX_STATEMENTS_PER_READ);
+    }
+
+    // Helper methods
+    private long statementsDuring(Runnable read) {
+        long before = metrics.statementCount();
+        read.run();
+        return metrics.statementCount() - before;
+    }
+}
@@ -0,0 +1,95 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.repository.EntryVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The version behind ETags changes on every write, even when the writes share updated_at
+ *
+ * Runs without the index and the cache, so versions are read from the database.
+ * After each write every row's updated_at is set back to the same second, as a
+ * TIMESTAMP column without fractional seconds would leave it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:version_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=false",
+        "expense-tracker.cache.enabled=false",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceServiceVersionTest {
+
+    private static final String ACCOUNT_ID = "versions";
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 10);
+    private static final Timestamp SAME_SECOND = Timestamp.valueOf(LocalDateTime.of(2024, 5, 10, 12, 0, 0));
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+    }
+
+    @Test
+    void updatesInTheSameSecondChangeTheETag() {
+        balanceService.createEntry(ACCOUNT_ID, entry(DATE.minusDays(1), 10_000L));
+        BalanceEntryDTO entry = balanceService.createEntry(ACCOUNT_ID, entry(DATE, 9_000L));
+        Set<String> eTags = new LinkedHashSet<>();
+        eTags.add(eTagAfterPinning());
+
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(), entry(DATE, 8_500L));
+        eTags.add(eTagAfterPinning());
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(), entry(DATE, 8_000L));
+        eTags.add(eTagAfterPinning());
+
+        assertThat(eTags).hasSize(3);
+        assertThat(version().lastUpdated()).isEqualTo(SAME_SECOND.toLocalDateTime());
+    }
+
+    @Test
+    void recreatingAnEntryInTheSameSecondChangesTheETag() {
+        balanceService.createEntry(ACCOUNT_ID, entry(DATE.minusDays(1), 10_000L));
+        BalanceEntryDTO entry = balanceService.createEntry(ACCOUNT_ID, entry(DATE, 9_000L));
+        String before = eTagAfterPinning();
+
+        // Same count, versions and dates as before; only the id differs
+        balanceService.deleteEntry(ACCOUNT_ID, entry.getId());
+        balanceService.createEntry(ACCOUNT_ID, entry(DATE, 7_000L));
+
+        assertThat(eTagAfterPinning()).isNotEqualTo(before);
+    }
+
+    // Helper methods
+    private String eTagAfterPinning() {
+        jdbcTemplate.update("UPDATE balance_entries SET updated_at = ? WHERE account_id = ?", SAME_SECOND, ACCOUNT_ID);
+        return version().eTag();
+    }
+
+    private EntryVersion version() {
+        return balanceService.getVersion(ACCOUNT_ID, DATE, DATE);
+    }
+
+    private static BalanceEntryDTO entry(LocalDate date, long balanceCents) {
+        return new BalanceEntryDTO(null, date, balanceCents, "version test");
+    }
+}
@@ -0,0 +1,185 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent upserts by date: one row per date, no lost updates, and conflicts for stale versions
+ *
+ * Writers start together on a latch and hammer a few shared dates and dates of
+ * their own. Runs with the timeline index, so the after-commit updates race too.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:upsert_concurrency_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BalanceUpsertConcurrencyTest {
+
+    private static final String ACCOUNT_ID = "upserts";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    private static final int WRITERS = 8;
+    // Half of each writer's writes go to the shared dates, evenly
+    private static final int WRITES_PER_WRITER = 42;
+    private static final int SHARED_DATES = 3;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        executor = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentUpsertsLeaveOneRowPerDate() throws Exception {
+        runTogether(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                // Alternate between a shared date and one only this writer touches
+                LocalDate date = i % 2 == 0
+                        ? FIRST_DATE.plusDays(i / 2 % SHARED_DATES)
+                        : FIRST_DATE.plusDays(SHARED_DATES + writer);
+                balanceService.upsertEntry(ACCOUNT_ID, date, entry(date, 10_000L + writer, null));
+            }
+            return null;
+        });
+
+        List<BalanceEntryDTO> entries = balanceService.getAllEntries(ACCOUNT_ID);
+        Map<LocalDate, Long> rowsPerDate = entries.stream()
+                .collect(Collectors.groupingBy(BalanceEntryDTO::getDate, Collectors.counting()));
+        assertThat(rowsPerDate).hasSize(SHARED_DATES + WRITERS).allSatisfy((date, rows) -> assertThat(rows).isOne());
+
+        // Every upsert after the first bumped the version of its date's row
+        long sharedWrites = (long) WRITERS * WRITES_PER_WRITER / 2 / SHARED_DATES;
+        long ownWrites = WRITES_PER_WRITER / 2;
+        for (BalanceEntryDTO entry : entries) {
+            boolean shared = entry.getDate().isBefore(FIRST_DATE.plusDays(SHARED_DATES));
+            assertThat(entry.getVersion()).as("version of %s", entry.getDate())
+                    .isEqualTo((shared ? sharedWrites : ownWrites) - 1);
+            assertThat(entry.getBalance()).isBetween(10_000L, 10_000L + WRITERS - 1);
+        }
+        assertStoredRollupsMatchRebuild();
+    }
+
+    @Test
+    void staleVersionsConflictAndOnlyOneEditWins() throws Exception {
+        LocalDate date = FIRST_DATE;
+        BalanceEntryDTO created = balanceService.upsertEntry(ACCOUNT_ID, date, entry(date, 5_000L, null));
+        long version = created.getVersion();
+
+        List<Boolean> outcomes = runTogether(writer -> {
+            try {
+                balanceService.upsertEntry(ACCOUNT_ID, date, entry(date, 6_000L + writer, version));
+                return true;
+            } catch (OptimisticLockingFailureException e) {
+                return false;
+            }
+        });
+
+        assertThat(outcomes).containsOnlyOnce(true).hasSize(WRITERS);
+        BalanceEntryDTO stored = balanceService.getEntryByDate(ACCOUNT_ID, date).orElseThrow();
+        assertThat(stored.getVersion()).isEqualTo(version + 1);
+        assertThat(stored.getBalance()).isBetween(6_000L, 6_000L + WRITERS - 1);
+    }
+
+    @Test
+    void versionedIncrementsLoseNoUpdates() throws Exception {
+        LocalDate date = FIRST_DATE;
+        balanceService.upsertEntry(ACCOUNT_ID, date, entry(date, 0L, null));
+
+        // Read-modify-write with the version, retrying on conflict
+        List<Integer> conflicts = runTogether(writer -> {
+            int conflicted = 0;
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                while (true) {
+                    BalanceEntryDTO current = balanceService.getEntryByDate(ACCOUNT_ID, date).orElseThrow();
+                    try {
+                        balanceService.upsertEntry(ACCOUNT_ID, date,
+                                entry(date, current.getBalance() + 1, current.getVersion()));
+                        break;
+                    } catch (OptimisticLockingFailureException e) {
+                        conflicted++;
+                    }
+                }
+            }
+            return conflicted;
+        });
+
+        BalanceEntryDTO stored = balanceService.getEntryByDate(ACCOUNT_ID, date).orElseThrow();
+        assertThat(stored.getBalance()).isEqualTo((long) WRITERS * WRITES_PER_WRITER);
+        assertThat(stored.getVersion()).isEqualTo((long) WRITERS * WRITES_PER_WRITER);
+        assertThat(conflicts.stream().mapToInt(Integer::intValue).sum()).isPositive();
+        assertStoredRollupsMatchRebuild();
+    }
+
+    // Helper methods
+    private <T> List<T> runTogether(Function<Integer, T> writer) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            int id = i;
+            Callable<T> task = () -> {
+                start.await();
+                return writer.apply(id);
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private void assertStoredRollupsMatchRebuild() throws Exception {
+        YearMonth month = YearMonth.from(FIRST_DATE);
+        String stored = objectMapper.writeValueAsString(balanceService.getMonthlyTrend(ACCOUNT_ID, month, month));
+        balanceService.rebuildMonthlyRollups(ACCOUNT_ID);
+        String rebuilt = objectMapper.writeValueAsString(balanceService.getMonthlyTrend(ACCOUNT_ID, month, month));
+        assertThat(stored).isEqualTo(rebuilt);
+    }
+
+    private static BalanceEntryDTO entry(LocalDate date, long balanceCents, Long version) {
+        BalanceEntryDTO dto = new BalanceEntryDTO(null, date, balanceCents, "upsert");
+        dto.setVersion(version);
+        return dto;
+    }
+}
@@ -0,0 +1,129 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.dto.BatchImportResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Batch imports resolve dates that already have an entry by their ConflictPolicy, and fail as a whole
+ *
+ * Each batch holds one date that is stored and one that is new. A rejected
+ * batch writes neither, and reads afterwards see exactly what was written,
+ * through the index and the cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch_import_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.index.enabled=true",
+        "expense-tracker.cache.enabled=true",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class BatchImportServiceTest {
+
+    private static final String ACCOUNT_ID = "importer";
+    private static final LocalDate STORED_DATE = LocalDate.of(2024, 5, 1);
+    private static final LocalDate NEW_DATE = STORED_DATE.plusDays(1);
+
+    @Autowired
+    private BatchImportService importService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @BeforeEach
+    void seedEntry() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        balanceService.createEntry(ACCOUNT_ID, new BalanceEntryDTO(null, STORED_DATE, 10_000L, "stored"));
+        // Loads the timeline, so imports must keep it up to date
+        balanceService.getAllEntries(ACCOUNT_ID);
+    }
+
+    @Test
+    void rejectFailsTheWholeBatchOnAStoredDate() {
+        assertThatThrownBy(() -> importService.importEntries(ACCOUNT_ID, batch(), ConflictPolicy.REJECT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("An entry already exists for " + STORED_DATE + ".");
+
+        assertStored(10_000L, "stored");
+        assertThat(balanceService.getEntryByDate(ACCOUNT_ID, NEW_DATE)).isEmpty();
+    }
+
+    @Test
+    void skipKeepsTheStoredEntryAndInsertsTheRest() {
+        BatchImportResultDTO result = importService.importEntries(ACCOUNT_ID, batch(), ConflictPolicy.SKIP);
+
+        assertResult(result, 1, 0, 1);
+        assertStored(10_000L, "stored");
+        assertThat(balanceService.getEntryByDate(ACCOUNT_ID, NEW_DATE).orElseThrow().getBalance()).isEqualTo(8_000L);
+        assertThat(balanceService.calculateDailyExpense(ACCOUNT_ID, NEW_DATE)).isEqualTo(2_000L);
+    }
+
+    @Test
+    void upsertOverwritesTheStoredEntryAndInsertsTheRest() {
+        long version = balanceService.getEntryByDate(ACCOUNT_ID, STORED_DATE).orElseThrow().getVersion();
+
+        BatchImportResultDTO result = importService.importEntries(ACCOUNT_ID, batch(), ConflictPolicy.UPSERT);
+
+        assertResult(result, 1, 1, 0);
+        BalanceEntryDTO stored = assertStored(9_000L, "imported");
+        assertThat(stored.getVersion()).isEqualTo(version + 1);
+        assertThat(balanceService.calculateDailyExpense(ACCOUNT_ID, NEW_DATE)).isEqualTo(1_000L);
+        assertThat(balanceService.getAllEntries(ACCOUNT_ID)).hasSize(2);
+    }
+
+    @Test
+    void duplicateDatesWithinABatchFailValidationUnderEveryPolicy() {
+        List<BalanceEntryDTO> entries = List.of(
+                new BalanceEntryDTO(null, NEW_DATE, 1L, null),
+                new BalanceEntryDTO(null, NEW_DATE.plusDays(1), 2L, null),
+                new BalanceEntryDTO(null, NEW_DATE, 3L, null));
+
+        for (ConflictPolicy policy : ConflictPolicy.values()) {
+            assertThatThrownBy(() -> importService.importEntries(ACCOUNT_ID, entries, policy))
+                    .as("%s", policy)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Batch validation failed: Row 3: duplicate date " + NEW_DATE + " in batch");
+        }
+        assertThat(balanceService.getAllEntries(ACCOUNT_ID)).hasSize(1);
+    }
+
+    @Test
+    void emptyBatchIsRejected() {
+        assertThatThrownBy(() -> importService.importEntries(ACCOUNT_ID, List.of(), ConflictPolicy.UPSERT))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Helper methods
+    private static List<BalanceEntryDTO> batch() {
+        // The new date comes first, so a rejection is not just an early exit
+        return List.of(
+                new BalanceEntryDTO(null, NEW_DATE, 8_000L, "new"),
+                new BalanceEntryDTO(null, STORED_DATE, 9_000L, "imported"));
+    }
+
+    private BalanceEntryDTO assertStored(long balance, String description) {
+        BalanceEntryDTO stored = balanceService.getEntryByDate(ACCOUNT_ID, STORED_DATE).orElseThrow();
+        assertThat(stored.getBalance()).isEqualTo(balance);
+        assertThat(stored.getDescription()).isEqualTo(description);
+        return stored;
+    }
+
+    private static void assertResult(BatchImportResultDTO result, int inserted, int updated, int skipped) {
+        assertThat(result.getReceived()).isEqualTo(2);
+        assertThat(result.getInserted()).isEqualTo(inserted);
+        assertThat(result.getUpdated()).isEqualTo(updated);
+        assertThat(result.getSkipped()).isEqualTo(skipped);
+    }
+}
@@ -0,0 +1,91 @@
+package com.expensetracker.service;
+
+import com.expensetracker.index.ExpenseAggregate;
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.repository.BalancePoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expenses and summaries of entries with missing dates under each GapPolicy
+ *
+ * The entries have a three-day and a four-day gap and one deposit. Drops
+ * across a gap count only with CONSECUTIVE's day before, whole on the closing
+ * day with CURRENT_DAY, and split over the gap's days with SPREAD.
+ */
+class ExpenseCalculatorTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    private static final long NONE = ExpenseCalculator.NO_EXPENSE;
+
+    // Day 0, 1, 4 (3-day gap, 310 drop), 5 (deposit), 9 (4-day gap, 400 drop)
+    private static final List<BalancePoint> ENTRIES = List.of(
+            point(0, 1_000),
+            point(1, 900),
+            point(4, 590),
+            point(5, 700),
+            point(9, 300));
+
+    @Test
+    void consecutiveOnlyCountsDropsFromTheDayBefore() {
+        assertExpenses(GapPolicy.CONSECUTIVE, NONE, 100, NONE, 0, NONE);
+        assertSummary(GapPolicy.CONSECUTIVE, new ExpenseAggregate(100, 1, 100L, 100L));
+    }
+
+    @Test
+    void currentDayCountsTheWholeDropOnTheClosingDay() {
+        assertExpenses(GapPolicy.CURRENT_DAY, NONE, 100, 310, 0, 400);
+        assertSummary(GapPolicy.CURRENT_DAY, new ExpenseAggregate(810, 3, 100L, 400L));
+    }
+
+    @Test
+    void spreadSplitsTheDropOverEveryDayOfTheGap() {
+        // 310 over 3 days is 104, 103 and 103; the closing day reports 103
+        assertExpenses(GapPolicy.SPREAD, NONE, 100, 103, 0, 100);
+        assertSummary(GapPolicy.SPREAD, new ExpenseAggregate(810, 8, 100L, 104L));
+    }
+
+    @Test
+    void firstEntryAfterAGapIsTakenAgainstTheEntryBeforeTheRange() {
+        BalancePoint previous = point(-3, 1_300);
+        assertThat(ExpenseCalculator.calculateExpense(GapPolicy.CONSECUTIVE, previous, ENTRIES.get(0))).isNull();
+        assertThat(ExpenseCalculator.calculateExpense(GapPolicy.CURRENT_DAY, previous, ENTRIES.get(0))).isEqualTo(300L);
+        assertThat(ExpenseCalculator.calculateExpense(GapPolicy.SPREAD, previous, ENTRIES.get(0))).isEqualTo(100L);
+
+        ParallelSummaryAggregator aggregator = new ParallelSummaryAggregator(false, 730, GapPolicy.SPREAD);
+        RangeSummary summary = aggregator.summarize(FIRST_DATE, FIRST_DATE.plusDays(9), previous, ENTRIES);
+        assertThat(summary.expenses()).isEqualTo(new ExpenseAggregate(1_110, 11, 100L, 104L));
+    }
+
+    @Test
+    void entriesWithoutAnEarlierOneHaveNoExpense() {
+        for (GapPolicy policy : GapPolicy.values()) {
+            assertThat(ExpenseCalculator.calculateExpense(policy, null, ENTRIES.get(0))).as("%s", policy).isNull();
+        }
+    }
+
+    // Helper methods
+    private static void assertExpenses(GapPolicy policy, long... expected) {
+        long[] expenses = ExpenseCalculator.calculateExpenses(policy, null, ENTRIES);
+        assertThat(expenses).as("%s expenses %s", policy, Arrays.toString(expenses)).containsExactly(expected);
+    }
+
+    private static void assertSummary(GapPolicy policy, ExpenseAggregate expected) {
+        // Summaries add up contributions, which must agree with the per-entry expenses
+        ParallelSummaryAggregator aggregator = new ParallelSummaryAggregator(false, 730, policy);
+        RangeSummary summary = aggregator.summarize(FIRST_DATE, FIRST_DATE.plusDays(9), null, ENTRIES);
+        assertThat(summary.entryCount()).isEqualTo(ENTRIES.size());
+        assertThat(summary.openingCents()).isEqualTo(1_000L);
+        assertThat(summary.closingCents()).isEqualTo(300L);
+        assertThat(summary.expenses()).as("%s summary", policy).isEqualTo(expected);
+    }
+
+    private static BalancePoint point(int day, long balanceCents) {
+        return new BalancePoint(FIRST_DATE.plusDays(day), balanceCents);
+    }
+}
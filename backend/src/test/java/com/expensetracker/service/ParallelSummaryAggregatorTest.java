@@ -0,0 +1,83 @@
+package com.expensetracker.service;
+
+import com.expensetracker.index.RangeSummary;
+import com.expensetracker.repository.BalancePoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Summaries merged from parallel month chunks equal those summed sequentially, under every GapPolicy
+ *
+ * Ten years of mostly daily entries with now and then a gap of up to five
+ * days, so some chunk boundaries fall inside gaps, and ranges that start and
+ * end mid-month, so the first and last chunks are partial months. Every range
+ * holds more than LEAF_ENTRIES entries, so it is split.
+ */
+class ParallelSummaryAggregatorTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2014, 1, 1);
+
+    private final Random random = new Random(5);
+
+    @Test
+    void parallelSummariesEqualSequentialOnes() {
+        List<BalancePoint> points = points(LocalDate.of(2023, 12, 31));
+        assertThat(points).hasSizeGreaterThan(ParallelSummaryAggregator.LEAF_ENTRIES * 2);
+
+        for (GapPolicy policy : GapPolicy.values()) {
+            ParallelSummaryAggregator parallel = new ParallelSummaryAggregator(true, 1, policy);
+            ParallelSummaryAggregator sequential = new ParallelSummaryAggregator(false, 1, policy);
+
+            assertSameSummary(parallel, sequential, FIRST_DATE, LocalDate.of(2023, 12, 31), points);
+            assertSameSummary(parallel, sequential, LocalDate.of(2015, 3, 17), LocalDate.of(2022, 8, 9), points);
+            for (int i = 0; i < 20; i++) {
+                LocalDate start = FIRST_DATE.plusDays(random.nextInt(1_000));
+                LocalDate end = start.plusDays(1_400 + random.nextInt(1_200));
+                assertSameSummary(parallel, sequential, start, end, points);
+            }
+        }
+    }
+
+    @Test
+    void shortRangesAndDisabledAggregatorsStaySequential() {
+        ParallelSummaryAggregator aggregator = new ParallelSummaryAggregator(true, 730, GapPolicy.SPREAD);
+
+        assertThat(aggregator.isParallel(FIRST_DATE, FIRST_DATE.plusDays(728))).isFalse();
+        assertThat(aggregator.isParallel(FIRST_DATE, FIRST_DATE.plusDays(729))).isTrue();
+        assertThat(new ParallelSummaryAggregator(false, 730, GapPolicy.SPREAD)
+                .isParallel(FIRST_DATE, FIRST_DATE.plusYears(10))).isFalse();
+    }
+
+    // Helper methods
+    private static void assertSameSummary(ParallelSummaryAggregator parallel, ParallelSummaryAggregator sequential,
+                                          LocalDate start, LocalDate end, List<BalancePoint> points) {
+        List<BalancePoint> inRange = points.stream()
+                .filter(point -> !point.date().isBefore(start) && !point.date().isAfter(end))
+                .toList();
+        BalancePoint previous = points.stream().filter(point -> point.date().isBefore(start))
+                .reduce((first, second) -> second).orElse(null);
+        assertThat(inRange).hasSizeGreaterThan(ParallelSummaryAggregator.LEAF_ENTRIES);
+
+        RangeSummary expected = sequential.summarize(start, end, previous, inRange);
+        assertThat(parallel.summarize(start, end, previous, inRange)).as("%s to %s", start, end).isEqualTo(expected);
+        assertThat(expected.entryCount()).isEqualTo(inRange.size());
+    }
+
+    private List<BalancePoint> points(LocalDate last) {
+        List<BalancePoint> points = new ArrayList<>();
+        long balance = 5_000_000;
+        LocalDate date = FIRST_DATE;
+        while (!date.isAfter(last)) {
+            points.add(new BalancePoint(date, balance));
+            date = date.plusDays(random.nextInt(8) == 0 ? 1 + random.nextInt(5) : 1);
+            balance += random.nextInt(6) == 0 ? 40_000 : -random.nextInt(3_001);
+        }
+        return points;
+    }
+}
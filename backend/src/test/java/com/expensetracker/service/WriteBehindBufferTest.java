@@ -0,0 +1,147 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.DateRangeCache;
+import com.expensetracker.dto.BalanceEntryDTO;
+import com.expensetracker.index.BalanceTimelineIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Buffered writes are coalesced, never overwrite a newer direct write, and survive a restart
+ *
+ * The flush interval is long enough that only the tests flush the buffer.
+ * Stored values are read by id, which always goes to the database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write_behind_buffer_test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "expense-tracker.write-behind.enabled=true",
+        "expense-tracker.write-behind.flush-interval-ms=3600000",
+        "expense-tracker.write-behind.journal-dir=target/write-behind-buffer-test",
+        "expense-tracker.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.expensetracker=INFO"
+})
+@ActiveProfiles("h2")
+class WriteBehindBufferTest {
+
+    private static final String ACCOUNT_ID = "write-behind";
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 3);
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private WriteBehindBuffer writeBuffer;
+
+    @Autowired
+    private WriteBehindWriter writer;
+
+    @Autowired
+    private BalanceTimelineIndex index;
+
+    @Autowired
+    private DateRangeCache cache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BalanceEntryDTO entry;
+
+    @BeforeEach
+    void seedEntries() {
+        balanceService.deleteAllEntries(ACCOUNT_ID);
+        balanceService.createEntry(ACCOUNT_ID, dto(DATE.minusDays(1), 10_000L, null));
+        entry = balanceService.createEntry(ACCOUNT_ID, dto(DATE, 9_000L, null));
+    }
+
+    @AfterEach
+    void flushBuffer() {
+        writeBuffer.flushAll();
+    }
+
+    @Test
+    void sameDateUpdatesAreCoalescedIntoOneUpdate() {
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(), dto(DATE, 8_500L, null));
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(), dto(DATE, 8_000L, null));
+        assertThat(writeBuffer.pendingCount()).isOne();
+        assertThat(stored().getBalance()).as("nothing written before the flush").isEqualTo(9_000L);
+
+        writeBuffer.flush(ACCOUNT_ID);
+
+        BalanceEntryDTO stored = stored();
+        assertThat(stored.getBalance()).isEqualTo(8_000L);
+        // Each UPDATE bumps the version once
+        assertThat(stored.getVersion()).isEqualTo(entry.getVersion() + 1);
+        assertThat(writeBuffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void directWriteNewerThanABufferedOneSurvivesTheFlush() {
+        balanceService.updateEntry(ACCOUNT_ID, entry.getId(), dto(DATE, 8_500L, null));
+        BalanceEntryDTO direct = balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                dto(DATE, 7_000L, entry.getVersion()));
+
+        writeBuffer.flush(ACCOUNT_ID);
+
+        assertThat(stored().getBalance()).isEqualTo(7_000L);
+        assertThat(stored().getVersion()).isEqualTo(direct.getVersion());
+    }
+
+    @Test
+    void staleBufferedWriteIsSkippedByTheFlush() {
+        // As when a journaled write is replayed, or a flush is under way, after a direct write
+        PendingWrite stale = new PendingWrite(entry.getId(), DATE, 8_500L, "stale", entry.getVersion());
+        BalanceEntryDTO direct = balanceService.updateEntry(ACCOUNT_ID, entry.getId(),
+                dto(DATE, 7_000L, entry.getVersion()));
+
+        assertThat(writer.apply(ACCOUNT_ID, List.of(stale))).isZero();
+
+        BalanceEntryDTO stored = stored();
+        assertThat(stored.getBalance()).isEqualTo(7_000L);
+        assertThat(stored.getVersion()).isEqualTo(direct.getVersion());
+    }
+
+    @Test
+    @DirtiesContext
+    void journaledWritesAreReplayedOnStartup(@TempDir Path journalDir) {
+        // Left behind by a buffer that stopped before flushing
+        new WriteJournal(journalDir, objectMapper).append(ACCOUNT_ID,
+                new PendingWrite(entry.getId(), DATE, 8_250L, "replayed", entry.getVersion()));
+
+        WriteBehindBuffer restarted = new WriteBehindBuffer(writer, index, cache, objectMapper, true,
+                3_600_000L, 500, journalDir.toString());
+        restarted.start();
+        restarted.stop();
+
+        BalanceEntryDTO stored = stored();
+        assertThat(stored.getBalance()).isEqualTo(8_250L);
+        assertThat(stored.getDescription()).isEqualTo("replayed");
+        assertThat(stored.getVersion()).isEqualTo(entry.getVersion() + 1);
+        assertThat(restarted.pendingCount()).isZero();
+        assertThat(journalDir.toFile().list()).as("journal truncated after the flush").isEmpty();
+    }
+
+    // Helper methods
+    private BalanceEntryDTO stored() {
+        return balanceService.getEntryById(ACCOUNT_ID, entry.getId()).orElseThrow();
+    }
+
+    private static BalanceEntryDTO dto(LocalDate date, long balanceCents, Long version) {
+        BalanceEntryDTO dto = new BalanceEntryDTO(null, date, balanceCents, "write-behind test");
+        dto.setVersion(version);
+        return dto;
+    }
+}
@@ -9,49 +9,101 @@ USE expense_tracker_db;
 
 -- =============================================
 -- Table: balance_entries
--- Stores daily balance entries for expense tracking
+-- Stores daily balance entries for expense tracking, one per account and date
 -- =============================================
 DROP TABLE IF EXISTS balance_entries;
 
 CREATE TABLE balance_entries (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    date DATE NOT NULL UNIQUE,
+    account_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    date DATE NOT NULL,
     balance DECIMAL(15, 2) NOT NULL,
     description VARCHAR(500),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Bumped by every update, for optimistic checks of concurrent edits
+    version BIGINT NOT NULL DEFAULT 0,
     
     -- Indexes for better query performance
-    INDEX idx_date (date),
+    -- (every query filters on account_id first, then a date or date range)
     INDEX idx_created_at (created_at),
     
     -- Constraints
+    CONSTRAINT uk_account_date UNIQUE (account_id, date),
     CONSTRAINT chk_balance_positive CHECK (balance >= 0)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =============================================
+-- Table: monthly_rollups
+-- Pre-computed monthly totals, maintained by the application on every write
+-- (rebuild with: java -jar expense-tracker.jar --rebuild-rollups)
+-- =============================================
+DROP TABLE IF EXISTS monthly_rollups;
+
+CREATE TABLE monthly_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    period INT NOT NULL,
+    rollup_year INT NOT NULL,
+    rollup_month INT NOT NULL,
+    opening_balance DECIMAL(15, 2) NOT NULL,
+    closing_balance DECIMAL(15, 2) NOT NULL,
+    total_expense DECIMAL(15, 2) NOT NULL,
+    min_daily_expense DECIMAL(15, 2),
+    max_daily_expense DECIMAL(15, 2),
+    days_with_expenses INT NOT NULL,
+    entry_count INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    -- period = year * 100 + month
+    CONSTRAINT uk_rollup_account_period UNIQUE (account_id, period)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =============================================
+-- Migration: single-account database to accounts
+-- Existing rows move to the 'default' account, which /api/balances serves
+-- =============================================
+-- ALTER TABLE balance_entries ADD COLUMN account_id VARCHAR(64) NOT NULL DEFAULT 'default' AFTER id;
+-- ALTER TABLE balance_entries DROP INDEX date, DROP INDEX idx_date;
+-- ALTER TABLE balance_entries ADD CONSTRAINT uk_account_date UNIQUE (account_id, date);
+-- ALTER TABLE monthly_rollups ADD COLUMN account_id VARCHAR(64) NOT NULL DEFAULT 'default' AFTER id;
+-- ALTER TABLE monthly_rollups DROP INDEX uk_rollup_period;
+-- ALTER TABLE monthly_rollups ADD CONSTRAINT uk_rollup_account_period UNIQUE (account_id, period);
+
+-- =============================================
+-- Migration: entry versions for optimistic checks
+-- =============================================
+-- ALTER TABLE balance_entries ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
 -- =============================================
 -- Optional: Create views for reporting
 -- =============================================
 
--- View: Daily expenses with previous day comparison
+-- View: Daily expenses against the nearest earlier entry
+-- (the whole drop across a gap on the entry after it, like the application's
+-- default expense-tracker.expenses.gap-policy=current-day;
+-- expense-tracker.expenses.mode=database runs the same window over one account's
+-- date range directly, since MySQL cannot push the date filter into this view)
 CREATE OR REPLACE VIEW v_daily_expenses AS
 SELECT 
     b.id,
+    b.account_id,
     b.date,
     b.balance,
     b.description,
-    LAG(b.balance) OVER (ORDER BY b.date) AS previous_balance,
+    LAG(b.balance) OVER (PARTITION BY b.account_id ORDER BY b.date) AS previous_balance,
     CASE 
-        WHEN LAG(b.balance) OVER (ORDER BY b.date) IS NOT NULL 
-        THEN GREATEST(0, LAG(b.balance) OVER (ORDER BY b.date) - b.balance)
+        WHEN LAG(b.balance) OVER (PARTITION BY b.account_id ORDER BY b.date) IS NOT NULL
+        THEN GREATEST(0, LAG(b.balance) OVER (PARTITION BY b.account_id ORDER BY b.date) - b.balance)
         ELSE NULL 
     END AS daily_expense
 FROM balance_entries b
-ORDER BY b.date;
+ORDER BY b.account_id, b.date;
 
 -- View: Monthly summary
 CREATE OR REPLACE VIEW v_monthly_summary AS
 SELECT 
+    account_id,
     YEAR(date) AS year,
     MONTH(date) AS month,
     MONTHNAME(date) AS month_name,
@@ -60,17 +112,17 @@ SELECT
     MAX(balance) AS max_balance,
     AVG(balance) AS avg_balance,
     FIRST_VALUE(balance) OVER (
-        PARTITION BY YEAR(date), MONTH(date) 
+        PARTITION BY account_id, YEAR(date), MONTH(date) 
         ORDER BY date
     ) AS opening_balance,
     LAST_VALUE(balance) OVER (
-        PARTITION BY YEAR(date), MONTH(date) 
+        PARTITION BY account_id, YEAR(date), MONTH(date) 
         ORDER BY date
         RANGE BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING
     ) AS closing_balance
 FROM balance_entries
-GROUP BY YEAR(date), MONTH(date), MONTHNAME(date), balance, date
-ORDER BY year DESC, month DESC;
+GROUP BY account_id, YEAR(date), MONTH(date), MONTHNAME(date), balance, date
+ORDER BY account_id, year DESC, month DESC;
 
 -- =============================================
 -- Sample queries for reference
@@ -80,8 +132,9 @@ ORDER BY year DESC, month DESC;
 -- SELECT * FROM v_daily_expenses;
 
 -- Query: Get entries for a specific month
+-- (a date range keeps uk_account_date usable; YEAR(date)/MONTH(date) forces a scan)
 -- SELECT * FROM balance_entries 
--- WHERE YEAR(date) = 2025 AND MONTH(date) = 1;
+-- WHERE account_id = 'default' AND date BETWEEN '2025-01-01' AND '2025-01-31';
 
 -- Query: Get monthly totals
 -- SELECT 
@@ -104,7 +157,7 @@ ORDER BY year DESC, month DESC;
 DELIMITER //
 
 -- Procedure: Calculate daily expense for a specific date
-CREATE PROCEDURE IF NOT EXISTS sp_calculate_daily_expense(IN p_date DATE)
+CREATE PROCEDURE IF NOT EXISTS sp_calculate_daily_expense(IN p_account_id VARCHAR(64), IN p_date DATE)
 BEGIN
     DECLARE v_current_balance DECIMAL(15, 2);
     DECLARE v_previous_balance DECIMAL(15, 2);
@@ -113,12 +166,14 @@ BEGIN
     -- Get current date balance
     SELECT balance INTO v_current_balance 
     FROM balance_entries 
-    WHERE date = p_date;
+    WHERE account_id = p_account_id AND date = p_date;
     
-    -- Get previous date balance
+    -- Get the nearest earlier balance (one seek on uk_account_date)
     SELECT balance INTO v_previous_balance 
     FROM balance_entries 
-    WHERE date = DATE_SUB(p_date, INTERVAL 1 DAY);
+    WHERE account_id = p_account_id AND date < p_date
+    ORDER BY date DESC
+    LIMIT 1;
     
     -- Calculate expense
     IF v_current_balance IS NOT NULL AND v_previous_balance IS NOT NULL THEN
@@ -135,7 +190,8 @@ BEGIN
 END //
 
 -- Procedure: Get expense summary for date range
-CREATE PROCEDURE IF NOT EXISTS sp_expense_summary(IN p_start_date DATE, IN p_end_date DATE)
+CREATE PROCEDURE IF NOT EXISTS sp_expense_summary(IN p_account_id VARCHAR(64), IN p_start_date DATE,
+                                                  IN p_end_date DATE)
 BEGIN
     SELECT 
         COUNT(*) AS total_days,
@@ -154,7 +210,7 @@ BEGIN
             balance,
             LAG(balance) OVER (ORDER BY date) AS prev_balance
         FROM balance_entries
-        WHERE date BETWEEN p_start_date AND p_end_date
+        WHERE account_id = p_account_id AND date BETWEEN p_start_date AND p_end_date
     ) AS daily_data;
 END //
 
@@ -302,17 +302,15 @@ function calculateExpenseForDate(dateStr) {
     const currentEntry = balanceEntries.find(e => e.date === dateStr);
     if (!currentEntry) return null;
     
-    // Find previous day's entry
-    const currentDate = new Date(dateStr);
-    const prevDate = new Date(currentDate);
-    prevDate.setDate(prevDate.getDate() - 1);
-    const prevDateStr = prevDate.toISOString().split('T')[0];
-    
-    const prevEntry = balanceEntries.find(e => e.date === prevDateStr);
+    // Find the nearest earlier entry (ISO dates compare as strings)
+    let prevEntry = null;
+    balanceEntries.forEach(e => {
+        if (e.date < dateStr && (!prevEntry || e.date > prevEntry.date)) prevEntry = e;
+    });
     
     if (!prevEntry) return null;
     
-    // Expense = Previous balance - Current balance (if positive, money was spent)
+    // Expense = Previous entry's balance - Current balance (if positive, money was spent)
     const expense = prevEntry.balance - currentEntry.balance;
     return expense > 0 ? expense : 0;
 }
@@ -393,13 +391,13 @@ function showDayDetails(dateStr) {
                 <div class="entry-item">
                     <div class="entry-info">
                         <div class="entry-date">Daily Expense</div>
-                        <div class="entry-description">Calculated from previous day</div>
+                        <div class="entry-description">Calculated from previous entry</div>
                     </div>
                     <div class="entry-amount entry-expense">₹${expense.toFixed(2)}</div>
                 </div>
             `;
         } else {
-            html += `<p class="no-data">No previous day entry to calculate expense.</p>`;
+            html += `<p class="no-data">No previous entry to calculate expense.</p>`;
         }
         
         details.innerHTML = html;